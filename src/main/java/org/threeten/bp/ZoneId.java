@@ -327,6 +327,11 @@ public abstract class ZoneId implements Serializable {
      */
     public static ZoneId of(String zoneId) {
         Jdk8Methods.requireNonNull(zoneId, "zoneId");
+        // the cache always holds the fixed 'UTC', 'GMT' and 'UT' regions
+        ZoneRegion region = ZoneRegion.ofCached(zoneId);
+        if (region != null) {
+            return region;
+        }
         if (zoneId.equals("Z")) {
             return ZoneOffset.UTC;
         }
@@ -336,9 +341,6 @@ public abstract class ZoneId implements Serializable {
         if (zoneId.startsWith("+") || zoneId.startsWith("-")) {
             return ZoneOffset.of(zoneId);
         }
-        if (zoneId.equals("UTC") || zoneId.equals("GMT") || zoneId.equals("UT")) {
-            return new ZoneRegion(zoneId, ZoneOffset.UTC.getRules());
-        }
         if (zoneId.startsWith("UTC+") || zoneId.startsWith("GMT+") ||
                 zoneId.startsWith("UTC-") || zoneId.startsWith("GMT-")) {
             ZoneOffset offset = ZoneOffset.of(zoneId.substring(3));
@@ -39,8 +39,6 @@ import java.io.IOException;
 import java.io.InvalidObjectException;
 import java.io.ObjectStreamException;
 import java.io.Serializable;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentMap;
 
 import org.threeten.bp.jdk8.Jdk8Methods;
 import org.threeten.bp.temporal.ChronoField;
@@ -100,15 +98,14 @@ public final class ZoneOffset
         }
     };
 
-    /** Cache of time-zone offset by offset in seconds. */
-    private static final ConcurrentMap<Integer, ZoneOffset> SECONDS_CACHE = new ConcurrentHashMap<Integer, ZoneOffset>(16, 0.75f, 4);
-    /** Cache of time-zone offset by ID. */
-    private static final ConcurrentMap<String, ZoneOffset> ID_CACHE = new ConcurrentHashMap<String, ZoneOffset>(16, 0.75f, 4);
-
     /**
      * The number of seconds per hour.
      */
     private static final int SECONDS_PER_HOUR = 60 * 60;
+    /**
+     * The number of seconds per quarter hour.
+     */
+    private static final int SECONDS_PER_QUARTER = 15 * 60;
     /**
      * The number of seconds per minute.
      */
@@ -125,6 +122,16 @@ public final class ZoneOffset
      * Serialization version.
      */
     private static final long serialVersionUID = 2357656521762053153L;
+    /**
+     * Cache of the time-zone offsets that are a whole number of quarter hours,
+     * indexed by quarter hours from -18:00.
+     */
+    private static final ZoneOffset[] QUARTER_CACHE = new ZoneOffset[2 * MAX_SECONDS / SECONDS_PER_QUARTER + 1];
+    static {
+        for (int i = 0; i < QUARTER_CACHE.length; i++) {
+            QUARTER_CACHE[i] = new ZoneOffset(i * SECONDS_PER_QUARTER - MAX_SECONDS);
+        }
+    }
 
     /**
      * The time-zone offset for UTC, with an ID of 'Z'.
@@ -147,6 +154,10 @@ public final class ZoneOffset
      * The string form of the time-zone offset.
      */
     private final transient String id;
+    /**
+     * The fixed rules of the time-zone offset, lazily created.
+     */
+    private transient ZoneRules rules;
 
     //-----------------------------------------------------------------------
     /**
@@ -181,10 +192,8 @@ public final class ZoneOffset
      */
     public static ZoneOffset of(String offsetId) {
         Jdk8Methods.requireNonNull(offsetId, "offsetId");
-        // "Z" is always in the cache
-        ZoneOffset offset = ID_CACHE.get(offsetId);
-        if (offset != null) {
-            return offset;
+        if (offsetId.equals("Z")) {
+            return UTC;
         }
 
         // parse - +h, +hh, +hhmm, +hh:mm, +hhmmss, +hh:mm:ss
@@ -389,16 +398,8 @@ public final class ZoneOffset
         if (Math.abs(totalSeconds) > MAX_SECONDS) {
             throw new DateTimeException("Zone offset not in valid range: -18:00 to +18:00");
         }
-        if (totalSeconds % (15 * SECONDS_PER_MINUTE) == 0) {
-            Integer totalSecs = totalSeconds;
-            ZoneOffset result = SECONDS_CACHE.get(totalSecs);
-            if (result == null) {
-                result = new ZoneOffset(totalSeconds);
-                SECONDS_CACHE.putIfAbsent(totalSecs, result);
-                result = SECONDS_CACHE.get(totalSecs);
-                ID_CACHE.putIfAbsent(result.getId(), result);
-            }
-            return result;
+        if (totalSeconds % SECONDS_PER_QUARTER == 0) {
+            return QUARTER_CACHE[(totalSeconds + MAX_SECONDS) / SECONDS_PER_QUARTER];
         } else {
             return new ZoneOffset(totalSeconds);
         }
@@ -477,7 +478,13 @@ public final class ZoneOffset
      */
     @Override
     public ZoneRules getRules() {
-        return ZoneRules.of(this);
+        // racy single-check is safe as the rules are immutable
+        ZoneRules result = rules;
+        if (result == null) {
+            result = ZoneRules.of(this);
+            rules = result;
+        }
+        return result;
     }
 
     //-----------------------------------------------------------------------
@@ -37,6 +37,8 @@ import java.io.IOException;
 import java.io.InvalidObjectException;
 import java.io.ObjectStreamException;
 import java.io.Serializable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.regex.Pattern;
 
 import org.threeten.bp.jdk8.Jdk8Methods;
@@ -72,15 +74,28 @@ final class ZoneRegion extends ZoneId implements Serializable {
      * The regex pattern for region IDs.
      */
     private static final Pattern PATTERN = Pattern.compile("[A-Za-z][A-Za-z0-9~/._+-]+");
+    /**
+     * The maximum number of cached regions.
+     */
+    private static final int MAX_REGIONS = 2048;
+    /**
+     * The cache of regions whose rules were found, keyed by ID.
+     */
+    private static final ConcurrentMap<String, ZoneRegion> REGIONS = new ConcurrentHashMap<String, ZoneRegion>(1024, 0.75f, 4);
+    static {
+        REGIONS.put("UTC", new ZoneRegion("UTC", ZoneOffset.UTC.getRules()));
+        REGIONS.put("GMT", new ZoneRegion("GMT", ZoneOffset.UTC.getRules()));
+        REGIONS.put("UT", new ZoneRegion("UT", ZoneOffset.UTC.getRules()));
+    }
 
     /**
      * The time-zone ID, not null.
      */
     private final String id;
     /**
-     * The time-zone rules, null if zone ID was loaded leniently.
+     * The time-zone rules, null until found if the zone ID was loaded leniently.
      */
-    private final transient ZoneRules rules;
+    private transient volatile Binding binding;
 
     /**
      * Obtains an instance of {@code ZoneRegion} from an identifier without checking
@@ -125,6 +140,9 @@ final class ZoneRegion extends ZoneId implements Serializable {
 
     /**
      * Obtains an instance of {@code ZoneId} from an identifier.
+     * <p>
+     * Regions whose rules are found are cached, so the same instance is returned
+     * for the same ID until the rules of a provider change.
      *
      * @param zoneId  the time-zone ID, not null
      * @param checkAvailable  whether to check if the zone ID is available
@@ -134,34 +152,71 @@ final class ZoneRegion extends ZoneId implements Serializable {
      */
     static ZoneRegion ofId(String zoneId, boolean checkAvailable) {
         Jdk8Methods.requireNonNull(zoneId, "zoneId");
+        ZoneRegion region = ofCached(zoneId);
+        if (region != null) {
+            return region;
+        }
         if (zoneId.length() < 2 || PATTERN.matcher(zoneId).matches() == false) {
             throw new DateTimeException("Invalid ID for region-based ZoneId, invalid format: " + zoneId);
         }
         ZoneRules rules = null;
+        int changeCount = ZoneRulesProvider.getChangeCount();
         try {
             // always attempt load for better behavior after deserialization
             rules = ZoneRulesProvider.getRules(zoneId, true);
         } catch (ZoneRulesException ex) {
             // special case as removed from data file
             if (zoneId.equals("GMT0")) {
-                rules = ZoneOffset.UTC.getRules();
+                return new ZoneRegion(zoneId, ZoneOffset.UTC.getRules());
             } else if (checkAvailable) {
                 throw ex;
             }
         }
-        return new ZoneRegion(zoneId, rules);
+        if (rules == null) {
+            return new ZoneRegion(zoneId, null, changeCount);
+        }
+        region = new ZoneRegion(zoneId, rules, changeCount);
+        if (REGIONS.size() < MAX_REGIONS || REGIONS.containsKey(zoneId)) {
+            REGIONS.put(zoneId, region);
+        }
+        return region;
+    }
+
+    /**
+     * Obtains a cached instance of {@code ZoneRegion} from an identifier.
+     * <p>
+     * This does not validate or normalize the ID, as only valid IDs are cached.
+     * A region is only returned while its rules are current.
+     *
+     * @param zoneId  the time-zone ID, not null
+     * @return the cached zone ID, null if not cached
+     */
+    static ZoneRegion ofCached(String zoneId) {
+        ZoneRegion region = REGIONS.get(zoneId);
+        return (region != null && region.isCurrent() ? region : null);
     }
 
     //-------------------------------------------------------------------------
     /**
-     * Constructor.
+     * Constructor for fixed rules, which are never looked up again.
      *
      * @param id  the time-zone ID, not null
      * @param rules  the rules, null for lazy lookup
      */
     ZoneRegion(String id, ZoneRules rules) {
+        this(id, rules, Binding.FIXED);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param id  the time-zone ID, not null
+     * @param rules  the rules, null for lazy lookup
+     * @param changeCount  the provider change count before the rules were obtained
+     */
+    private ZoneRegion(String id, ZoneRules rules, int changeCount) {
         this.id = id;
-        this.rules = rules;
+        this.binding = (rules != null ? new Binding(rules, changeCount) : null);
     }
 
     //-----------------------------------------------------------------------
@@ -172,9 +227,64 @@ final class ZoneRegion extends ZoneId implements Serializable {
 
     @Override
     public ZoneRules getRules() {
-        // additional query for group provider when null allows for possibility
-        // that the provider was added after the ZoneId was created
-        return (rules != null ? rules : ZoneRulesProvider.getRules(id, false));
+        Binding binding = this.binding;
+        if (binding != null &&
+                (binding.changeCount == Binding.FIXED || binding.changeCount == ZoneRulesProvider.getChangeCount())) {
+            if (binding.rules != null) {
+                return binding.rules;
+            }
+            // the provider prevents caching
+            return ZoneRulesProvider.getRules(id, false);
+        }
+        return refreshRules(binding);
+    }
+
+    /**
+     * Checks if the outcome of looking up the rules is bound and still current.
+     *
+     * @return true if the rules do not need to be looked up again
+     */
+    private boolean isCurrent() {
+        Binding binding = this.binding;
+        return binding != null &&
+                (binding.changeCount == Binding.FIXED || binding.changeCount == ZoneRulesProvider.getChangeCount());
+    }
+
+    /**
+     * Looks up the rules when they have not been found yet or a dynamic provider has changed.
+     * <p>
+     * Rules not found when the zone ID was loaded leniently are looked up on each call
+     * until found, allowing for the possibility that the provider was added after
+     * the zone ID was created.
+     * <p>
+     * The outcome is bound with the change count, so it is only looked up again once
+     * the providers change. This applies to stale rules kept because the lookup failed,
+     * and to a provider that prevents caching, which is then asked directly.
+     *
+     * @param stale  the current binding, null if the rules have not been found
+     * @return the rules, not null
+     * @throws ZoneRulesException if the rules have not been found and cannot be found now
+     */
+    private ZoneRules refreshRules(Binding stale) {
+        int changeCount = ZoneRulesProvider.getChangeCount();
+        ZoneRules rules;
+        try {
+            rules = ZoneRulesProvider.getRules(id, true);
+        } catch (ZoneRulesException ex) {
+            if (stale == null || stale.rules == null) {
+                throw ex;
+            }
+            // keep the rules already seen until the providers change again
+            binding = new Binding(stale.rules, changeCount);
+            return stale.rules;
+        }
+        if (rules == null) {
+            // the provider prevents caching, so only ask it for uncached rules from now on
+            binding = new Binding(null, changeCount);
+            return ZoneRulesProvider.getRules(id, false);
+        }
+        binding = new Binding(rules, changeCount);
+        return rules;
     }
 
     //-----------------------------------------------------------------------
@@ -206,4 +316,23 @@ final class ZoneRegion extends ZoneId implements Serializable {
         return ofLenient(id);
     }
 
+
+    //-----------------------------------------------------------------------
+    /**
+     * The rules, together with the provider change count when they were obtained.
+     * The rules are null if the provider prevents caching them.
+     * This is immutable so that the pair is always published together.
+     */
+    private static final class Binding {
+        /** The change count for rules that never change. */
+        static final int FIXED = -1;
+        final ZoneRules rules;
+        final int changeCount;
+
+        Binding(ZoneRules rules, int changeCount) {
+            this.rules = rules;
+            this.changeCount = changeCount;
+        }
+    }
+
 }
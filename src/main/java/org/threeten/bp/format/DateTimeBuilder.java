@@ -50,7 +50,6 @@ import static org.threeten.bp.temporal.ChronoField.OFFSET_SECONDS;
 import static org.threeten.bp.temporal.ChronoField.SECOND_OF_DAY;
 import static org.threeten.bp.temporal.ChronoField.SECOND_OF_MINUTE;
 
-import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -99,7 +98,7 @@ final class DateTimeBuilder
     /**
      * The map of other fields.
      */
-    final Map<TemporalField, Long> fieldValues = new HashMap<TemporalField, Long>();
+    final FieldValueMap fieldValues = new FieldValueMap();
     /**
      * The chronology.
      */
@@ -145,10 +144,6 @@ final class DateTimeBuilder
     }
 
     //-----------------------------------------------------------------------
-    private Long getFieldValue0(TemporalField field) {
-        return fieldValues.get(field);
-    }
-
     /**
      * Adds a field-value pair to the builder.
      * <p>
@@ -165,15 +160,17 @@ final class DateTimeBuilder
      */
     DateTimeBuilder addFieldValue(TemporalField field, long value) {
         Jdk8Methods.requireNonNull(field, "field");
-        Long old = getFieldValue0(field);  // check first for better error message
-        if (old != null && old.longValue() != value) {
-            throw new DateTimeException("Conflict found: " + field + " " + old + " differs from " + field + " " + value + ": " + this);
+        if (fieldValues.containsKey(field)) {  // check first for better error message
+            long old = fieldValues.getValue(field);
+            if (old != value) {
+                throw new DateTimeException("Conflict found: " + field + " " + old + " differs from " + field + " " + value + ": " + this);
+            }
         }
         return putFieldValue0(field, value);
     }
 
     private DateTimeBuilder putFieldValue0(TemporalField field, long value) {
-        fieldValues.put(field, value);
+        fieldValues.putValue(field, value);
         return this;
     }
 
@@ -274,22 +271,28 @@ final class DateTimeBuilder
             throw new DateTimeException("ChronoLocalDate must use the effective parsed chronology: " + chrono);
         }
         long epochDay = date.toEpochDay();
-        Long old = fieldValues.put(ChronoField.EPOCH_DAY, epochDay);
-        if (old != null && old.longValue() != epochDay) {
-            throw new DateTimeException("Conflict found: " + LocalDate.ofEpochDay(old) +
-                    " differs from " + LocalDate.ofEpochDay(epochDay) +
-                    " while resolving  " + targetField);
+        if (fieldValues.containsKey(EPOCH_DAY)) {
+            long old = fieldValues.getValue(EPOCH_DAY);
+            if (old != epochDay) {
+                throw new DateTimeException("Conflict found: " + LocalDate.ofEpochDay(old) +
+                        " differs from " + LocalDate.ofEpochDay(epochDay) +
+                        " while resolving  " + targetField);
+            }
         }
+        fieldValues.putValue(EPOCH_DAY, epochDay);
     }
 
     private void resolveMakeChanges(TemporalField targetField, LocalTime time) {
         long nanOfDay = time.toNanoOfDay();
-        Long old = fieldValues.put(ChronoField.NANO_OF_DAY, nanOfDay);
-        if (old != null && old.longValue() != nanOfDay) {
-            throw new DateTimeException("Conflict found: " + LocalTime.ofNanoOfDay(old) +
-                    " differs from " + time +
-                    " while resolving  " + targetField);
+        if (fieldValues.containsKey(NANO_OF_DAY)) {
+            long old = fieldValues.getValue(NANO_OF_DAY);
+            if (old != nanOfDay) {
+                throw new DateTimeException("Conflict found: " + LocalTime.ofNanoOfDay(old) +
+                        " differs from " + time +
+                        " while resolving  " + targetField);
+            }
         }
+        fieldValues.putValue(NANO_OF_DAY, nanOfDay);
     }
 
     private void mergeDate(ResolverStyle resolverStyle) {
@@ -297,7 +300,7 @@ final class DateTimeBuilder
             checkDate(IsoChronology.INSTANCE.resolveDate(fieldValues, resolverStyle));
         } else {
             if (fieldValues.containsKey(EPOCH_DAY)) {
-                checkDate(LocalDate.ofEpochDay(fieldValues.remove(EPOCH_DAY)));
+                checkDate(LocalDate.ofEpochDay(fieldValues.removeValue(EPOCH_DAY)));
                 return;
             }
         }
@@ -315,7 +318,7 @@ final class DateTimeBuilder
                         } catch (DateTimeException ex) {
                             continue;
                         }
-                        Long val2 = fieldValues.get(field);
+                        long val2 = fieldValues.getValue(field);
                         if (val1 != val2) {
                             throw new DateTimeException("Conflict found: Field " + field + " " + val1 + " differs from " + field + " " + val2 + " derived from " + date);
                         }
@@ -327,7 +330,7 @@ final class DateTimeBuilder
 
     private void mergeTime(ResolverStyle resolverStyle) {
         if (fieldValues.containsKey(CLOCK_HOUR_OF_DAY)) {
-            long ch = fieldValues.remove(CLOCK_HOUR_OF_DAY);
+            long ch = fieldValues.removeValue(CLOCK_HOUR_OF_DAY);
             if (resolverStyle != ResolverStyle.LENIENT) {
                 if (resolverStyle == ResolverStyle.SMART && ch == 0) {
                     // ok
@@ -338,7 +341,7 @@ final class DateTimeBuilder
             addFieldValue(HOUR_OF_DAY, ch == 24 ? 0 : ch);
         }
         if (fieldValues.containsKey(CLOCK_HOUR_OF_AMPM)) {
-            long ch = fieldValues.remove(CLOCK_HOUR_OF_AMPM);
+            long ch = fieldValues.removeValue(CLOCK_HOUR_OF_AMPM);
             if (resolverStyle != ResolverStyle.LENIENT) {
                 if (resolverStyle == ResolverStyle.SMART && ch == 0) {
                     // ok
@@ -350,15 +353,15 @@ final class DateTimeBuilder
         }
         if (resolverStyle != ResolverStyle.LENIENT) {
             if (fieldValues.containsKey(AMPM_OF_DAY)) {
-                AMPM_OF_DAY.checkValidValue(fieldValues.get(AMPM_OF_DAY));
+                AMPM_OF_DAY.checkValidValue(fieldValues.getValue(AMPM_OF_DAY));
             }
             if (fieldValues.containsKey(HOUR_OF_AMPM)) {
-                HOUR_OF_AMPM.checkValidValue(fieldValues.get(HOUR_OF_AMPM));
+                HOUR_OF_AMPM.checkValidValue(fieldValues.getValue(HOUR_OF_AMPM));
             }
         }
         if (fieldValues.containsKey(AMPM_OF_DAY) && fieldValues.containsKey(HOUR_OF_AMPM)) {
-            long ap = fieldValues.remove(AMPM_OF_DAY);
-            long hap = fieldValues.remove(HOUR_OF_AMPM);
+            long ap = fieldValues.removeValue(AMPM_OF_DAY);
+            long hap = fieldValues.removeValue(HOUR_OF_AMPM);
             addFieldValue(HOUR_OF_DAY, ap * 12 + hap);
         }
 //        if (timeFields.containsKey(HOUR_OF_DAY) && timeFields.containsKey(MINUTE_OF_HOUR)) {
@@ -372,7 +375,7 @@ final class DateTimeBuilder
 //            addFieldValue(SECOND_OF_DAY, mod * 60 + som);
 //        }
         if (fieldValues.containsKey(NANO_OF_DAY)) {
-            long nod = fieldValues.remove(NANO_OF_DAY);
+            long nod = fieldValues.removeValue(NANO_OF_DAY);
             if (resolverStyle != ResolverStyle.LENIENT) {
                 NANO_OF_DAY.checkValidValue(nod);
             }
@@ -380,7 +383,7 @@ final class DateTimeBuilder
             addFieldValue(NANO_OF_SECOND, nod % 1000000000L);
         }
         if (fieldValues.containsKey(MICRO_OF_DAY)) {
-            long cod = fieldValues.remove(MICRO_OF_DAY);
+            long cod = fieldValues.removeValue(MICRO_OF_DAY);
             if (resolverStyle != ResolverStyle.LENIENT) {
                 MICRO_OF_DAY.checkValidValue(cod);
             }
@@ -388,7 +391,7 @@ final class DateTimeBuilder
             addFieldValue(MICRO_OF_SECOND, cod % 1000000L);
         }
         if (fieldValues.containsKey(MILLI_OF_DAY)) {
-            long lod = fieldValues.remove(MILLI_OF_DAY);
+            long lod = fieldValues.removeValue(MILLI_OF_DAY);
             if (resolverStyle != ResolverStyle.LENIENT) {
                 MILLI_OF_DAY.checkValidValue(lod);
             }
@@ -396,7 +399,7 @@ final class DateTimeBuilder
             addFieldValue(MILLI_OF_SECOND, lod % 1000);
         }
         if (fieldValues.containsKey(SECOND_OF_DAY)) {
-            long sod = fieldValues.remove(SECOND_OF_DAY);
+            long sod = fieldValues.removeValue(SECOND_OF_DAY);
             if (resolverStyle != ResolverStyle.LENIENT) {
                 SECOND_OF_DAY.checkValidValue(sod);
             }
@@ -405,7 +408,7 @@ final class DateTimeBuilder
             addFieldValue(SECOND_OF_MINUTE, sod % 60);
         }
         if (fieldValues.containsKey(MINUTE_OF_DAY)) {
-            long mod = fieldValues.remove(MINUTE_OF_DAY);
+            long mod = fieldValues.removeValue(MINUTE_OF_DAY);
             if (resolverStyle != ResolverStyle.LENIENT) {
                 MINUTE_OF_DAY.checkValidValue(mod);
             }
@@ -420,118 +423,116 @@ final class DateTimeBuilder
 //            addFieldValue(NANO_OF_SECOND, nod % 1000000000L);
         if (resolverStyle != ResolverStyle.LENIENT) {
             if (fieldValues.containsKey(MILLI_OF_SECOND)) {
-                MILLI_OF_SECOND.checkValidValue(fieldValues.get(MILLI_OF_SECOND));
+                MILLI_OF_SECOND.checkValidValue(fieldValues.getValue(MILLI_OF_SECOND));
             }
             if (fieldValues.containsKey(MICRO_OF_SECOND)) {
-                MICRO_OF_SECOND.checkValidValue(fieldValues.get(MICRO_OF_SECOND));
+                MICRO_OF_SECOND.checkValidValue(fieldValues.getValue(MICRO_OF_SECOND));
             }
         }
         if (fieldValues.containsKey(MILLI_OF_SECOND) && fieldValues.containsKey(MICRO_OF_SECOND)) {
-            long los = fieldValues.remove(MILLI_OF_SECOND);
-            long cos = fieldValues.get(MICRO_OF_SECOND);
+            long los = fieldValues.removeValue(MILLI_OF_SECOND);
+            long cos = fieldValues.getValue(MICRO_OF_SECOND);
             addFieldValue(MICRO_OF_SECOND, los * 1000 + (cos % 1000));
         }
         if (fieldValues.containsKey(MICRO_OF_SECOND) && fieldValues.containsKey(NANO_OF_SECOND)) {
-            long nos = fieldValues.get(NANO_OF_SECOND);
+            long nos = fieldValues.getValue(NANO_OF_SECOND);
             addFieldValue(MICRO_OF_SECOND, nos / 1000);
-            fieldValues.remove(MICRO_OF_SECOND);
+            fieldValues.removeValue(MICRO_OF_SECOND);
         }
         if (fieldValues.containsKey(MILLI_OF_SECOND) && fieldValues.containsKey(NANO_OF_SECOND)) {
-            long nos = fieldValues.get(NANO_OF_SECOND);
+            long nos = fieldValues.getValue(NANO_OF_SECOND);
             addFieldValue(MILLI_OF_SECOND, nos / 1000000);
-            fieldValues.remove(MILLI_OF_SECOND);
+            fieldValues.removeValue(MILLI_OF_SECOND);
         }
         if (fieldValues.containsKey(MICRO_OF_SECOND)) {
-            long cos = fieldValues.remove(MICRO_OF_SECOND);
+            long cos = fieldValues.removeValue(MICRO_OF_SECOND);
             addFieldValue(NANO_OF_SECOND, cos * 1000);
         } else if (fieldValues.containsKey(MILLI_OF_SECOND)) {
-            long los = fieldValues.remove(MILLI_OF_SECOND);
+            long los = fieldValues.removeValue(MILLI_OF_SECOND);
             addFieldValue(NANO_OF_SECOND, los * 1000000);
         }
     }
 
     private void resolveTimeInferZeroes(ResolverStyle resolverStyle) {
-        Long hod = fieldValues.get(HOUR_OF_DAY);
-        Long moh = fieldValues.get(MINUTE_OF_HOUR);
-        Long som = fieldValues.get(SECOND_OF_MINUTE);
-        Long nos = fieldValues.get(NANO_OF_SECOND);
-        if (hod == null) {
+        if (fieldValues.containsKey(HOUR_OF_DAY) == false) {
             return;
         }
-        if (moh == null && (som != null || nos != null)) {
+        boolean hasMoh = fieldValues.containsKey(MINUTE_OF_HOUR);
+        boolean hasSom = fieldValues.containsKey(SECOND_OF_MINUTE);
+        boolean hasNos = fieldValues.containsKey(NANO_OF_SECOND);
+        if (hasMoh == false && (hasSom || hasNos)) {
             return;
         }
-        if (moh != null && som == null && nos != null) {
+        if (hasMoh && hasSom == false && hasNos) {
             return;
         }
+        long hod = fieldValues.getValue(HOUR_OF_DAY);
+        long moh = (hasMoh ? fieldValues.getValue(MINUTE_OF_HOUR) : 0);
+        long som = (hasSom ? fieldValues.getValue(SECOND_OF_MINUTE) : 0);
+        long nos = (hasNos ? fieldValues.getValue(NANO_OF_SECOND) : 0);
         if (resolverStyle != ResolverStyle.LENIENT) {
-            if (hod != null) {
-                if (resolverStyle == ResolverStyle.SMART &&
-                                hod.longValue() == 24 && 
-                                (moh == null || moh.longValue() == 0) && 
-                                (som == null || som.longValue() == 0) && 
-                                (nos == null || nos.longValue() == 0)) {
-                    hod = 0L;
-                    excessDays = Period.ofDays(1);
-                }
-                int hodVal = HOUR_OF_DAY.checkValidIntValue(hod);
-                if (moh != null) {
-                    int mohVal = MINUTE_OF_HOUR.checkValidIntValue(moh);
-                    if (som != null) {
-                        int somVal = SECOND_OF_MINUTE.checkValidIntValue(som);
-                        if (nos != null) {
-                            int nosVal = NANO_OF_SECOND.checkValidIntValue(nos);
-                            addObject(LocalTime.of(hodVal, mohVal, somVal, nosVal));
-                        } else {
-                            addObject(LocalTime.of(hodVal, mohVal, somVal));
-                        }
+            if (resolverStyle == ResolverStyle.SMART && hod == 24 && moh == 0 && som == 0 && nos == 0) {
+                hod = 0;
+                excessDays = Period.ofDays(1);
+            }
+            int hodVal = HOUR_OF_DAY.checkValidIntValue(hod);
+            if (hasMoh) {
+                int mohVal = MINUTE_OF_HOUR.checkValidIntValue(moh);
+                if (hasSom) {
+                    int somVal = SECOND_OF_MINUTE.checkValidIntValue(som);
+                    if (hasNos) {
+                        int nosVal = NANO_OF_SECOND.checkValidIntValue(nos);
+                        addObject(LocalTime.of(hodVal, mohVal, somVal, nosVal));
                     } else {
-                        if (nos == null) {
-                            addObject(LocalTime.of(hodVal, mohVal));
-                        }
+                        addObject(LocalTime.of(hodVal, mohVal, somVal));
                     }
                 } else {
-                    if (som == null && nos == null) {
-                        addObject(LocalTime.of(hodVal, 0));
+                    if (hasNos == false) {
+                        addObject(LocalTime.of(hodVal, mohVal));
                     }
                 }
+            } else {
+                if (hasSom == false && hasNos == false) {
+                    addObject(LocalTime.of(hodVal, 0));
+                }
             }
         } else {
-            if (hod != null) {
-                long hodVal = hod;
-                if (moh != null) {
-                    if (som != null) {
-                        if (nos == null) {
-                            nos = 0L;
-                        }
-                        long totalNanos = Jdk8Methods.safeMultiply(hodVal, 3600000000000L);
-                        totalNanos = Jdk8Methods.safeAdd(totalNanos, Jdk8Methods.safeMultiply(moh, 60000000000L));
-                        totalNanos = Jdk8Methods.safeAdd(totalNanos, Jdk8Methods.safeMultiply(som, 1000000000L));
-                        totalNanos = Jdk8Methods.safeAdd(totalNanos, nos);
-                        int excessDays = (int) Jdk8Methods.floorDiv(totalNanos, 86400000000000L);  // safe int cast
-                        long nod = Jdk8Methods.floorMod(totalNanos, 86400000000000L);
-                        addObject(LocalTime.ofNanoOfDay(nod));
-                        this.excessDays = Period.ofDays(excessDays);
-                    } else {
-                        long totalSecs = Jdk8Methods.safeMultiply(hodVal, 3600L);
-                        totalSecs = Jdk8Methods.safeAdd(totalSecs, Jdk8Methods.safeMultiply(moh, 60L));
-                        int excessDays = (int) Jdk8Methods.floorDiv(totalSecs, 86400L);  // safe int cast
-                        long sod = Jdk8Methods.floorMod(totalSecs, 86400L);
-                        addObject(LocalTime.ofSecondOfDay(sod));
-                        this.excessDays = Period.ofDays(excessDays);
-                    }
+            long hodVal = hod;
+            if (hasMoh) {
+                if (hasSom) {
+                    long totalNanos = Jdk8Methods.safeMultiply(hodVal, 3600000000000L);
+                    totalNanos = Jdk8Methods.safeAdd(totalNanos, Jdk8Methods.safeMultiply(moh, 60000000000L));
+                    totalNanos = Jdk8Methods.safeAdd(totalNanos, Jdk8Methods.safeMultiply(som, 1000000000L));
+                    totalNanos = Jdk8Methods.safeAdd(totalNanos, nos);
+                    int excessDays = (int) Jdk8Methods.floorDiv(totalNanos, 86400000000000L);  // safe int cast
+                    long nod = Jdk8Methods.floorMod(totalNanos, 86400000000000L);
+                    addObject(LocalTime.ofNanoOfDay(nod));
+                    this.excessDays = Period.ofDays(excessDays);
                 } else {
-                    int excessDays = Jdk8Methods.safeToInt(Jdk8Methods.floorDiv(hodVal, 24L));
-                    hodVal = Jdk8Methods.floorMod(hodVal, 24);
-                    addObject(LocalTime.of((int) hodVal, 0));
+                    long totalSecs = Jdk8Methods.safeMultiply(hodVal, 3600L);
+                    totalSecs = Jdk8Methods.safeAdd(totalSecs, Jdk8Methods.safeMultiply(moh, 60L));
+                    int excessDays = (int) Jdk8Methods.floorDiv(totalSecs, 86400L);  // safe int cast
+                    long sod = Jdk8Methods.floorMod(totalSecs, 86400L);
+                    addObject(LocalTime.ofSecondOfDay(sod));
                     this.excessDays = Period.ofDays(excessDays);
                 }
+            } else {
+                int excessDays = Jdk8Methods.safeToInt(Jdk8Methods.floorDiv(hodVal, 24L));
+                hodVal = Jdk8Methods.floorMod(hodVal, 24);
+                addObject(LocalTime.of((int) hodVal, 0));
+                this.excessDays = Period.ofDays(excessDays);
             }
         }
-        fieldValues.remove(HOUR_OF_DAY);
-        fieldValues.remove(MINUTE_OF_HOUR);
-        fieldValues.remove(SECOND_OF_MINUTE);
-        fieldValues.remove(NANO_OF_SECOND);
+        fieldValues.removeValue(HOUR_OF_DAY);
+        if (hasMoh) {
+            fieldValues.removeValue(MINUTE_OF_HOUR);
+        }
+        if (hasSom) {
+            fieldValues.removeValue(SECOND_OF_MINUTE);
+        }
+        if (hasNos) {
+            fieldValues.removeValue(NANO_OF_SECOND);
+        }
     }
 
     //-----------------------------------------------------------------------
@@ -540,9 +541,8 @@ final class DateTimeBuilder
             if (zone != null) {
                 mergeInstantFields0(zone);
             } else {
-                Long offsetSecs = fieldValues.get(OFFSET_SECONDS);
-                if (offsetSecs != null) {
-                    ZoneOffset offset = ZoneOffset.ofTotalSeconds(offsetSecs.intValue());
+                if (fieldValues.containsKey(OFFSET_SECONDS)) {
+                    ZoneOffset offset = ZoneOffset.ofTotalSeconds((int) fieldValues.getValue(OFFSET_SECONDS));
                     mergeInstantFields0(offset);
                 }
             }
@@ -550,7 +550,7 @@ final class DateTimeBuilder
     }
 
     private void mergeInstantFields0(ZoneId selectedZone) {
-        Instant instant = Instant.ofEpochSecond(fieldValues.remove(INSTANT_SECONDS));
+        Instant instant = Instant.ofEpochSecond(fieldValues.removeValue(INSTANT_SECONDS));
         ChronoZonedDateTime<?> zdt = chrono.zonedDateTime(instant, selectedZone);
         if (date == null) {
             addObject(zdt.toLocalDate());
@@ -601,13 +601,13 @@ final class DateTimeBuilder
                     fieldValues.containsKey(SECOND_OF_DAY) ||
                     fieldValues.containsKey(SECOND_OF_MINUTE))) {
             if (fieldValues.containsKey(NANO_OF_SECOND)) {
-                long nos = fieldValues.get(NANO_OF_SECOND);
-                fieldValues.put(MICRO_OF_SECOND, nos / 1000);
-                fieldValues.put(MILLI_OF_SECOND, nos / 1000000);
+                long nos = fieldValues.getValue(NANO_OF_SECOND);
+                fieldValues.putValue(MICRO_OF_SECOND, nos / 1000);
+                fieldValues.putValue(MILLI_OF_SECOND, nos / 1000000);
             } else {
-                fieldValues.put(NANO_OF_SECOND, 0L);
-                fieldValues.put(MICRO_OF_SECOND, 0L);
-                fieldValues.put(MILLI_OF_SECOND, 0L);
+                fieldValues.putValue(NANO_OF_SECOND, 0);
+                fieldValues.putValue(MICRO_OF_SECOND, 0);
+                fieldValues.putValue(MILLI_OF_SECOND, 0);
             }
         }
     }
@@ -616,13 +616,12 @@ final class DateTimeBuilder
         if (date != null && time != null) {
             if (zone != null) {
                 long instant = date.atTime(time).atZone(zone).getLong(ChronoField.INSTANT_SECONDS);
-                fieldValues.put(INSTANT_SECONDS, instant);
+                fieldValues.putValue(INSTANT_SECONDS, instant);
             } else {
-                Long offsetSecs = fieldValues.get(OFFSET_SECONDS);
-                if (offsetSecs != null) {
-                    ZoneOffset offset = ZoneOffset.ofTotalSeconds(offsetSecs.intValue());
+                if (fieldValues.containsKey(OFFSET_SECONDS)) {
+                    ZoneOffset offset = ZoneOffset.ofTotalSeconds((int) fieldValues.getValue(OFFSET_SECONDS));
                     long instant = date.atTime(time).atZone(offset).getLong(ChronoField.INSTANT_SECONDS);
-                    fieldValues.put(INSTANT_SECONDS, instant);
+                    fieldValues.putValue(INSTANT_SECONDS, instant);
                 }
             }
         }
@@ -658,17 +657,16 @@ final class DateTimeBuilder
     @Override
     public long getLong(TemporalField field) {
         Jdk8Methods.requireNonNull(field, "field");
-        Long value = getFieldValue0(field);
-        if (value == null) {
-            if (date != null && date.isSupported(field)) {
-                return date.getLong(field);
-            }
-            if (time != null && time.isSupported(field)) {
-                return time.getLong(field);
-            }
-            throw new DateTimeException("Field not found: " + field);
+        if (fieldValues.containsKey(field)) {
+            return fieldValues.getValue(field);
+        }
+        if (date != null && date.isSupported(field)) {
+            return date.getLong(field);
+        }
+        if (time != null && time.isSupported(field)) {
+            return time.getLong(field);
         }
-        return value;
+        throw new DateTimeException("Field not found: " + field);
     }
 
     @SuppressWarnings("unchecked")
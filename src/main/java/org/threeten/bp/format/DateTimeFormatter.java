@@ -60,6 +60,7 @@ import org.threeten.bp.ZoneId;
 import org.threeten.bp.ZoneOffset;
 import org.threeten.bp.chrono.Chronology;
 import org.threeten.bp.chrono.IsoChronology;
+import org.threeten.bp.format.DateTimeFormatterBuilder.CompiledParser;
 import org.threeten.bp.format.DateTimeFormatterBuilder.CompositePrinterParser;
 import org.threeten.bp.format.DateTimeParseContext.Parsed;
 import org.threeten.bp.jdk8.Jdk8Methods;
@@ -1013,6 +1014,10 @@ public final class DateTimeFormatter {
      * The zone to use for formatting, null for no override.
      */
     private final ZoneId zone;
+    /**
+     * The compiled form of the parser, null if the parser or settings cannot be compiled.
+     */
+    private final CompiledParser compiledParser;
 
     //-----------------------------------------------------------------------
     /**
@@ -1036,6 +1041,10 @@ public final class DateTimeFormatter {
         this.resolverFields = resolverFields;
         this.chrono = chrono;
         this.zone = zone;
+        // the compiled parser only accepts values valid in every resolver style, so it is shared by all styles
+        this.compiledParser = (resolverFields == null && zone == null &&
+                (chrono == null || chrono == IsoChronology.INSTANCE) && decimalStyle.equals(DecimalStyle.STANDARD) ?
+                CompiledParser.compile(printerParser) : null);
     }
 
     //-----------------------------------------------------------------------
@@ -1413,7 +1422,7 @@ public final class DateTimeFormatter {
     public TemporalAccessor parse(CharSequence text) {
         Jdk8Methods.requireNonNull(text, "text");
         try {
-            return parseToBuilder(text, null).resolve(resolverStyle, resolverFields);
+            return parseResolved0(text);
         } catch (DateTimeParseException ex) {
             throw ex;
         } catch (RuntimeException ex) {
@@ -1488,7 +1497,7 @@ public final class DateTimeFormatter {
         Jdk8Methods.requireNonNull(text, "text");
         Jdk8Methods.requireNonNull(type, "type");
         try {
-            DateTimeBuilder builder = parseToBuilder(text, null).resolve(resolverStyle, resolverFields);
+            DateTimeBuilder builder = parseResolved0(text);
             return builder.build(type);
         } catch (DateTimeParseException ex) {
             throw ex;
@@ -1533,7 +1542,7 @@ public final class DateTimeFormatter {
             throw new IllegalArgumentException("At least two types must be specified");
         }
         try {
-            DateTimeBuilder builder = parseToBuilder(text, null).resolve(resolverStyle, resolverFields);
+            DateTimeBuilder builder = parseResolved0(text);
             for (TemporalQuery<?> type : types) {
                 try {
                     return (TemporalAccessor) builder.build(type);
@@ -1560,6 +1569,27 @@ public final class DateTimeFormatter {
     }
 
     //-----------------------------------------------------------------------
+    /**
+     * Parses and resolves the whole text.
+     * <p>
+     * Where the formatter could be compiled, such as the ISO formatters, the text
+     * is parsed directly to the resolved builder, falling back to the general
+     * parse and resolve for any text the compiled form does not handle.
+     *
+     * @param text  the text to parse, not null
+     * @return the resolved builder, not null
+     * @throws DateTimeParseException if the parse fails
+     */
+    private DateTimeBuilder parseResolved0(CharSequence text) {
+        if (compiledParser != null) {
+            DateTimeBuilder builder = compiledParser.parse(text);
+            if (builder != null) {
+                return builder;
+            }
+        }
+        return parseToBuilder(text, null).resolve(resolverStyle, resolverFields);
+    }
+
     /**
      * Parses the text to a builder.
      * <p>
@@ -48,8 +48,8 @@ import java.text.DateFormat;
 import java.text.SimpleDateFormat;
 import java.util.AbstractMap.SimpleImmutableEntry;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
-import java.util.Comparator;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
@@ -61,16 +61,22 @@ import java.util.MissingResourceException;
 import java.util.ResourceBundle;
 import java.util.Set;
 import java.util.TimeZone;
-import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import org.threeten.bp.DateTimeException;
 import org.threeten.bp.Instant;
 import org.threeten.bp.LocalDate;
 import org.threeten.bp.LocalDateTime;
+import org.threeten.bp.LocalTime;
+import org.threeten.bp.Month;
+import org.threeten.bp.Period;
+import org.threeten.bp.Year;
 import org.threeten.bp.ZoneId;
 import org.threeten.bp.ZoneOffset;
 import org.threeten.bp.chrono.ChronoLocalDate;
 import org.threeten.bp.chrono.Chronology;
+import org.threeten.bp.chrono.IsoChronology;
 import org.threeten.bp.format.SimpleDateTimeTextProvider.LocaleStore;
 import org.threeten.bp.jdk8.Jdk8Methods;
 import org.threeten.bp.temporal.ChronoField;
@@ -3338,17 +3344,20 @@ public final class DateTimeFormatterBuilder {
      * Prints or parses a zone ID.
      */
     static final class ZoneTextPrinterParser implements DateTimePrinterParser {
-        /** The text style to output. */
-        private static final Comparator<String> LENGTH_COMPARATOR = new Comparator<String>() {
-            @Override
-            public int compare(String str1, String str2) {
-                int cmp = str2.length() - str1.length();
-                if (cmp == 0) {
-                    cmp = str1.compareTo(str2);
-                }
-                return cmp;
-            }
-        };
+        /** The cache of parse trees for long names, keyed by locale. */
+        private static final ConcurrentMap<Locale, Entry<Integer, PrefixTree>> LONG_TREES =
+                new ConcurrentHashMap<Locale, Entry<Integer, PrefixTree>>(16, 0.75f, 2);
+        /** The cache of parse trees for short names, keyed by locale. */
+        private static final ConcurrentMap<Locale, Entry<Integer, PrefixTree>> SHORT_TREES =
+                new ConcurrentHashMap<Locale, Entry<Integer, PrefixTree>>(16, 0.75f, 2);
+        /** The maximum number of locales, and of zone IDs per locale, with cached names. */
+        private static final int MAX_CACHED_NAMES = 2048;
+        /** The cache of standard and daylight long names, keyed by locale and zone ID. */
+        private static final ConcurrentMap<Locale, ConcurrentMap<String, String[]>> LONG_NAMES =
+                new ConcurrentHashMap<Locale, ConcurrentMap<String, String[]>>(16, 0.75f, 4);
+        /** The cache of standard and daylight short names, keyed by locale and zone ID. */
+        private static final ConcurrentMap<Locale, ConcurrentMap<String, String[]>> SHORT_NAMES =
+                new ConcurrentHashMap<Locale, ConcurrentMap<String, String[]>>(16, 0.75f, 4);
         /** The text style to output. */
         private final TextStyle textStyle;
 
@@ -3374,34 +3383,86 @@ public final class DateTimeFormatterBuilder {
             } else {
                 instant = Instant.ofEpochSecond(-200L * 365 * 86400);  // about 1770
             }
-            TimeZone tz = TimeZone.getTimeZone(zone.getId());
             boolean daylight = zone.getRules().isDaylightSavings(instant);
-            int tzstyle = (textStyle.asNormal() == TextStyle.FULL ? TimeZone.LONG : TimeZone.SHORT);
-            String text = tz.getDisplayName(daylight, tzstyle, context.getLocale());
-            buf.append(text);
+            String[] names = getDisplayNames(zone.getId(), getTimeZoneStyle(), context.getLocale());
+            buf.append(names[daylight ? 1 : 0]);
             return true;
         }
 
+        private int getTimeZoneStyle() {
+            return (textStyle.asNormal() == TextStyle.FULL ? TimeZone.LONG : TimeZone.SHORT);
+        }
+
+        /**
+         * Gets the standard and daylight display names of the zone ID.
+         * <p>
+         * The names are obtained from {@code TimeZone} on first use and then cached,
+         * as {@code TimeZone} is slow and synchronized.
+         *
+         * @param zoneId  the zone ID, not null
+         * @param tzstyle  the {@code TimeZone} style
+         * @param locale  the locale, not null
+         * @return the standard and daylight names, not null
+         */
+        private static String[] getDisplayNames(String zoneId, int tzstyle, Locale locale) {
+            ConcurrentMap<Locale, ConcurrentMap<String, String[]>> cache = (tzstyle == TimeZone.LONG ? LONG_NAMES : SHORT_NAMES);
+            ConcurrentMap<String, String[]> names = cache.get(locale);
+            if (names == null && cache.size() < MAX_CACHED_NAMES) {
+                cache.putIfAbsent(locale, new ConcurrentHashMap<String, String[]>(512, 0.75f, 4));
+                names = cache.get(locale);
+            }
+            String[] pair = (names != null ? names.get(zoneId) : null);
+            if (pair == null) {
+                TimeZone tz = TimeZone.getTimeZone(zoneId);
+                pair = new String[] {tz.getDisplayName(false, tzstyle, locale), tz.getDisplayName(true, tzstyle, locale)};
+                if (names != null && names.size() < MAX_CACHED_NAMES) {
+                    names.putIfAbsent(zoneId, pair);
+                }
+            }
+            return pair;
+        }
+
+        /**
+         * This implementation looks for the longest matching zone ID or display name.
+         * <p>
+         * The names are held in a tree for each locale and style, built on first use
+         * and built again when the available zone IDs change.
+         */
         @Override
         public int parse(DateTimeParseContext context, CharSequence text, int position) {
             // this is a poor implementation that handles some but not all of the spec
             // JDK8 has a lot of extra information here
-            Map<String, String> ids = new TreeMap<String, String>(LENGTH_COMPARATOR);
-            for (String id : ZoneId.getAvailableZoneIds()) {
-                ids.put(id, id);
-                TimeZone tz = TimeZone.getTimeZone(id);
-                int tzstyle = (textStyle.asNormal() == TextStyle.FULL ? TimeZone.LONG : TimeZone.SHORT);
-                ids.put(tz.getDisplayName(false, tzstyle, context.getLocale()), id);
-                ids.put(tz.getDisplayName(true, tzstyle, context.getLocale()), id);
+            PrefixTree match = getTree(context.getLocale()).match(context, text, position);
+            if (match == null) {
+                return ~position;
             }
-            for (Entry<String, String> entry : ids.entrySet()) {
-                String name = entry.getKey();
-                if (context.subSequenceEquals(text, position, name, 0, name.length())) {
-                    context.setParsed(ZoneId.of(entry.getValue()));
-                    return position + name.length();
+            context.setParsed(ZoneId.of(match.getValue()));
+            return position + match.getLength();
+        }
+
+        /**
+         * Gets the tree of zone IDs and display names for the locale.
+         *
+         * @param locale  the locale, not null
+         * @return the tree, not null
+         */
+        private PrefixTree getTree(Locale locale) {
+            int tzstyle = getTimeZoneStyle();
+            ConcurrentMap<Locale, Entry<Integer, PrefixTree>> trees = (tzstyle == TimeZone.LONG ? LONG_TREES : SHORT_TREES);
+            int changeCount = ZoneRulesProvider.getChangeCount();
+            Entry<Integer, PrefixTree> cached = trees.get(locale);
+            if (cached == null || cached.getKey() != changeCount) {
+                PrefixTree tree = new PrefixTree();
+                for (String id : ZoneId.getAvailableZoneIds()) {
+                    tree.add(id, id);
+                    String[] names = getDisplayNames(id, tzstyle, locale);
+                    tree.add(names[0], id);
+                    tree.add(names[1], id);
                 }
+                cached = new SimpleImmutableEntry<Integer, PrefixTree>(changeCount, tree);
+                trees.put(locale, cached);
             }
-            return ~position;
+            return cached.getValue();
         }
 
         @Override
@@ -3410,6 +3471,136 @@ public final class DateTimeFormatterBuilder {
         }
     }
 
+    //-----------------------------------------------------------------------
+    /**
+     * A tree of text keyed one character at a time, used to find the longest
+     * key that matches the text being parsed.
+     * <p>
+     * Each node holds the characters that may follow, in order, and the value
+     * of the key ending at the node, if any. Matching takes time proportional to
+     * the length of the text matched, rather than the number of keys.
+     * A tree must not be changed once it is in use by more than one thread.
+     */
+    static final class PrefixTree {
+        /** The empty array of characters. */
+        private static final char[] NO_CHARS = new char[0];
+        /** The empty array of nodes. */
+        private static final PrefixTree[] NO_NODES = new PrefixTree[0];
+        /** The length of the key ending at this node. */
+        private final int length;
+        /** The characters that may follow, sorted. */
+        private char[] chars = NO_CHARS;
+        /** The nodes for each character that may follow. */
+        private PrefixTree[] nodes = NO_NODES;
+        /** The value of the key ending at this node, null if none. */
+        private String value;
+
+        /**
+         * Creates the root of a tree.
+         */
+        PrefixTree() {
+            this(0);
+        }
+
+        private PrefixTree(int length) {
+            this.length = length;
+        }
+
+        /**
+         * Gets the length of the key ending at this node.
+         *
+         * @return the length
+         */
+        int getLength() {
+            return length;
+        }
+
+        /**
+         * Gets the value of the key ending at this node.
+         *
+         * @return the value, null if no key ends at this node
+         */
+        String getValue() {
+            return value;
+        }
+
+        /**
+         * Adds a key, replacing the value of an existing equal key.
+         *
+         * @param key  the key, not null
+         * @param value  the value, not null
+         */
+        void add(String key, String value) {
+            PrefixTree node = this;
+            for (int i = 0; i < key.length(); i++) {
+                char ch = key.charAt(i);
+                int index = Arrays.binarySearch(node.chars, ch);
+                if (index < 0) {
+                    index = -index - 1;
+                    int size = node.chars.length;
+                    char[] chars = new char[size + 1];
+                    PrefixTree[] nodes = new PrefixTree[size + 1];
+                    System.arraycopy(node.chars, 0, chars, 0, index);
+                    System.arraycopy(node.nodes, 0, nodes, 0, index);
+                    System.arraycopy(node.chars, index, chars, index + 1, size - index);
+                    System.arraycopy(node.nodes, index, nodes, index + 1, size - index);
+                    chars[index] = ch;
+                    nodes[index] = new PrefixTree(i + 1);
+                    node.chars = chars;
+                    node.nodes = nodes;
+                }
+                node = node.nodes[index];
+            }
+            node.value = value;
+        }
+
+        /**
+         * Finds the longest key matching the text at the position.
+         * <p>
+         * Where more than one key of the same length matches ignoring case,
+         * the first in character order is found.
+         *
+         * @param context  the context to use for case sensitivity, not null
+         * @param text  the text to match, not null
+         * @param position  the position to match from
+         * @return the node of the longest matching key, null if none
+         */
+        PrefixTree match(DateTimeParseContext context, CharSequence text, int position) {
+            if (context.isCaseSensitive() == false) {
+                return matchIgnoreCase(text, position);
+            }
+            PrefixTree node = this;
+            PrefixTree found = (value != null ? this : null);
+            for (int pos = position; pos < text.length(); pos++) {
+                int index = Arrays.binarySearch(node.chars, text.charAt(pos));
+                if (index < 0) {
+                    break;
+                }
+                node = node.nodes[index];
+                if (node.value != null) {
+                    found = node;
+                }
+            }
+            return found;
+        }
+
+        private PrefixTree matchIgnoreCase(CharSequence text, int position) {
+            PrefixTree found = (value != null ? this : null);
+            if (position < text.length()) {
+                char ch = text.charAt(position);
+                for (int i = 0; i < chars.length; i++) {
+                    if (DateTimeParseContext.charEqualsIgnoreCase(chars[i], ch)) {
+                        PrefixTree match = nodes[i].matchIgnoreCase(text, position + 1);
+                        if (match != null && (found == null || match.length > found.length)) {
+                            found = match;
+                        }
+                    }
+                }
+            }
+            return found;
+        }
+    }
+
     //-----------------------------------------------------------------------
     /**
      * Prints or parses a zone ID.
@@ -3436,19 +3627,17 @@ public final class DateTimeFormatterBuilder {
 
         //-----------------------------------------------------------------------
         /**
-         * The cached tree to speed up parsing.
+         * The cached tree to speed up parsing, keyed by the provider change count.
          */
-        private static volatile Entry<Integer, SubstringTree> cachedSubstringTree;
+        private static volatile Entry<Integer, PrefixTree> cachedTree;
 
         /**
          * This implementation looks for the longest matching string.
          * For example, parsing Etc/GMT-2 will return Etc/GMC-2 rather than just
          * Etc/GMC although both are valid.
          * <p>
-         * This implementation uses a tree to search for valid time-zone names in
-         * the parseText. The top level node of the tree has a length equal to the
-         * length of the shortest time-zone as well as the beginning characters of
-         * all other time-zones.
+         * This implementation uses a tree of the available region IDs, matched
+         * one character at a time directly against the parse text.
          */
         @Override
         public int parse(DateTimeParseContext context, CharSequence text, int position) {
@@ -3489,62 +3678,35 @@ public final class DateTimeFormatterBuilder {
                 }
             }
 
-            // prepare parse tree
-            Set<String> regionIds = ZoneRulesProvider.getAvailableZoneIds();
-            final int regionIdsSize = regionIds.size();
-            Entry<Integer, SubstringTree> cached = cachedSubstringTree;
-            if (cached == null || cached.getKey() != regionIdsSize) {
-                synchronized (this) {
-                    cached = cachedSubstringTree;
-                    if (cached == null || cached.getKey() != regionIdsSize) {
-                        cachedSubstringTree = cached = new SimpleImmutableEntry<Integer, SubstringTree>(regionIdsSize, prepareParser(regionIds));
-                    }
-                }
-            }
-            SubstringTree tree = cached.getValue();
-
             // parse
-            String parsedZoneId = null;
-            String lastZoneId = null;
-            while (tree != null) {
-                int nodeLength = tree.length;
-                if (position + nodeLength > length) {
-                    break;
-                }
-                lastZoneId = parsedZoneId;
-                parsedZoneId = text.subSequence(position, position + nodeLength).toString();
-                tree = tree.get(parsedZoneId, context.isCaseSensitive());
-            }
-            ZoneId zone = convertToZone(regionIds, parsedZoneId, context.isCaseSensitive());
-            if (zone == null) {
-                zone = convertToZone(regionIds, lastZoneId, context.isCaseSensitive());
-                if (zone == null) {
-                    if (context.charEquals(nextChar, 'Z')) {
-                        context.setParsed(ZoneOffset.UTC);
-                        return position + 1;
-                    }
-                    return ~position;
+            PrefixTree match = getTree().match(context, text, position);
+            if (match == null) {
+                if (context.charEquals(nextChar, 'Z')) {
+                    context.setParsed(ZoneOffset.UTC);
+                    return position + 1;
                 }
-                parsedZoneId = lastZoneId;
+                return ~position;
             }
-            context.setParsed(zone);
-            return position + parsedZoneId.length();
+            context.setParsed(ZoneId.of(match.getValue()));
+            return position + match.getLength();
         }
 
-        private ZoneId convertToZone(Set<String> regionIds, String parsedZoneId, boolean caseSensitive) {
-            if (parsedZoneId == null) {
-                return null;
-            }
-            if (caseSensitive) {
-                return (regionIds.contains(parsedZoneId) ? ZoneId.of(parsedZoneId) : null);
-            } else {
-                for (String regionId : regionIds) {
-                    if (regionId.equalsIgnoreCase(parsedZoneId)) {
-                        return ZoneId.of(regionId);
-                    }
+        /**
+         * Gets the tree of region IDs, building it if the available IDs have changed.
+         *
+         * @return the tree, not null
+         */
+        private static PrefixTree getTree() {
+            int changeCount = ZoneRulesProvider.getChangeCount();
+            Entry<Integer, PrefixTree> cached = cachedTree;
+            if (cached == null || cached.getKey() != changeCount) {
+                PrefixTree tree = new PrefixTree();
+                for (String id : ZoneRulesProvider.getAvailableZoneIds()) {
+                    tree.add(id, id);
                 }
-                return null;
+                cachedTree = cached = new SimpleImmutableEntry<Integer, PrefixTree>(changeCount, tree);
             }
+            return cached.getValue();
         }
 
         private int parsePrefixedOffset(DateTimeParseContext context, CharSequence text, int prefixPos, int position) {
@@ -3565,102 +3727,6 @@ public final class DateTimeFormatterBuilder {
             return endPos;
         }
 
-        //-----------------------------------------------------------------------
-        /**
-         * Model a tree of substrings to make the parsing easier. Due to the nature
-         * of time-zone names, it can be faster to parse based in unique substrings
-         * rather than just a character by character match.
-         * <p>
-         * For example, to parse America/Denver we can look at the first two
-         * character "Am". We then notice that the shortest time-zone that starts
-         * with Am is America/Nome which is 12 characters long. Checking the first
-         * 12 characters of America/Denver gives America/Denv which is a substring
-         * of only 1 time-zone: America/Denver. Thus, with just 3 comparisons that
-         * match can be found.
-         * <p>
-         * This structure maps substrings to substrings of a longer length. Each
-         * node of the tree contains a length and a map of valid substrings to
-         * sub-nodes. The parser gets the length from the root node. It then
-         * extracts a substring of that length from the parseText. If the map
-         * contains the substring, it is set as the possible time-zone and the
-         * sub-node for that substring is retrieved. The process continues until the
-         * substring is no longer found, at which point the matched text is checked
-         * against the real time-zones.
-         */
-        private static final class SubstringTree {
-            /**
-             * The length of the substring this node of the tree contains.
-             * Subtrees will have a longer length.
-             */
-            final int length;
-            /**
-             * Map of a substring to a set of substrings that contain the key.
-             */
-            private final Map<CharSequence, SubstringTree> substringMap = new HashMap<CharSequence, SubstringTree>();
-            /**
-             * Map of a substring to a set of substrings that contain the key.
-             */
-            private final Map<String, SubstringTree> substringMapCI = new HashMap<String, SubstringTree>();
-
-            /**
-             * Constructor.
-             *
-             * @param length  the length of this tree
-             */
-            private SubstringTree(int length) {
-                this.length = length;
-            }
-
-            private SubstringTree get(CharSequence substring2, boolean caseSensitive) {
-                if (caseSensitive) {
-                    return substringMap.get(substring2);
-                } else {
-                    return substringMapCI.get(substring2.toString().toLowerCase(Locale.ENGLISH));
-                }
-            }
-
-            /**
-             * Values must be added from shortest to longest.
-             *
-             * @param newSubstring  the substring to add, not null
-             */
-            private void add(String newSubstring) {
-                int idLen = newSubstring.length();
-                if (idLen == length) {
-                    substringMap.put(newSubstring, null);
-                    substringMapCI.put(newSubstring.toLowerCase(Locale.ENGLISH), null);
-                } else if (idLen > length) {
-                    String substring = newSubstring.substring(0, length);
-                    SubstringTree parserTree = substringMap.get(substring);
-                    if (parserTree == null) {
-                        parserTree = new SubstringTree(idLen);
-                        substringMap.put(substring, parserTree);
-                        substringMapCI.put(substring.toLowerCase(Locale.ENGLISH), parserTree);
-                    }
-                    parserTree.add(newSubstring);
-                }
-            }
-        }
-
-        /**
-         * Builds an optimized parsing tree.
-         *
-         * @param availableIDs  the available IDs, not null, not empty
-         * @return the tree, not null
-         */
-        private static SubstringTree prepareParser(Set<String> availableIDs) {
-            // sort by length
-            List<String> ids = new ArrayList<String>(availableIDs);
-            Collections.sort(ids, LENGTH_SORT);
-
-            // build the tree
-            SubstringTree tree = new SubstringTree(ids.get(0).length());
-            for (String id : ids) {
-                tree.add(id);
-            }
-            return tree;
-        }
-
         //-----------------------------------------------------------------------
         @Override
         public String toString() {
@@ -3862,15 +3928,443 @@ public final class DateTimeFormatterBuilder {
         }
     }
 
-    //-------------------------------------------------------------------------
+    //-----------------------------------------------------------------------
     /**
-     * Length comparator.
+     * Parses text directly to a builder, for formatters made only of numeric
+     * fields, literals, offsets and instants of a fixed form.
+     * <p>
+     * The printer-parsers of a formatter, such as those of the ISO formatters,
+     * are compiled to a list of operations on primitive values. Parsing then
+     * avoids the parse context, the map of fields and the resolving stage,
+     * producing the same resolved builder directly.
+     * <p>
+     * Text that the compiled form does not handle exactly as the general parser
+     * would, such as a sign, a lower case literal, a year longer than its minimum
+     * width or an invalid value, is not parsed, and the general parser must be used.
+     * Only values valid in every {@link ResolverStyle} are accepted, thus day 31 of
+     * a 30 day month, hour 24, second 60 or an offset beyond 18 hours is always left
+     * to the general parser, and the result never depends on the resolver style.
+     * This class is immutable and thread-safe.
      */
-    static final Comparator<String> LENGTH_SORT = new Comparator<String>() {
+    static final class CompiledParser {
+        /** Operation to match a literal character. */
+        private static final int LITERAL = 0;
+        /** Operation to parse a number of fixed or minimum width. */
+        private static final int NUMBER = 1;
+        /** Operation to parse the fraction of a second. */
+        private static final int FRACTION = 2;
+        /** Operation to parse an offset ID. */
+        private static final int OFFSET = 3;
+        /** Operation to parse an optional section, ending at the operation in the first argument. */
+        private static final int OPTIONAL = 4;
+        /** The number of ints used by each operation, being the type and three arguments. */
+        private static final int STRIDE = 4;
+        /** The fields that can be parsed, indexed by slot. */
+        private static final ChronoField[] FIELDS = {
+            YEAR, MONTH_OF_YEAR, DAY_OF_MONTH, HOUR_OF_DAY, MINUTE_OF_HOUR, SECOND_OF_MINUTE, NANO_OF_SECOND, OFFSET_SECONDS,
+        };
+        private static final int YEAR_SLOT = 0;
+        private static final int MONTH_SLOT = 1;
+        private static final int DAY_SLOT = 2;
+        private static final int HOUR_SLOT = 3;
+        private static final int MINUTE_SLOT = 4;
+        private static final int SECOND_SLOT = 5;
+        private static final int NANO_SLOT = 6;
+        private static final int OFFSET_SLOT = 7;
+        /** The slot holding the bit mask of the slots parsed. */
+        private static final int MASK_SLOT = 8;
+        private static final int DATE_BITS = (1 << YEAR_SLOT) | (1 << MONTH_SLOT) | (1 << DAY_SLOT);
+        private static final int TIME_BITS = (1 << HOUR_SLOT) | (1 << MINUTE_SLOT);
+        private static final int ALL_TIME_BITS = TIME_BITS | (1 << SECOND_SLOT) | (1 << NANO_SLOT);
+        /** The result when the text does not match, as it would not match in the general parser. */
+        private static final int FAIL = -1;
+        /** The result when the text must be parsed by the general parser. */
+        private static final int UNSUPPORTED = -2;
+        /** The multipliers to convert a fraction of a given number of digits to nanoseconds. */
+        private static final int[] NANO_MULTIPLIERS = {
+            1000000000, 100000000, 10000000, 1000000, 100000, 10000, 1000, 100, 10, 1,
+        };
+
+        /** The operations. */
+        private final int[] ops;
+        /** Whether the operations parse an instant. */
+        private final boolean instant;
+
+        private CompiledParser(int[] ops, boolean instant) {
+            this.ops = ops;
+            this.instant = instant;
+        }
+
+        //-----------------------------------------------------------------------
+        /**
+         * Compiles the printer-parser, if it only has elements that can be compiled.
+         *
+         * @param parser  the printer-parser to compile, not null
+         * @return the compiled parser, null if the printer-parser cannot be compiled
+         */
+        static CompiledParser compile(CompositePrinterParser parser) {
+            Compiler compiler = new Compiler();
+            if (compiler.add(parser) == false) {
+                return null;
+            }
+            return new CompiledParser(Arrays.copyOf(compiler.ops, compiler.size), compiler.instant);
+        }
+
+        /**
+         * Mutable state used while compiling.
+         */
+        private static final class Compiler {
+            private int[] ops = new int[16 * STRIDE];
+            private int size;
+            private int slots;
+            private boolean instant;
+            private int optionalDepth;
+
+            private boolean add(DateTimePrinterParser pp) {
+                if (pp instanceof CompositePrinterParser) {
+                    CompositePrinterParser composite = (CompositePrinterParser) pp;
+                    int start = size;
+                    if (composite.optional) {
+                        op(OPTIONAL, 0, 0, 0);
+                        optionalDepth++;
+                    }
+                    for (DateTimePrinterParser child : composite.printerParsers) {
+                        if (add(child) == false) {
+                            return false;
+                        }
+                    }
+                    if (composite.optional) {
+                        optionalDepth--;
+                        ops[start + 1] = size;
+                    }
+                    return true;
+                }
+                if (pp == SettingsParser.SENSITIVE || pp == SettingsParser.INSENSITIVE) {
+                    return true;  // literals that only match ignoring case are not compiled
+                }
+                if (pp instanceof CharLiteralPrinterParser) {
+                    op(LITERAL, ((CharLiteralPrinterParser) pp).literal, 0, 0);
+                    return true;
+                }
+                if (pp.getClass() == NumberPrinterParser.class) {
+                    NumberPrinterParser number = (NumberPrinterParser) pp;
+                    int slot = slotOf(number.field);
+                    if (slot > SECOND_SLOT || number.minWidth > 10 || isUnsigned(number.signStyle) == false ||
+                            (number.minWidth != number.maxWidth && number.subsequentWidth != 0)) {
+                        return false;
+                    }
+                    return claim(slot) && op(NUMBER, slot, number.minWidth, number.maxWidth);
+                }
+                if (pp instanceof FractionPrinterParser) {
+                    FractionPrinterParser fraction = (FractionPrinterParser) pp;
+                    return fraction.field == NANO_OF_SECOND && claim(NANO_SLOT) &&
+                            op(FRACTION, fraction.minWidth, fraction.maxWidth, fraction.decimalPoint ? 1 : 0);
+                }
+                if (pp instanceof OffsetIdPrinterParser) {
+                    OffsetIdPrinterParser offset = (OffsetIdPrinterParser) pp;
+                    return offset.noOffsetText.equals("Z") && offset.type == 6 && claim(OFFSET_SLOT) && op(OFFSET, 0, 0, 0);
+                }
+                if (pp instanceof InstantPrinterParser) {
+                    // the same layout as parsed by InstantPrinterParser, which must not be skipped
+                    int digits = ((InstantPrinterParser) pp).fractionalDigits;
+                    if (optionalDepth > 0 || slots != 0 || claim(YEAR_SLOT) == false) {
+                        return false;
+                    }
+                    instant = true;
+                    slots = (1 << OFFSET_SLOT) - 1;
+                    op(NUMBER, YEAR_SLOT, 4, 10);
+                    op(LITERAL, '-', 0, 0);
+                    op(NUMBER, MONTH_SLOT, 2, 2);
+                    op(LITERAL, '-', 0, 0);
+                    op(NUMBER, DAY_SLOT, 2, 2);
+                    op(LITERAL, 'T', 0, 0);
+                    op(NUMBER, HOUR_SLOT, 2, 2);
+                    op(LITERAL, ':', 0, 0);
+                    op(NUMBER, MINUTE_SLOT, 2, 2);
+                    op(LITERAL, ':', 0, 0);
+                    op(NUMBER, SECOND_SLOT, 2, 2);
+                    op(FRACTION, digits < 0 ? 0 : digits, digits < 0 ? 9 : digits, 1);
+                    op(LITERAL, 'Z', 0, 0);
+                    return true;
+                }
+                return false;
+            }
+
+            private static boolean isUnsigned(SignStyle signStyle) {
+                // styles that accept digits without a sign, any other style needs the general parser
+                switch (signStyle) {
+                    case NORMAL:
+                    case NOT_NEGATIVE:
+                    case NEVER:
+                    case EXCEEDS_PAD:
+                        return true;
+                    default:
+                        return false;
+                }
+            }
+
+            private static int slotOf(TemporalField field) {
+                for (int i = 0; i < FIELDS.length; i++) {
+                    if (FIELDS[i] == field) {
+                        return i;
+                    }
+                }
+                return FIELDS.length;
+            }
+
+            private boolean claim(int slot) {
+                if (instant || (slots & (1 << slot)) != 0) {
+                    return false;  // fields parsed twice must be checked for conflicts
+                }
+                slots |= 1 << slot;
+                return true;
+            }
+
+            private boolean op(int type, int arg1, int arg2, int arg3) {
+                if (size == ops.length) {
+                    ops = Arrays.copyOf(ops, size * 2);
+                }
+                ops[size++] = type;
+                ops[size++] = arg1;
+                ops[size++] = arg2;
+                ops[size++] = arg3;
+                return true;
+            }
+        }
+
+        //-----------------------------------------------------------------------
+        /**
+         * Parses the whole text to a resolved builder.
+         *
+         * @param text  the text to parse, not null
+         * @return the resolved builder, null if the general parser must be used
+         */
+        DateTimeBuilder parse(CharSequence text) {
+            long[] values = new long[MASK_SLOT + 1];
+            if (parse(text, 0, 0, ops.length, values) != text.length()) {
+                return null;
+            }
+            int mask = (int) values[MASK_SLOT];
+            if ((mask & DATE_BITS) != 0 && (mask & DATE_BITS) != DATE_BITS) {
+                return null;
+            }
+            if ((mask & ALL_TIME_BITS) != 0 && (mask & TIME_BITS) != TIME_BITS) {
+                return null;
+            }
+            if ((mask & (1 << NANO_SLOT)) != 0 && (mask & (1 << SECOND_SLOT)) == 0) {
+                return null;
+            }
+            LocalDate date = null;
+            if ((mask & DATE_BITS) != 0) {
+                long year = values[YEAR_SLOT];
+                long month = values[MONTH_SLOT];
+                long day = values[DAY_SLOT];
+                if (year > Year.MAX_VALUE || month < 1 || month > 12 || day < 1 ||
+                        (day > 28 && day > Month.of((int) month).length(IsoChronology.INSTANCE.isLeapYear(year)))) {
+                    return null;
+                }
+                date = LocalDate.of((int) year, (int) month, (int) day);
+            }
+            LocalTime time = null;
+            if ((mask & TIME_BITS) != 0) {
+                long hour = values[HOUR_SLOT];
+                long minute = values[MINUTE_SLOT];
+                long second = values[SECOND_SLOT];
+                if (hour > 23 || minute > 59 || second > 59) {
+                    return null;
+                }
+                time = LocalTime.of((int) hour, (int) minute, (int) second, (int) values[NANO_SLOT]);
+            }
+            DateTimeBuilder builder = new DateTimeBuilder();
+            builder.chrono = IsoChronology.INSTANCE;
+            builder.excessDays = Period.ZERO;
+            if (instant) {
+                long nano = values[NANO_SLOT];
+                builder.fieldValues.putValue(INSTANT_SECONDS, date.toEpochDay() * 86400L + time.toSecondOfDay());
+                builder.fieldValues.putValue(NANO_OF_SECOND, nano);
+                builder.fieldValues.putValue(ChronoField.MICRO_OF_SECOND, nano / 1000);
+                builder.fieldValues.putValue(ChronoField.MILLI_OF_SECOND, nano / 1000000);
+                return builder;
+            }
+            builder.date = date;
+            builder.time = time;
+            if ((mask & (1 << OFFSET_SLOT)) != 0) {
+                int offsetSecs = (int) values[OFFSET_SLOT];
+                builder.fieldValues.putValue(OFFSET_SECONDS, offsetSecs);
+                if (date != null && time != null) {
+                    long epochSecond = date.toEpochDay() * 86400L + time.toSecondOfDay() - offsetSecs;
+                    builder.fieldValues.putValue(INSTANT_SECONDS, epochSecond);
+                }
+            }
+            return builder;
+        }
+
+        private int parse(CharSequence text, int position, int start, int end, long[] values) {
+            int pc = start;
+            while (pc < end) {
+                int type = ops[pc];
+                if (type == OPTIONAL) {
+                    int sectionEnd = ops[pc + 1];
+                    long mask = values[MASK_SLOT];
+                    int pos = parse(text, position, pc + STRIDE, sectionEnd, values);
+                    if (pos == UNSUPPORTED) {
+                        return UNSUPPORTED;
+                    }
+                    if (pos == FAIL) {
+                        values[MASK_SLOT] = mask;
+                    } else {
+                        position = pos;
+                    }
+                    pc = sectionEnd;
+                    continue;
+                }
+                if (type == LITERAL) {
+                    position = parseLiteral(text, position, (char) ops[pc + 1]);
+                } else if (type == NUMBER) {
+                    position = parseNumber(text, position, ops[pc + 1], ops[pc + 2], ops[pc + 3], values);
+                } else if (type == FRACTION) {
+                    position = parseFraction(text, position, ops[pc + 1], ops[pc + 2], ops[pc + 3] != 0, values);
+                } else {
+                    position = parseOffset(text, position, values);
+                }
+                if (position < 0) {
+                    return position;
+                }
+                pc += STRIDE;
+            }
+            return position;
+        }
+
+        private static int parseLiteral(CharSequence text, int position, char literal) {
+            if (position == text.length()) {
+                return FAIL;
+            }
+            char ch = text.charAt(position);
+            if (ch != literal) {
+                return (DateTimeParseContext.charEqualsIgnoreCase(ch, literal) ? UNSUPPORTED : FAIL);
+            }
+            return position + 1;
+        }
+
+        private static int parseNumber(CharSequence text, int position, int slot, int minWidth, int maxWidth, long[] values) {
+            int length = text.length();
+            if (position == length) {
+                return FAIL;
+            }
+            char first = text.charAt(position);
+            if (first == '+' || first == '-') {
+                return UNSUPPORTED;
+            }
+            int end = position + minWidth;
+            if (end > length) {
+                return FAIL;
+            }
+            long total = 0;
+            for (int pos = position; pos < end; pos++) {
+                int digit = text.charAt(pos) - '0';
+                if (digit < 0 || digit > 9) {
+                    return FAIL;
+                }
+                total = total * 10 + digit;
+            }
+            if (minWidth != maxWidth && end < length && isDigit(text.charAt(end))) {
+                return UNSUPPORTED;
+            }
+            store(values, slot, total);
+            return end;
+        }
+
+        private static int parseFraction(CharSequence text, int position, int minWidth, int maxWidth, boolean decimalPoint, long[] values) {
+            int length = text.length();
+            if (position == length) {
+                return (minWidth > 0 ? FAIL : position);
+            }
+            if (decimalPoint) {
+                if (text.charAt(position) != '.') {
+                    return (minWidth > 0 ? FAIL : position);
+                }
+                position++;
+            }
+            if (position + minWidth > length) {
+                return FAIL;
+            }
+            int maxEnd = Math.min(position + maxWidth, length);
+            int total = 0;
+            int pos = position;
+            while (pos < maxEnd && isDigit(text.charAt(pos))) {
+                total = total * 10 + (text.charAt(pos++) - '0');
+            }
+            if (pos - position < minWidth) {
+                return UNSUPPORTED;
+            }
+            store(values, NANO_SLOT, (long) total * NANO_MULTIPLIERS[pos - position]);
+            return pos;
+        }
+
+        private static int parseOffset(CharSequence text, int position, long[] values) {
+            int length = text.length();
+            if (position == length) {
+                return FAIL;
+            }
+            char sign = text.charAt(position);
+            if (sign == 'Z') {
+                store(values, OFFSET_SLOT, 0);
+                return position + 1;
+            }
+            if (sign != '+' && sign != '-') {
+                return (DateTimeParseContext.charEqualsIgnoreCase(sign, 'Z') ? UNSUPPORTED : FAIL);
+            }
+            int hours = parseTwoDigits(text, position + 1);
+            if (hours < 0 || position + 3 >= length || text.charAt(position + 3) != ':') {
+                return UNSUPPORTED;
+            }
+            int minutes = parseTwoDigits(text, position + 4);
+            if (minutes < 0) {
+                return UNSUPPORTED;
+            }
+            int end = position + 6;
+            int seconds = 0;
+            if (end < length && text.charAt(end) == ':') {
+                int parsed = parseTwoDigits(text, end + 1);
+                if (parsed >= 0) {
+                    seconds = parsed;
+                    end += 3;
+                }
+            }
+            int offsetSecs = hours * 3600 + minutes * 60 + seconds;
+            if (offsetSecs > 18 * 3600) {
+                return UNSUPPORTED;
+            }
+            store(values, OFFSET_SLOT, sign == '-' ? -offsetSecs : offsetSecs);
+            return end;
+        }
+
+        private static int parseTwoDigits(CharSequence text, int position) {
+            if (position + 2 > text.length()) {
+                return -1;
+            }
+            char ch1 = text.charAt(position);
+            char ch2 = text.charAt(position + 1);
+            if (isDigit(ch1) == false || isDigit(ch2) == false) {
+                return -1;
+            }
+            int value = (ch1 - '0') * 10 + (ch2 - '0');
+            return (value > 59 ? -1 : value);
+        }
+
+        private static boolean isDigit(char ch) {
+            return ch >= '0' && ch <= '9';
+        }
+
+        private static void store(long[] values, int slot, long value) {
+            values[slot] = value;
+            values[MASK_SLOT] |= 1 << slot;
+        }
+
         @Override
-        public int compare(String str1, String str2) {
-            return str1.length() == str2.length() ? str1.compareTo(str2) : str1.length() - str2.length();
+        public String toString() {
+            return "Compiled" + Arrays.toString(ops);
         }
-    };
+    }
 
 }
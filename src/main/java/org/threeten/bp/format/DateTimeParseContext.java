@@ -32,10 +32,8 @@
 package org.threeten.bp.format;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
-import java.util.Map;
 
 import org.threeten.bp.Period;
 import org.threeten.bp.ZoneId;
@@ -342,8 +340,10 @@ final class DateTimeParseContext {
      */
     int setParsedField(TemporalField field, long value, int errorPos, int successPos) {
         Jdk8Methods.requireNonNull(field, "field");
-        Long old = currentParsed().fieldValues.put(field, value);
-        return (old != null && old.longValue() != value) ? ~errorPos : successPos;
+        FieldValueMap fieldValues = currentParsed().fieldValues;
+        boolean conflict = fieldValues.containsKey(field) && fieldValues.getValue(field) != value;
+        fieldValues.putValue(field, value);
+        return conflict ? ~errorPos : successPos;
     }
 
     /**
@@ -425,7 +425,7 @@ final class DateTimeParseContext {
     final class Parsed extends DefaultInterfaceTemporalAccessor {
         Chronology chrono = null;
         ZoneId zone = null;
-        final Map<TemporalField, Long> fieldValues = new HashMap<TemporalField, Long>();
+        final FieldValueMap fieldValues = new FieldValueMap();
         boolean leapSecond;
         Period excessDays = Period.ZERO;
         List<Object[]> callbacks;
@@ -453,7 +453,7 @@ final class DateTimeParseContext {
             if (fieldValues.containsKey(field) == false) {
                 throw new UnsupportedTemporalTypeException("Unsupported field: " + field);
             }
-            long value = fieldValues.get(field);
+            long value = fieldValues.getValue(field);
             return Jdk8Methods.safeToInt(value);
         }
         @Override
@@ -461,7 +461,7 @@ final class DateTimeParseContext {
             if (fieldValues.containsKey(field) == false) {
                 throw new UnsupportedTemporalTypeException("Unsupported field: " + field);
             }
-            return fieldValues.get(field);
+            return fieldValues.getValue(field);
         }
         @SuppressWarnings("unchecked")
         @Override
@@ -0,0 +1,372 @@
+/*
+ * Copyright (c) 2007-present, Stephen Colebourne & Michael Nascimento Santos
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *  * Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ *  * Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ *  * Neither the name of JSR-310 nor the names of its contributors
+ *    may be used to endorse or promote products derived from this software
+ *    without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.threeten.bp.format;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ConcurrentModificationException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import org.threeten.bp.DateTimeException;
+import org.threeten.bp.temporal.ChronoField;
+import org.threeten.bp.temporal.TemporalField;
+
+/**
+ * A map of field to value used while parsing and resolving.
+ * <p>
+ * The values of {@link ChronoField} are held in a {@code long} array indexed by
+ * ordinal, with a bit mask recording which are present, so that parsing and
+ * resolving standard fields neither boxes the values nor creates hash entries.
+ * Other fields are held in a separate map that is created when first needed.
+ * <p>
+ * The map is exposed as a standard {@code Map} to chronologies and fields
+ * when they resolve, and behaves as one, except that null keys and values
+ * are not permitted. The primitive methods should be used where possible.
+ * <p>
+ * Unlike {@code HashMap}, iteration is in a defined order, the chrono fields
+ * in ordinal order followed by the other fields. Where resolving reports the
+ * first of several conflicting fields, it is therefore the first in this order.
+ * As with {@code HashMap}, the iterators are fail-fast, throwing
+ * {@code ConcurrentModificationException} if a field is added or removed
+ * other than through the iterator itself. Changing the value of a field that
+ * is present is not a structural modification.
+ *
+ * <h3>Specification for implementors</h3>
+ * This class is mutable and not thread-safe.
+ * It should only be used from a single thread.
+ */
+final class FieldValueMap extends AbstractMap<TemporalField, Long> {
+
+    /**
+     * The chrono fields, indexed by ordinal, of which there are fewer than 64.
+     */
+    private static final ChronoField[] FIELDS = ChronoField.values();
+
+    /**
+     * The values of the chrono fields, indexed by ordinal, null until needed.
+     */
+    private long[] values;
+    /**
+     * The bit mask of the chrono fields that are present, indexed by ordinal.
+     */
+    private long present;
+    /**
+     * The values of other fields, null until needed.
+     */
+    private Map<TemporalField, Long> others;
+    /**
+     * The number of times fields have been added or removed, used by the iterators.
+     */
+    private int modCount;
+    /**
+     * The entry set view, null until needed.
+     */
+    private Set<Entry<TemporalField, Long>> entrySet;
+
+    /**
+     * Creates an empty map.
+     */
+    FieldValueMap() {
+    }
+
+    //-----------------------------------------------------------------------
+    /**
+     * Gets the value of a field that is known to be present.
+     *
+     * @param field  the field to get, not null
+     * @return the value of the field
+     * @throws DateTimeException if the field is not present
+     */
+    long getValue(TemporalField field) {
+        if (field instanceof ChronoField) {
+            int ordinal = ((ChronoField) field).ordinal();
+            if ((present & (1L << ordinal)) == 0) {
+                throw new DateTimeException("Field not found: " + field);
+            }
+            return values[ordinal];
+        }
+        Long value = (others != null ? others.get(field) : null);
+        if (value == null) {
+            throw new DateTimeException("Field not found: " + field);
+        }
+        return value;
+    }
+
+    /**
+     * Sets the value of a field, replacing any existing value.
+     *
+     * @param field  the field to set, not null
+     * @param value  the value to set
+     */
+    void putValue(TemporalField field, long value) {
+        if (field instanceof ChronoField) {
+            int ordinal = ((ChronoField) field).ordinal();
+            if (values == null) {
+                values = new long[FIELDS.length];
+            }
+            values[ordinal] = value;
+            if ((present & (1L << ordinal)) == 0) {
+                present |= 1L << ordinal;
+                modCount++;
+            }
+        } else {
+            if (others == null) {
+                others = new HashMap<TemporalField, Long>();
+            }
+            if (others.put(field, value) == null) {
+                modCount++;
+            }
+        }
+    }
+
+    /**
+     * Removes the value of a field that is known to be present.
+     *
+     * @param field  the field to remove, not null
+     * @return the value of the field
+     * @throws DateTimeException if the field is not present
+     */
+    long removeValue(TemporalField field) {
+        long value = getValue(field);
+        if (field instanceof ChronoField) {
+            present &= ~(1L << ((ChronoField) field).ordinal());
+        } else {
+            others.remove(field);
+        }
+        modCount++;
+        return value;
+    }
+
+    //-----------------------------------------------------------------------
+    @Override
+    public int size() {
+        return Long.bitCount(present) + (others != null ? others.size() : 0);
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        if (key instanceof ChronoField) {
+            return (present & (1L << ((ChronoField) key).ordinal())) != 0;
+        }
+        return others != null && others.containsKey(key);
+    }
+
+    @Override
+    public Long get(Object key) {
+        if (key instanceof ChronoField) {
+            int ordinal = ((ChronoField) key).ordinal();
+            return ((present & (1L << ordinal)) != 0 ? Long.valueOf(values[ordinal]) : null);
+        }
+        return (others != null ? others.get(key) : null);
+    }
+
+    @Override
+    public Long put(TemporalField key, Long value) {
+        if (key == null || value == null) {
+            throw new NullPointerException("Null keys and values are not permitted");
+        }
+        Long old = get(key);
+        putValue(key, value);
+        return old;
+    }
+
+    @Override
+    public Long remove(Object key) {
+        Long old;
+        if (key instanceof ChronoField) {
+            old = get(key);
+            present &= ~(1L << ((ChronoField) key).ordinal());
+        } else {
+            old = (others != null ? others.remove(key) : null);
+        }
+        if (old != null) {
+            modCount++;
+        }
+        return old;
+    }
+
+    @Override
+    public void putAll(Map<? extends TemporalField, ? extends Long> map) {
+        if (map instanceof FieldValueMap) {
+            FieldValueMap other = (FieldValueMap) map;
+            long bits = other.present;
+            if (bits != 0 && values == null) {
+                values = new long[FIELDS.length];
+            }
+            while (bits != 0) {
+                int ordinal = Long.numberOfTrailingZeros(bits);
+                values[ordinal] = other.values[ordinal];
+                bits &= bits - 1;
+            }
+            if ((other.present & ~present) != 0) {
+                present |= other.present;
+                modCount++;
+            }
+            if (other.others != null && other.others.size() > 0) {
+                if (others == null) {
+                    others = new HashMap<TemporalField, Long>();
+                }
+                int size = others.size();
+                others.putAll(other.others);
+                if (others.size() != size) {
+                    modCount++;
+                }
+            }
+        } else {
+            super.putAll(map);
+        }
+    }
+
+    @Override
+    public void clear() {
+        if (present != 0 || others != null) {
+            modCount++;
+        }
+        present = 0;
+        others = null;
+    }
+
+    @Override
+    public Set<Entry<TemporalField, Long>> entrySet() {
+        if (entrySet == null) {
+            entrySet = new AbstractSet<Entry<TemporalField, Long>>() {
+                @Override
+                public Iterator<Entry<TemporalField, Long>> iterator() {
+                    return new EntryIterator();
+                }
+                @Override
+                public int size() {
+                    return FieldValueMap.this.size();
+                }
+            };
+        }
+        return entrySet;
+    }
+
+    //-----------------------------------------------------------------------
+    /**
+     * Iterator over the entries, chrono fields first in ordinal order.
+     */
+    private final class EntryIterator implements Iterator<Entry<TemporalField, Long>> {
+        /** The modification count expected, to detect concurrent modification. */
+        private int expectedModCount = modCount;
+        /** The ordinal to search for the next chrono field from. */
+        private int cursor;
+        /** The ordinal of the last chrono field returned, -1 if none. */
+        private int lastOrdinal = -1;
+        /** The iterator of other fields, null until the chrono fields are exhausted. */
+        private Iterator<Entry<TemporalField, Long>> othersIterator;
+        /** Whether the last entry returned was from the other fields. */
+        private boolean lastOther;
+
+        @Override
+        public boolean hasNext() {
+            if (cursor < FIELDS.length) {
+                long bits = present & (-1L << cursor);
+                cursor = (bits != 0 ? Long.numberOfTrailingZeros(bits) : FIELDS.length);
+                if (cursor < FIELDS.length) {
+                    return true;
+                }
+            }
+            if (othersIterator == null) {
+                if (others == null) {
+                    return false;
+                }
+                othersIterator = others.entrySet().iterator();
+            }
+            return othersIterator.hasNext();
+        }
+
+        @Override
+        public Entry<TemporalField, Long> next() {
+            checkModCount();
+            if (hasNext() == false) {
+                throw new NoSuchElementException();
+            }
+            if (cursor < FIELDS.length) {
+                lastOrdinal = cursor++;
+                lastOther = false;
+                return new ChronoEntry(lastOrdinal);
+            }
+            lastOrdinal = -1;
+            lastOther = true;
+            return othersIterator.next();
+        }
+
+        @Override
+        public void remove() {
+            checkModCount();
+            if (lastOrdinal >= 0) {
+                present &= ~(1L << lastOrdinal);
+                lastOrdinal = -1;
+            } else if (lastOther) {
+                othersIterator.remove();
+                lastOther = false;
+            } else {
+                throw new IllegalStateException();
+            }
+            expectedModCount = ++modCount;
+        }
+
+        private void checkModCount() {
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+        }
+    }
+
+    /**
+     * Entry for a chrono field, writing changes of value through to the map.
+     */
+    private final class ChronoEntry extends SimpleEntry<TemporalField, Long> {
+        /** Serialization version. */
+        private static final long serialVersionUID = 1L;
+        /** The ordinal of the field. */
+        private final int ordinal;
+
+        ChronoEntry(int ordinal) {
+            super(FIELDS[ordinal], values[ordinal]);
+            this.ordinal = ordinal;
+        }
+
+        @Override
+        public Long setValue(Long value) {
+            values[ordinal] = value;
+            return super.setValue(value);
+        }
+    }
+
+}
@@ -0,0 +1,428 @@
+/*
+ * Copyright (c) 2007-present, Stephen Colebourne & Michael Nascimento Santos
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *  * Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ *  * Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ *  * Neither the name of JSR-310 nor the names of its contributors
+ *    may be used to endorse or promote products derived from this software
+ *    without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.threeten.bp.zone;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.ref.WeakReference;
+import java.net.URL;
+import java.net.URLConnection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.Timer;
+import java.util.TimerTask;
+import java.util.TreeMap;
+
+import org.threeten.bp.jdk8.Jdk8Methods;
+
+/**
+ * Loads time-zone rules for 'TZDB', picking up new data files from a directory while running.
+ * <p>
+ * The rules on the class path are loaded first, followed by every file in the directory
+ * whose name starts with 'TZDB' and ends with '.dat', in name order.
+ * Where more than one file contains the same version, the last file in name order is used.
+ * Files removed from the directory continue to be used, as their rules may have been seen.
+ * The rules of the latest version are provided, falling back to older versions for
+ * any region the latest version does not contain.
+ * <p>
+ * The directory is checked for new or changed files by {@link ZoneRulesProvider#refresh()}
+ * and, if an interval is specified, periodically by a background daemon thread.
+ * The thread is shared by all instances and only holds each instance weakly.
+ * Background checking stops when the instance is closed or is no longer referenced.
+ * New files are loaded and indexed before being made visible with a single volatile write,
+ * thus lookups never see a partly loaded state and take no lock.
+ * When the rules change, region-based {@code ZoneId} instances obtain the new rules
+ * the next time their rules are queried.
+ * To avoid a partly written file being read, new files should be written elsewhere
+ * and moved into the directory. A file that cannot be read is ignored until it changes.
+ * If a refresh loads some files but fails on another, the change is reported before the
+ * error is thrown, so that cached rules are not left stale.
+ * <p>
+ * To use this provider in place of {@code TzdbZoneRulesProvider}, set the system property
+ * {@code org.threeten.bp.zone.DefaultZoneRulesProvider} to the name of this class
+ * and the system property {@code org.threeten.bp.zone.DirectoryTzdbZoneRulesProvider.directory}
+ * to the directory. The optional system property
+ * {@code org.threeten.bp.zone.DirectoryTzdbZoneRulesProvider.interval} sets the interval between
+ * checks in seconds, defaulting to 60, with zero disabling the background thread.
+ *
+ * <h3>Specification for implementors</h3>
+ * This class is thread-safe.
+ */
+public final class DirectoryTzdbZoneRulesProvider extends ZoneRulesProvider implements Closeable {
+
+    /**
+     * The system property defining the directory.
+     */
+    static final String DIRECTORY_PROPERTY = "org.threeten.bp.zone.DirectoryTzdbZoneRulesProvider.directory";
+    /**
+     * The system property defining the interval between checks, in seconds.
+     */
+    static final String INTERVAL_PROPERTY = "org.threeten.bp.zone.DirectoryTzdbZoneRulesProvider.interval";
+    /**
+     * The timer running the background checks of all instances, lazily created.
+     */
+    private static Timer watcher;
+
+    /**
+     * The directory to watch.
+     */
+    private final File directory;
+    /**
+     * The regions to load.
+     */
+    private final TzdbZoneRulesProvider.RegionFilter filter;
+    /**
+     * The rules loaded from the class path.
+     */
+    private final TzdbFile classPathFile;
+    /**
+     * The current state, replaced as a whole when new files are loaded.
+     */
+    private volatile State state;
+    /**
+     * The lock held while checking the directory, never taken by lookups.
+     */
+    private final Object reloadLock = new Object();
+    /**
+     * The background check, null if not checking in the background.
+     */
+    private final WatchTask watchTask;
+
+    /**
+     * Creates an instance using the system properties.
+     * Created when named as the default provider.
+     *
+     * @throws ZoneRulesException if the directory is not specified, or unable to load
+     */
+    public DirectoryTzdbZoneRulesProvider() {
+        this(findDirectory(), findInterval() * 1000L, TzdbZoneRulesProvider.RegionFilter.fromSystemProperty());
+    }
+
+    /**
+     * Creates an instance watching the specified directory.
+     *
+     * @param directory  the directory containing 'TZDB*.dat' files, not null
+     * @param intervalMillis  the interval between checks in the background, zero for none
+     * @throws ZoneRulesException if unable to load
+     */
+    public DirectoryTzdbZoneRulesProvider(File directory, long intervalMillis) {
+        this(directory, intervalMillis, TzdbZoneRulesProvider.RegionFilter.ALL);
+    }
+
+    private DirectoryTzdbZoneRulesProvider(File directory, long intervalMillis, TzdbZoneRulesProvider.RegionFilter filter) {
+        super();
+        Jdk8Methods.requireNonNull(directory, "directory");
+        if (intervalMillis < 0) {
+            throw new IllegalArgumentException("Interval must not be negative");
+        }
+        this.directory = directory;
+        this.filter = filter;
+        URL url = ZoneRulesProvider.class.getClassLoader().getResource("org/threeten/bp/TZDB.dat");
+        this.classPathFile = (url != null ? load(url) : null);
+        this.state = new State(Collections.<String, FileData>emptyMap(), Collections.<String>emptySet());
+        reload(true);
+        if (state.versions.isEmpty()) {
+            throw new ZoneRulesException("No time-zone rules found for 'TZDB'");
+        }
+        filter.checkFound(state.regionIds);
+        if (intervalMillis > 0) {
+            watchTask = new WatchTask(this);
+            getWatcher().schedule(watchTask, intervalMillis, intervalMillis);
+        } else {
+            watchTask = null;
+        }
+    }
+
+    private static File findDirectory() {
+        String dir = null;
+        try {
+            dir = System.getProperty(DIRECTORY_PROPERTY);
+        } catch (SecurityException ex) {
+            // treat as not set
+        }
+        if (dir == null) {
+            throw new ZoneRulesException("System property must be set: " + DIRECTORY_PROPERTY);
+        }
+        return new File(dir);
+    }
+
+    private static long findInterval() {
+        String interval = "60";
+        try {
+            interval = System.getProperty(INTERVAL_PROPERTY, interval);
+        } catch (SecurityException ex) {
+            // use the default interval
+        }
+        try {
+            return Long.parseLong(interval.trim());
+        } catch (NumberFormatException ex) {
+            throw new ZoneRulesException("Invalid system property: " + INTERVAL_PROPERTY + "=" + interval);
+        }
+    }
+
+    /**
+     * Gets the timer shared by all instances, creating it if necessary.
+     *
+     * @return the timer, not null
+     */
+    private static synchronized Timer getWatcher() {
+        if (watcher == null) {
+            watcher = new Timer("ThreeTen TZDB directory watcher", true);
+        }
+        return watcher;
+    }
+
+    /**
+     * Stops checking the directory in the background.
+     * <p>
+     * The rules already loaded remain available, and the directory is still
+     * checked by {@link ZoneRulesProvider#refresh()}.
+     * Calling this method more than once has no further effect.
+     */
+    @Override
+    public void close() {
+        if (watchTask != null && watchTask.cancel()) {
+            getWatcher().purge();
+        }
+    }
+
+    //-----------------------------------------------------------------------
+    @Override
+    protected Set<String> provideZoneIds() {
+        return state.regionIds;
+    }
+
+    @Override
+    protected ZoneRules provideRules(String zoneId, boolean forCaching) {
+        Jdk8Methods.requireNonNull(zoneId, "zoneId");
+        TzdbZoneRulesProvider.Version version = state.regionVersions.get(zoneId);
+        if (version == null) {
+            throw new ZoneRulesException("Unknown time-zone ID: " + zoneId);
+        }
+        return version.getRules(zoneId);
+    }
+
+    @Override
+    protected NavigableMap<String, ZoneRules> provideVersions(String zoneId) {
+        TreeMap<String, ZoneRules> map = new TreeMap<String, ZoneRules>();
+        for (TzdbZoneRulesProvider.Version version : state.versions.values()) {
+            ZoneRules rules = version.getRules(zoneId);
+            if (rules != null) {
+                map.put(version.getVersionId(), rules);
+            }
+        }
+        return map;
+    }
+
+    @Override
+    protected boolean provideRefresh() {
+        return reload(true);
+    }
+
+    //-----------------------------------------------------------------------
+    /**
+     * Checks the directory, loading any new or changed files.
+     *
+     * @param throwErrors  whether to throw an exception if a file cannot be loaded
+     * @return true if the rules changed
+     * @throws ZoneRulesException if a file cannot be loaded and errors are thrown
+     */
+    private boolean reload(boolean throwErrors) {
+        synchronized (reloadLock) {
+            State current = state;
+            File[] found = directory.listFiles();
+            // files that have been removed are retained, as their rules may have been seen
+            Map<String, FileData> files = new TreeMap<String, FileData>(current.files);
+            boolean changed = false;
+            ZoneRulesException error = null;
+            for (File file : (found != null ? found : new File[0])) {
+                String name = file.getName();
+                if (name.startsWith("TZDB") == false || name.endsWith(".dat") == false || file.isFile() == false) {
+                    continue;
+                }
+                FileData old = current.files.get(name);
+                long lastModified = file.lastModified();
+                long length = file.length();
+                if (old != null && old.lastModified == lastModified && old.length == length) {
+                    continue;
+                }
+                try {
+                    files.put(name, new FileData(lastModified, length, load(file)));
+                    changed = true;
+                } catch (ZoneRulesException ex) {
+                    // retain the previous data, if any, and try again next time
+                    error = (error == null ? ex : error);
+                }
+            }
+            if (changed) {
+                state = new State(files, current.regionIds);
+            }
+            if (error != null && throwErrors) {
+                if (changed) {
+                    // the new rules are already visible, so report them before the error hides the change
+                    notifyRulesChanged();
+                }
+                throw error;
+            }
+            return changed;
+        }
+    }
+
+    private static TzdbFile load(File file) {
+        try {
+            return load(new FileInputStream(file), file.length());
+        } catch (IOException ex) {
+            throw new ZoneRulesException("Unable to load TZDB time-zone rules: " + file, ex);
+        }
+    }
+
+    private static TzdbFile load(URL url) {
+        try {
+            URLConnection connection = url.openConnection();
+            return load(connection.getInputStream(), connection.getContentLength());
+        } catch (IOException ex) {
+            throw new ZoneRulesException("Unable to load TZDB time-zone rules: " + url, ex);
+        }
+    }
+
+    private static TzdbFile load(InputStream in, long length) throws IOException {
+        try {
+            return TzdbFile.load(TzdbFile.readFully(in, length, false));
+        } finally {
+            in.close();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "TZDB";
+    }
+
+    //-----------------------------------------------------------------------
+    /**
+     * The background check of the directory.
+     * <p>
+     * The provider is held weakly, so an instance that is no longer referenced
+     * can be garbage collected, at which point the check is cancelled.
+     */
+    private static final class WatchTask extends TimerTask {
+        private final WeakReference<DirectoryTzdbZoneRulesProvider> provider;
+
+        WatchTask(DirectoryTzdbZoneRulesProvider provider) {
+            this.provider = new WeakReference<DirectoryTzdbZoneRulesProvider>(provider);
+        }
+
+        @Override
+        public void run() {
+            DirectoryTzdbZoneRulesProvider watched = provider.get();
+            if (watched == null) {
+                cancel();
+                return;
+            }
+            try {
+                if (watched.reload(false)) {
+                    watched.notifyRulesChanged();
+                }
+            } catch (RuntimeException ex) {
+                // the timer is shared, thus must not be stopped by one failing check
+            }
+        }
+    }
+
+    /**
+     * A file that has been loaded.
+     */
+    private static final class FileData {
+        final long lastModified;
+        final long length;
+        final TzdbFile file;
+
+        FileData(long lastModified, long length, TzdbFile file) {
+            this.lastModified = lastModified;
+            this.length = length;
+            this.file = file;
+        }
+    }
+
+    /**
+     * The immutable state of the provider.
+     */
+    private final class State {
+        /** The files loaded from the directory, by name, not modified once published. */
+        final Map<String, FileData> files;
+        /** The versions, from all files, not modified once published. */
+        final NavigableMap<String, TzdbZoneRulesProvider.Version> versions;
+        /** The regions, which never shrink. */
+        final Set<String> regionIds;
+        /** The latest version having rules for each region, not modified once published. */
+        final Map<String, TzdbZoneRulesProvider.Version> regionVersions;
+
+        State(Map<String, FileData> files, Set<String> previousRegionIds) {
+            this.files = files;
+            TreeMap<String, TzdbZoneRulesProvider.Version> versionMap = new TreeMap<String, TzdbZoneRulesProvider.Version>();
+            Set<String> regions = new HashSet<String>(previousRegionIds);
+            if (classPathFile != null) {
+                add(classPathFile, versionMap, regions);
+            }
+            for (FileData data : files.values()) {
+                add(data.file, versionMap, regions);
+            }
+            this.versions = versionMap;
+            this.regionIds = Collections.unmodifiableSet(regions);
+            // resolve each region once, rather than searching the versions on each lookup
+            Map<String, TzdbZoneRulesProvider.Version> latest = new HashMap<String, TzdbZoneRulesProvider.Version>(regions.size() * 2);
+            for (TzdbZoneRulesProvider.Version version : versionMap.descendingMap().values()) {
+                for (String regionId : regions) {
+                    if (latest.containsKey(regionId) == false && version.hasRules(regionId)) {
+                        latest.put(regionId, version);
+                    }
+                }
+            }
+            this.regionVersions = latest;
+        }
+
+        private void add(TzdbFile file, Map<String, TzdbZoneRulesProvider.Version> versionMap, Set<String> regions) {
+            for (TzdbZoneRulesProvider.Version version : TzdbZoneRulesProvider.Version.of(file, filter)) {
+                versionMap.put(version.getVersionId(), version);
+            }
+            regions.addAll(filter.filter(file.getRegionIds()));
+        }
+    }
+
+}
@@ -0,0 +1,187 @@
+/*
+ * Copyright (c) 2007-present, Stephen Colebourne & Michael Nascimento Santos
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *  * Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ *  * Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ *  * Neither the name of JSR-310 nor the names of its contributors
+ *    may be used to endorse or promote products derived from this software
+ *    without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.threeten.bp.zone;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+
+import org.threeten.bp.jdk8.Jdk8Methods;
+
+/**
+ * Provides time-zone rules from a number of providers in priority order.
+ * <p>
+ * Each zone ID is provided by the first layer, in priority order, that provides it.
+ * Thus a small provider of patched rules can be placed in front of a complete provider,
+ * such as {@code TzdbZoneRulesProvider}, to override just the zones it contains.
+ * The rules and versions of a zone ID come only from the layer providing it.
+ * <p>
+ * The zone IDs of all layers are resolved once when the provider is created,
+ * thus registering one layered provider costs the same as registering its zones once,
+ * and each lookup is a single hash lookup before delegating to the layer.
+ * A refresh refreshes every layer, resolving the zone IDs again if any layer changed.
+ * <p>
+ * To take priority over zones that are already registered, for example by the default
+ * provider, register this with {@link ZoneRulesProvider#registerOverrideProvider}.
+ *
+ * <h3>Specification for implementors</h3>
+ * This class is thread-safe.
+ */
+public final class LayeredZoneRulesProvider extends ZoneRulesProvider {
+
+    /**
+     * The layers, highest priority first.
+     */
+    private final List<ZoneRulesProvider> layers;
+    /**
+     * The lookup from zone ID to layer, replaced as a whole on refresh.
+     */
+    private volatile Map<String, ZoneRulesProvider> zones;
+
+    /**
+     * Creates an instance from the layers, highest priority first.
+     *
+     * @param layers  the layers, highest priority first, not null
+     * @throws ZoneRulesException if a layer is unable to provide its zone IDs
+     */
+    public LayeredZoneRulesProvider(ZoneRulesProvider... layers) {
+        this(Arrays.asList(layers));
+    }
+
+    /**
+     * Creates an instance from the layers, highest priority first.
+     *
+     * @param layers  the layers, highest priority first, not null
+     * @throws ZoneRulesException if a layer is unable to provide its zone IDs
+     */
+    public LayeredZoneRulesProvider(List<? extends ZoneRulesProvider> layers) {
+        super();
+        Jdk8Methods.requireNonNull(layers, "layers");
+        for (ZoneRulesProvider layer : layers) {
+            Jdk8Methods.requireNonNull(layer, "layer");
+        }
+        this.layers = Collections.unmodifiableList(Arrays.asList(layers.toArray(new ZoneRulesProvider[layers.size()])));
+        this.zones = resolveZones();
+    }
+
+    /**
+     * Resolves the layer providing each zone ID.
+     *
+     * @return the lookup from zone ID to layer, not null
+     */
+    private Map<String, ZoneRulesProvider> resolveZones() {
+        Map<String, ZoneRulesProvider> resolved = new HashMap<String, ZoneRulesProvider>(512);
+        for (ZoneRulesProvider layer : layers) {
+            for (String zoneId : layer.provideZoneIds()) {
+                Jdk8Methods.requireNonNull(zoneId, "zoneId");
+                if (resolved.containsKey(zoneId) == false) {
+                    resolved.put(zoneId, layer);
+                }
+            }
+        }
+        return resolved;
+    }
+
+    /**
+     * Gets the layers.
+     *
+     * @return the unmodifiable list of layers, highest priority first, not null
+     */
+    public List<ZoneRulesProvider> getLayers() {
+        return layers;
+    }
+
+    //-----------------------------------------------------------------------
+    @Override
+    protected Set<String> provideZoneIds() {
+        return Collections.unmodifiableSet(zones.keySet());
+    }
+
+    @Override
+    protected ZoneRules provideRules(String zoneId, boolean forCaching) {
+        return findLayer(zoneId).provideRules(zoneId, forCaching);
+    }
+
+    @Override
+    protected NavigableMap<String, ZoneRules> provideVersions(String zoneId) {
+        return findLayer(zoneId).provideVersions(zoneId);
+    }
+
+    @Override
+    protected boolean provideRefresh() {
+        boolean changed = false;
+        for (ZoneRulesProvider layer : layers) {
+            changed |= layer.provideRefresh();
+        }
+        if (changed) {
+            zones = resolveZones();
+        }
+        return changed;
+    }
+
+    @Override
+    protected boolean provideImmutableRules() {
+        for (ZoneRulesProvider layer : layers) {
+            if (layer.provideImmutableRules() == false) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Finds the layer providing the zone ID.
+     *
+     * @param zoneId  the zone ID, not null
+     * @return the layer, not null
+     * @throws ZoneRulesException if no layer provides the zone ID
+     */
+    private ZoneRulesProvider findLayer(String zoneId) {
+        Jdk8Methods.requireNonNull(zoneId, "zoneId");
+        ZoneRulesProvider layer = zones.get(zoneId);
+        if (layer == null) {
+            throw new ZoneRulesException("Unknown time-zone ID: " + zoneId);
+        }
+        return layer;
+    }
+
+    //-----------------------------------------------------------------------
+    @Override
+    public String toString() {
+        return "LayeredZoneRulesProvider" + layers;
+    }
+
+}
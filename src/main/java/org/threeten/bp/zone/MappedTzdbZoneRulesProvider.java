@@ -0,0 +1,269 @@
+/*
+ * Copyright (c) 2007-present, Stephen Colebourne & Michael Nascimento Santos
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *  * Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ *  * Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ *  * Neither the name of JSR-310 nor the names of its contributors
+ *    may be used to endorse or promote products derived from this software
+ *    without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.threeten.bp.zone;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+
+import org.threeten.bp.jdk8.Jdk8Methods;
+
+/**
+ * Loads time-zone rules for 'TZDB' lazily from a single buffer.
+ * <p>
+ * This provider reads the same 'TZDB.dat' format as {@link TzdbZoneRulesProvider}.
+ * The file is memory-mapped where possible, otherwise it is read once into a direct buffer.
+ * Only an index of the regions and the position of each rule is built when loading.
+ * The rules for a region are decoded from the buffer the first time they are requested,
+ * thus an application using only a few zones reads and retains very little data.
+ * <p>
+ * To use this provider in place of {@code TzdbZoneRulesProvider}, set the system property
+ * {@code org.threeten.bp.zone.DefaultZoneRulesProvider} to the name of this class.
+ * The regions loaded can be restricted in the same way as {@code TzdbZoneRulesProvider}.
+ *
+ * <h3>Specification for implementors</h3>
+ * This class is immutable and thread-safe.
+ */
+public final class MappedTzdbZoneRulesProvider extends ZoneRulesProvider {
+
+    /**
+     * All the regions that are available.
+     */
+    private final Set<String> regionIds;
+    /**
+     * All the versions that are available.
+     */
+    private final NavigableMap<String, TzdbZoneRulesProvider.Version> versions = new TreeMap<String, TzdbZoneRulesProvider.Version>();
+
+    /**
+     * Creates an instance loading the 'TZDB.dat' file from the class path.
+     * Created when named as the default provider.
+     *
+     * @throws ZoneRulesException if unable to load
+     */
+    public MappedTzdbZoneRulesProvider() {
+        this(findResource(), TzdbZoneRulesProvider.RegionFilter.fromSystemProperty());
+    }
+
+    /**
+     * Creates an instance loading the rules from a URL.
+     * <p>
+     * A 'file' URL is memory-mapped, any other URL is read into a direct buffer.
+     *
+     * @param url  the URL of the 'TZDB.dat' file, not null
+     * @throws ZoneRulesException if unable to load
+     */
+    public MappedTzdbZoneRulesProvider(URL url) {
+        this(readBuffer(url), url, TzdbZoneRulesProvider.RegionFilter.ALL);
+    }
+
+    /**
+     * Creates an instance loading only the specified regions from a URL.
+     * <p>
+     * Each entry is a region ID, or a prefix followed by '*'.
+     *
+     * @param url  the URL of the 'TZDB.dat' file, not null
+     * @param regions  the regions to load, not null
+     * @throws ZoneRulesException if unable to load, or a specified region ID is not found
+     */
+    public MappedTzdbZoneRulesProvider(URL url, Collection<String> regions) {
+        this(url, TzdbZoneRulesProvider.RegionFilter.of(regions));
+    }
+
+    private MappedTzdbZoneRulesProvider(URL url, TzdbZoneRulesProvider.RegionFilter filter) {
+        this(readBuffer(url), url, filter);
+    }
+
+    /**
+     * Creates an instance memory-mapping the rules from a file.
+     *
+     * @param file  the 'TZDB.dat' file, not null
+     * @throws ZoneRulesException if unable to load
+     */
+    public MappedTzdbZoneRulesProvider(File file) {
+        this(mapBuffer(file), file, TzdbZoneRulesProvider.RegionFilter.ALL);
+    }
+
+    /**
+     * Creates an instance indexing a buffer.
+     *
+     * @param buffer  the buffer holding the file, not null
+     * @param source  the source of the buffer, for error messages
+     * @param filter  the regions to load, not null
+     */
+    private MappedTzdbZoneRulesProvider(ByteBuffer buffer, Object source, TzdbZoneRulesProvider.RegionFilter filter) {
+        super();
+        TzdbFile file;
+        try {
+            file = TzdbFile.load(buffer);
+        } catch (IOException ex) {
+            throw new ZoneRulesException("Unable to load TZDB time-zone rules: " + source, ex);
+        }
+        regionIds = Collections.unmodifiableSet(new HashSet<String>(filter.filter(file.getRegionIds())));
+        filter.checkFound(regionIds);
+        for (TzdbZoneRulesProvider.Version version : TzdbZoneRulesProvider.Version.of(file, filter)) {
+            versions.put(version.getVersionId(), version);
+        }
+        if (versions.isEmpty()) {
+            throw new ZoneRulesException("No time-zone rules found for 'TZDB': " + source);
+        }
+    }
+
+    //-----------------------------------------------------------------------
+    /**
+     * Finds the 'TZDB.dat' file on the class path.
+     *
+     * @return the URL of the file, not null
+     * @throws ZoneRulesException if not found
+     */
+    private static URL findResource() {
+        URL url = ZoneRulesProvider.class.getClassLoader().getResource("org/threeten/bp/TZDB.dat");
+        if (url == null) {
+            throw new ZoneRulesException("No time-zone rules found for 'TZDB'");
+        }
+        return url;
+    }
+
+    /**
+     * Reads the whole of a URL into a buffer, memory-mapping files.
+     *
+     * @param url  the URL to read, not null
+     * @return the buffer, positioned at zero, not null
+     * @throws ZoneRulesException if unable to read
+     */
+    private static ByteBuffer readBuffer(URL url) {
+        Jdk8Methods.requireNonNull(url, "url");
+        if ("file".equals(url.getProtocol())) {
+            try {
+                return mapBuffer(new File(url.toURI()));
+            } catch (URISyntaxException ex) {
+                // fall through and read the stream
+            }
+        }
+        InputStream in = null;
+        try {
+            // a jar entry reports its length, so the data is read straight into the direct buffer
+            URLConnection connection = url.openConnection();
+            in = connection.getInputStream();
+            return TzdbFile.readFully(in, connection.getContentLength(), true);
+        } catch (IOException ex) {
+            throw new ZoneRulesException("Unable to load TZDB time-zone rules: " + url, ex);
+        } finally {
+            close(in);
+        }
+    }
+
+    /**
+     * Memory-maps a file read-only.
+     * <p>
+     * The mapping remains valid after the channel is closed.
+     *
+     * @param file  the file to map, not null
+     * @return the mapped buffer, not null
+     * @throws ZoneRulesException if unable to map
+     */
+    private static ByteBuffer mapBuffer(File file) {
+        Jdk8Methods.requireNonNull(file, "file");
+        RandomAccessFile raf = null;
+        try {
+            raf = new RandomAccessFile(file, "r");
+            FileChannel channel = raf.getChannel();
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        } catch (IOException ex) {
+            throw new ZoneRulesException("Unable to load TZDB time-zone rules: " + file, ex);
+        } finally {
+            close(raf);
+        }
+    }
+
+    private static void close(Closeable closeable) {
+        if (closeable != null) {
+            try {
+                closeable.close();
+            } catch (IOException ex) {
+                // ignore
+            }
+        }
+    }
+
+    //-----------------------------------------------------------------------
+    @Override
+    protected Set<String> provideZoneIds() {
+        return regionIds;
+    }
+
+    @Override
+    protected ZoneRules provideRules(String zoneId, boolean forCaching) {
+        Jdk8Methods.requireNonNull(zoneId, "zoneId");
+        ZoneRules rules = versions.lastEntry().getValue().getRules(zoneId);
+        if (rules == null) {
+            throw new ZoneRulesException("Unknown time-zone ID: " + zoneId);
+        }
+        return rules;
+    }
+
+    @Override
+    protected boolean provideImmutableRules() {
+        return true;
+    }
+
+    @Override
+    protected NavigableMap<String, ZoneRules> provideVersions(String zoneId) {
+        TreeMap<String, ZoneRules> map = new TreeMap<String, ZoneRules>();
+        for (TzdbZoneRulesProvider.Version version : versions.values()) {
+            ZoneRules rules = version.getRules(zoneId);
+            if (rules != null) {
+                map.put(version.getVersionId(), rules);
+            }
+        }
+        return map;
+    }
+
+    @Override
+    public String toString() {
+        return "TZDB";
+    }
+
+}
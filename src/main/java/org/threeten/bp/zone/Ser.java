@@ -223,4 +223,99 @@ final class Ser implements Externalizable {
         }
     }
 
+
+    //-----------------------------------------------------------------------
+    /**
+     * Writes a non-negative value to the stream as a variable length integer.
+     * <p>
+     * Seven bits are stored in each byte, with the top bit set if more follow.
+     *
+     * @param value  the value to write, not negative
+     * @param out  the output stream, not null
+     * @throws IOException if an error occurs
+     */
+    static void writeVarLong(long value, DataOutput out) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    /**
+     * Reads a variable length integer from the stream.
+     *
+     * @param in  the input stream, not null
+     * @return the value, not negative unless corrupt
+     * @throws IOException if an error occurs
+     */
+    static long readVarLong(DataInput in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.readByte();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new StreamCorruptedException("Invalid variable length integer");
+    }
+
+    /**
+     * Writes an ascending array of epoch seconds to the stream as deltas.
+     * <p>
+     * The first value is stored as per {@link #writeEpochSec}, subsequent values
+     * as the variable length difference from the previous value.
+     * A difference that is a whole number of half hours is stored in half hours,
+     * with zero used to introduce any other difference, stored in seconds.
+     * Transitions up to eleven months apart thus take two bytes rather than three.
+     *
+     * @param epochSecs  the epoch seconds, in ascending order, not null
+     * @param out  the output stream, not null
+     * @throws IOException if an error occurs
+     */
+    static void writeEpochSecDeltas(long[] epochSecs, DataOutput out) throws IOException {
+        writeVarLong(epochSecs.length, out);
+        for (int i = 0; i < epochSecs.length; i++) {
+            if (i == 0) {
+                writeEpochSec(epochSecs[0], out);
+                continue;
+            }
+            long delta = epochSecs[i] - epochSecs[i - 1];
+            if (delta <= 0) {
+                throw new IllegalArgumentException("Epoch seconds must be in ascending order");
+            }
+            if (delta % 1800 == 0) {
+                writeVarLong(delta / 1800, out);
+            } else {
+                out.writeByte(0);
+                writeVarLong(delta, out);
+            }
+        }
+    }
+
+    /**
+     * Reads an array of epoch seconds stored as deltas.
+     *
+     * @param in  the input stream, not null
+     * @return the epoch seconds, not null
+     * @throws IOException if an error occurs
+     */
+    static long[] readEpochSecDeltas(DataInput in) throws IOException {
+        long size = readVarLong(in);
+        if (size > Short.MAX_VALUE) {
+            throw new StreamCorruptedException("Invalid epoch second count");
+        }
+        long[] epochSecs = new long[(int) size];
+        for (int i = 0; i < epochSecs.length; i++) {
+            if (i == 0) {
+                epochSecs[0] = readEpochSec(in);
+                continue;
+            }
+            long delta = readVarLong(in);
+            epochSecs[i] = epochSecs[i - 1] + (delta == 0 ? readVarLong(in) : delta * 1800);
+        }
+        return epochSecs;
+    }
+
 }
@@ -31,6 +31,8 @@
  */
 package org.threeten.bp.zone;
 
+import static org.threeten.bp.temporal.ChronoField.YEAR;
+
 import java.io.DataInput;
 import java.io.DataOutput;
 import java.io.IOException;
@@ -38,9 +40,10 @@ import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentMap;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 import org.threeten.bp.Duration;
 import org.threeten.bp.Instant;
@@ -65,9 +68,57 @@ final class StandardZoneRules extends ZoneRules implements Serializable {
      */
     private static final long serialVersionUID = 3044319355680032515L;
     /**
-     * The last year to have its transitions cached.
+     * The number of days in a 400 year cycle.
+     */
+    private static final int DAYS_PER_CYCLE = 146097;
+    /**
+     * The number of days from year zero to year 1970.
+     */
+    private static final long DAYS_0000_TO_1970 = (DAYS_PER_CYCLE * 5L) - (30L * 365L + 7L);
+    /**
+     * The default last year to have its transitions cached, exclusive.
+     */
+    private static final int DEFAULT_LAST_CACHED_YEAR = 2100;
+    /**
+     * The minimum valid last cached year.
+     */
+    private static final int MIN_LAST_CACHED_YEAR = 1900;
+    /**
+     * The maximum valid last cached year.
+     */
+    private static final int MAX_LAST_CACHED_YEAR = 9999;
+    /**
+     * The maximum number of years held in the cache of recent transitions.
      */
-    private static final int LAST_CACHED_YEAR = 2100;
+    static final int MAX_CACHED_YEARS = 400;
+    /**
+     * The last year to have its transitions cached, exclusive.
+     * This can be changed using the system property
+     * {@code org.threeten.bp.zone.StandardZoneRules.lastCachedYear},
+     * which must be from 1900 to 9999, otherwise the default of 2100 is used.
+     */
+    private static final int LAST_CACHED_YEAR = readYearProperty(
+                "org.threeten.bp.zone.StandardZoneRules.lastCachedYear",
+                DEFAULT_LAST_CACHED_YEAR, MIN_LAST_CACHED_YEAR, MAX_LAST_CACHED_YEAR);
+    /**
+     * Whether to expand the last rules into a flat transition table up to the last cached year.
+     * This is enabled using the system property
+     * {@code org.threeten.bp.zone.StandardZoneRules.expanded}.
+     */
+    private static final boolean EXPANDED =
+                readBooleanProperty("org.threeten.bp.zone.StandardZoneRules.expanded");
+    /**
+     * Whether to remember the last transition interval found for an instant.
+     * This is enabled using the system property
+     * {@code org.threeten.bp.zone.StandardZoneRules.rememberLastHit}.
+     */
+    private static final boolean REMEMBER_LAST_HIT =
+                readBooleanProperty("org.threeten.bp.zone.StandardZoneRules.rememberLastHit");
+    /**
+     * The number of interval searches in a bulk conversion before checking whether
+     * the values are clustered enough in time for the intervals to be worthwhile.
+     */
+    private static final int MAX_BULK_MISSES = 32;
 
     /**
      * The transitions between standard offsets (epoch seconds), sorted.
@@ -82,11 +133,16 @@ final class StandardZoneRules extends ZoneRules implements Serializable {
      */
     private final long[] savingsInstantTransitions;
     /**
-     * The transitions between local date-times, sorted.
+     * The transitions between instants, interned on first use.
+     * This is parallel to the epoch second transitions.
+     */
+    private final AtomicReferenceArray<ZoneOffsetTransition> savingsTransitions;
+    /**
+     * The transitions between local date-times (local epoch seconds), sorted.
      * This is a paired array, where the first entry is the start of the transition
      * and the second entry is the end of the transition.
      */
-    private final LocalDateTime[] savingsLocalTransitions;
+    private final long[] savingsLocalEpochSeconds;
     /**
      * The wall offsets.
      */
@@ -96,10 +152,28 @@ final class StandardZoneRules extends ZoneRules implements Serializable {
      */
     private final ZoneOffsetTransitionRule[] lastRules;
     /**
-     * The map of recent transitions.
+     * The first year in the cache of recent transitions.
      */
-    private final ConcurrentMap<Integer, ZoneOffsetTransition[]> lastRulesCache =
-                new ConcurrentHashMap<Integer, ZoneOffsetTransition[]>();
+    private final int firstCachedYear;
+    /**
+     * The cache of recent transitions, indexed by year from the first cached year.
+     * This holds one entry for each year from the last historic transition
+     * to the last cached year, thus the size is fixed when the rules are created.
+     */
+    private final AtomicReferenceArray<ZoneOffsetTransition[]> lastRulesCache;
+    /**
+     * The flat table of historic and projected transitions, null if not expanded.
+     */
+    private final TransitionTable transitionTable;
+    /**
+     * Whether to remember the last transition interval found for an instant.
+     */
+    private final boolean rememberLastHit;
+    /**
+     * The last transition interval found for an instant, null if none.
+     * This is an immutable snapshot, replaced as a whole when a lookup misses.
+     */
+    private transient volatile OffsetInterval lastHit;
 
     /**
      * Creates an instance.
@@ -127,38 +201,30 @@ final class StandardZoneRules extends ZoneRules implements Serializable {
             this.standardOffsets[i + 1] = standardOffsetTransitionList.get(i).getOffsetAfter();
         }
 
-        // convert savings transitions to locals
-        List<LocalDateTime> localTransitionList = new ArrayList<LocalDateTime>();
-        List<ZoneOffset> localTransitionOffsetList = new ArrayList<ZoneOffset>();
-        localTransitionOffsetList.add(baseWallOffset);
-        for (ZoneOffsetTransition trans : transitionList) {
-            if (trans.isGap()) {
-                localTransitionList.add(trans.getDateTimeBefore());
-                localTransitionList.add(trans.getDateTimeAfter());
-            } else {
-                localTransitionList.add(trans.getDateTimeAfter());
-                localTransitionList.add(trans.getDateTimeBefore());
-            }
-            localTransitionOffsetList.add(trans.getOffsetAfter());
-        }
-        this.savingsLocalTransitions = localTransitionList.toArray(new LocalDateTime[localTransitionList.size()]);
-        this.wallOffsets = localTransitionOffsetList.toArray(new ZoneOffset[localTransitionOffsetList.size()]);
-
-        // convert savings transitions to instants
+        // convert savings transitions to instants and locals
         this.savingsInstantTransitions = new long[transitionList.size()];
+        this.wallOffsets = new ZoneOffset[transitionList.size() + 1];
+        this.wallOffsets[0] = baseWallOffset;
         for (int i = 0; i < transitionList.size(); i++) {
             this.savingsInstantTransitions[i] = transitionList.get(i).getInstant().getEpochSecond();
+            this.wallOffsets[i + 1] = transitionList.get(i).getOffsetAfter();
         }
+        this.savingsLocalEpochSeconds = toLocalEpochSeconds(savingsInstantTransitions, wallOffsets);
 
         // last rules
         if (lastRules.size() > 15) {
             throw new IllegalArgumentException("Too many transition rules");
         }
         this.lastRules = lastRules.toArray(new ZoneOffsetTransitionRule[lastRules.size()]);
+        this.savingsTransitions = new AtomicReferenceArray<ZoneOffsetTransition>(savingsInstantTransitions.length);
+        this.firstCachedYear = findFirstCachedYear();
+        this.lastRulesCache = createLastRulesCache();
+        this.transitionTable = (EXPANDED ? createTransitionTable(LAST_CACHED_YEAR) : null);
+        this.rememberLastHit = REMEMBER_LAST_HIT;
     }
 
     /**
-     * Constructor.
+     * Constructor used when reading the rules, interning the arrays.
      *
      * @param standardTransitions  the standard transitions, not null
      * @param standardOffsets  the standard offsets, not null
@@ -174,27 +240,215 @@ final class StandardZoneRules extends ZoneRules implements Serializable {
             ZoneOffsetTransitionRule[] lastRules) {
         super();
 
-        this.standardTransitions = standardTransitions;
-        this.standardOffsets = standardOffsets;
-        this.savingsInstantTransitions = savingsInstantTransitions;
-        this.wallOffsets = wallOffsets;
-        this.lastRules = lastRules;
+        // arrays are interned as many zones have equal standard offsets or last rules
+        this.standardTransitions = ZoneRulesInterner.intern(standardTransitions);
+        this.standardOffsets = ZoneRulesInterner.intern(standardOffsets);
+        this.savingsInstantTransitions = ZoneRulesInterner.intern(savingsInstantTransitions);
+        this.savingsTransitions = new AtomicReferenceArray<ZoneOffsetTransition>(savingsInstantTransitions.length);
+        this.wallOffsets = ZoneRulesInterner.intern(wallOffsets);
+        this.lastRules = ZoneRulesInterner.intern(lastRules);
 
         // convert savings transitions to locals
-        List<LocalDateTime> localTransitionList = new ArrayList<LocalDateTime>();
-        for (int i = 0; i < savingsInstantTransitions.length; i++) {
-            ZoneOffset before = wallOffsets[i];
-            ZoneOffset after = wallOffsets[i + 1];
-            ZoneOffsetTransition trans = new ZoneOffsetTransition(savingsInstantTransitions[i], before, after);
-            if (trans.isGap()) {
-                localTransitionList.add(trans.getDateTimeBefore());
-                localTransitionList.add(trans.getDateTimeAfter());
-            } else {
-                localTransitionList.add(trans.getDateTimeAfter());
-                localTransitionList.add(trans.getDateTimeBefore());
+        this.savingsLocalEpochSeconds = ZoneRulesInterner.intern(toLocalEpochSeconds(savingsInstantTransitions, wallOffsets));
+        this.firstCachedYear = findFirstCachedYear();
+        this.lastRulesCache = createLastRulesCache();
+        this.transitionTable = (EXPANDED ? createTransitionTable(LAST_CACHED_YEAR) : null);
+        this.rememberLastHit = REMEMBER_LAST_HIT;
+    }
+
+    /**
+     * Constructor creating a copy of the rules with different lookup options.
+     *
+     * @param rules  the rules to copy, not null
+     * @param transitionTable  the flat transition table, null if not expanded
+     * @param rememberLastHit  whether to remember the last transition interval found
+     */
+    private StandardZoneRules(StandardZoneRules rules, TransitionTable transitionTable, boolean rememberLastHit) {
+        super();
+        this.standardTransitions = rules.standardTransitions;
+        this.standardOffsets = rules.standardOffsets;
+        this.savingsInstantTransitions = rules.savingsInstantTransitions;
+        this.savingsTransitions = rules.savingsTransitions;
+        this.savingsLocalEpochSeconds = rules.savingsLocalEpochSeconds;
+        this.wallOffsets = rules.wallOffsets;
+        this.lastRules = rules.lastRules;
+        this.firstCachedYear = rules.firstCachedYear;
+        this.lastRulesCache = rules.lastRulesCache;
+        this.transitionTable = transitionTable;
+        this.rememberLastHit = rememberLastHit;
+    }
+
+    /**
+     * Returns a copy of these rules that uses a flat transition table.
+     * <p>
+     * The table holds the historic transitions and the transitions generated
+     * by the last rules, allowing the offset for an instant to be found by
+     * a single binary search. This is normally controlled by a system property.
+     *
+     * @param lastYear  the year to expand the last rules to, exclusive
+     * @return the expanded rules, not null
+     */
+    StandardZoneRules withTransitionTable(int lastYear) {
+        return new StandardZoneRules(this, createTransitionTable(lastYear), rememberLastHit);
+    }
+
+    /**
+     * Gets the transitions held in the flat transition table.
+     * <p>
+     * This is the historic transitions followed by the transitions generated by the
+     * last rules up to the table limit, and is used to check the table is consistent.
+     *
+     * @return the transitions in the table, empty if not expanded, not null
+     */
+    List<ZoneOffsetTransition> getTableTransitions() {
+        TransitionTable table = transitionTable;
+        if (table == null) {
+            return Collections.emptyList();
+        }
+        List<ZoneOffsetTransition> list = new ArrayList<ZoneOffsetTransition>(table.transitions.length);
+        for (int i = 0; i < table.transitions.length; i++) {
+            list.add(new ZoneOffsetTransition(table.transitions[i], table.offsets[i], table.offsets[i + 1]));
+        }
+        return list;
+    }
+
+    /**
+     * Returns a copy of these rules that remembers the last transition interval found.
+     * <p>
+     * When looking up the offset for an instant, the interval between the transitions
+     * either side of the instant is stored. A subsequent lookup within the same interval
+     * then avoids searching the transitions, which suits input that is nearly sorted
+     * in time. This is normally controlled by a system property.
+     *
+     * @param rememberLastHit  whether to remember the last transition interval found
+     * @return the rules, not null
+     */
+    StandardZoneRules withRememberLastHit(boolean rememberLastHit) {
+        return new StandardZoneRules(this, transitionTable, rememberLastHit);
+    }
+
+    /**
+     * Converts the savings transitions to local epoch seconds.
+     * <p>
+     * Each transition is converted to the start and end of the local gap or overlap,
+     * thus the earlier of the local date-times before and after the transition comes first.
+     *
+     * @param instantTransitions  the transitions (epoch seconds), not null
+     * @param wallOffsets  the wall offsets, one more than the transitions, not null
+     * @return the local epoch seconds, twice the size of the transitions, not null
+     */
+    private static long[] toLocalEpochSeconds(long[] instantTransitions, ZoneOffset[] wallOffsets) {
+        long[] localSeconds = new long[instantTransitions.length * 2];
+        for (int i = 0; i < instantTransitions.length; i++) {
+            int beforeSecs = wallOffsets[i].getTotalSeconds();
+            int afterSecs = wallOffsets[i + 1].getTotalSeconds();
+            localSeconds[i * 2] = instantTransitions[i] + Math.min(beforeSecs, afterSecs);
+            localSeconds[i * 2 + 1] = instantTransitions[i] + Math.max(beforeSecs, afterSecs);
+        }
+        return localSeconds;
+    }
+
+    /**
+     * Finds the first year that can be queried using the last rules.
+     *
+     * @return the year of the last historic transition
+     */
+    private int findFirstCachedYear() {
+        if (lastRules.length == 0 || savingsInstantTransitions.length == 0) {
+            return LAST_CACHED_YEAR;
+        }
+        return findYear(savingsInstantTransitions[savingsInstantTransitions.length - 1], wallOffsets[wallOffsets.length - 1]);
+    }
+
+    /**
+     * Creates the cache of recent transitions.
+     *
+     * @return the cache, sized from the first cached year to the last cached year, not null
+     */
+    private AtomicReferenceArray<ZoneOffsetTransition[]> createLastRulesCache() {
+        return new AtomicReferenceArray<ZoneOffsetTransition[]>(lastRulesCacheSize(firstCachedYear, LAST_CACHED_YEAR));
+    }
+
+    /**
+     * Calculates the size of the cache of recent transitions.
+     * <p>
+     * The size is zero if the range is reversed and at most {@link #MAX_CACHED_YEARS}.
+     * Years beyond the end of the cache are calculated on demand.
+     *
+     * @param firstYear  the first year in the cache, inclusive
+     * @param lastYear  the last year in the cache, exclusive
+     * @return the number of years to cache, from zero to the maximum
+     */
+    static int lastRulesCacheSize(int firstYear, int lastYear) {
+        long size = (long) lastYear - firstYear;
+        return (int) Math.max(Math.min(size, MAX_CACHED_YEARS), 0);
+    }
+
+    /**
+     * Creates the flat table of transitions.
+     *
+     * @param lastYear  the year to expand the last rules to, exclusive
+     * @return the transition table, null if there are no last rules to expand
+     */
+    private TransitionTable createTransitionTable(int lastYear) {
+        if (lastRules.length == 0 || savingsInstantTransitions.length == 0 || firstCachedYear >= lastYear) {
+            return null;
+        }
+        long lastHistoric = savingsInstantTransitions[savingsInstantTransitions.length - 1];
+        List<ZoneOffsetTransition> projected = new ArrayList<ZoneOffsetTransition>();
+        for (int year = firstCachedYear; year < lastYear; year++) {
+            for (ZoneOffsetTransition trans : findTransitionArray(year)) {
+                if (trans.toEpochSecond() > lastHistoric) {
+                    projected.add(trans);
+                }
             }
         }
-        this.savingsLocalTransitions = localTransitionList.toArray(new LocalDateTime[localTransitionList.size()]);
+        int historicSize = savingsInstantTransitions.length;
+        long[] transitions = Arrays.copyOf(savingsInstantTransitions, historicSize + projected.size());
+        ZoneOffset[] offsets = Arrays.copyOf(wallOffsets, transitions.length + 1);
+        for (int i = 0; i < projected.size(); i++) {
+            ZoneOffsetTransition trans = projected.get(i);
+            transitions[historicSize + i] = trans.toEpochSecond();
+            offsets[historicSize + i + 1] = trans.getOffsetAfter();
+        }
+        int[] offsetSeconds = new int[offsets.length];
+        for (int i = 0; i < offsets.length; i++) {
+            offsetSeconds[i] = offsets[i].getTotalSeconds();
+        }
+        long limit = findTransitionArray(lastYear)[0].toEpochSecond();
+        return new TransitionTable(transitions, offsets, offsetSeconds, limit);
+    }
+
+    /**
+     * Reads a flag from a system property.
+     *
+     * @param key  the system property key, not null
+     * @return true if the property is set to true
+     */
+    private static boolean readBooleanProperty(String key) {
+        try {
+            return Boolean.getBoolean(key);
+        } catch (SecurityException ex) {
+            return false;
+        }
+    }
+
+    /**
+     * Reads a year from a system property.
+     *
+     * @param key  the system property key, not null
+     * @param defaultYear  the year to use if the property is not set or is invalid
+     * @param minYear  the minimum valid year, inclusive
+     * @param maxYear  the maximum valid year, inclusive
+     * @return the year, from the minimum to the maximum or the default
+     */
+    static int readYearProperty(String key, int defaultYear, int minYear, int maxYear) {
+        try {
+            int year = Integer.getInteger(key, defaultYear);
+            return (year >= minYear && year <= maxYear ? year : defaultYear);
+        } catch (SecurityException ex) {
+            return defaultYear;
+        }
     }
 
     //-----------------------------------------------------------------------
@@ -268,6 +522,55 @@ final class StandardZoneRules extends ZoneRules implements Serializable {
         return new StandardZoneRules(stdTrans, stdOffsets, savTrans, savOffsets, rules);
     }
 
+    /**
+     * Writes the state to the stream in the compact form used by version 2 of 'TZDB.dat'.
+     * <p>
+     * This differs from {@link #writeExternal} by storing the transitions as deltas.
+     *
+     * @param out  the output stream, not null
+     * @throws IOException if an error occurs
+     */
+    void writeCompact(DataOutput out) throws IOException {
+        Ser.writeEpochSecDeltas(standardTransitions, out);
+        for (ZoneOffset offset : standardOffsets) {
+            Ser.writeOffset(offset, out);
+        }
+        Ser.writeEpochSecDeltas(savingsInstantTransitions, out);
+        for (ZoneOffset offset : wallOffsets) {
+            Ser.writeOffset(offset, out);
+        }
+        out.writeByte(lastRules.length);
+        for (ZoneOffsetTransitionRule rule : lastRules) {
+            rule.writeExternal(out);
+        }
+    }
+
+    /**
+     * Reads the state from the compact form used by version 2 of 'TZDB.dat'.
+     *
+     * @param in  the input stream, not null
+     * @return the created object, not null
+     * @throws IOException if an error occurs
+     */
+    static StandardZoneRules readCompact(DataInput in) throws IOException {
+        long[] stdTrans = Ser.readEpochSecDeltas(in);
+        ZoneOffset[] stdOffsets = new ZoneOffset[stdTrans.length + 1];
+        for (int i = 0; i < stdOffsets.length; i++) {
+            stdOffsets[i] = Ser.readOffset(in);
+        }
+        long[] savTrans = Ser.readEpochSecDeltas(in);
+        ZoneOffset[] savOffsets = new ZoneOffset[savTrans.length + 1];
+        for (int i = 0; i < savOffsets.length; i++) {
+            savOffsets[i] = Ser.readOffset(in);
+        }
+        int ruleSize = in.readByte();
+        ZoneOffsetTransitionRule[] rules = new ZoneOffsetTransitionRule[ruleSize];
+        for (int i = 0; i < ruleSize; i++) {
+            rules[i] = ZoneOffsetTransitionRule.readExternal(in);
+        }
+        return new StandardZoneRules(stdTrans, stdOffsets, savTrans, savOffsets, rules);
+    }
+
     //-----------------------------------------------------------------------
     @Override
     public boolean isFixedOffset() {
@@ -277,7 +580,50 @@ final class StandardZoneRules extends ZoneRules implements Serializable {
     //-----------------------------------------------------------------------
     @Override
     public ZoneOffset getOffset(Instant instant) {
-        long epochSec = instant.getEpochSecond();
+        return findOffset(instant.getEpochSecond());
+    }
+
+    @Override
+    public int getOffsetSeconds(long epochSecond) {
+        TransitionTable table = transitionTable;
+        if (table != null && rememberLastHit == false && epochSecond < table.limit) {
+            int index  = Arrays.binarySearch(table.transitions, epochSecond);
+            if (index < 0) {
+                // switch negative insert position to start of matched range
+                index = -index - 2;
+            }
+            return table.offsetSeconds[index + 1];
+        }
+        return findOffset(epochSecond).getTotalSeconds();
+    }
+
+    /**
+     * Finds the offset applicable at the specified epoch-second.
+     *
+     * @param epochSec  the epoch-second
+     * @return the offset, not null
+     */
+    private ZoneOffset findOffset(long epochSec) {
+        // check if using the last interval found
+        if (rememberLastHit) {
+            OffsetInterval interval = lastHit;
+            if (interval == null || epochSec < interval.start || epochSec >= interval.end) {
+                interval = findOffsetInterval(epochSec);
+                lastHit = interval;
+            }
+            return interval.offset;
+        }
+
+        // check if using the flat table
+        TransitionTable table = transitionTable;
+        if (table != null && epochSec < table.limit) {
+            int index  = Arrays.binarySearch(table.transitions, epochSec);
+            if (index < 0) {
+                // switch negative insert position to start of matched range
+                index = -index - 2;
+            }
+            return table.offsets[index + 1];
+        }
 
         // check if using last rules
         if (lastRules.length > 0 &&
@@ -303,6 +649,77 @@ final class StandardZoneRules extends ZoneRules implements Serializable {
         return wallOffsets[index + 1];
     }
 
+    /**
+     * Finds the interval of constant offset that contains the specified epoch-second.
+     * <p>
+     * This matches {@link #findOffset(long)}, such that the offset found for any
+     * epoch-second within the interval would be the same.
+     *
+     * @param epochSec  the epoch-second
+     * @return the interval, not null
+     */
+    private OffsetInterval findOffsetInterval(long epochSec) {
+        // check if using the flat table
+        TransitionTable table = transitionTable;
+        if (table != null && epochSec < table.limit) {
+            long[] transitions = table.transitions;
+            int index  = Arrays.binarySearch(transitions, epochSec);
+            if (index < 0) {
+                // switch negative insert position to start of matched range
+                index = -index - 2;
+            }
+            long start = (index >= 0 ? transitions[index] : Long.MIN_VALUE);
+            long end = (index + 1 < transitions.length ? transitions[index + 1] : table.limit);
+            return new OffsetInterval(start, end, table.offsets[index + 1]);
+        }
+
+        // check if using last rules
+        if (lastRules.length > 0 &&
+                epochSec > savingsInstantTransitions[savingsInstantTransitions.length - 1]) {
+            ZoneOffset lastHistoricOffset = wallOffsets[wallOffsets.length - 1];
+            int year = findYear(epochSec, lastHistoricOffset);
+            ZoneOffsetTransition[] transArray = findTransitionArray(year);
+            // the interval cannot extend outside the year or back into the historic rules
+            long start = Math.max(findYearStart(year, lastHistoricOffset),
+                    savingsInstantTransitions[savingsInstantTransitions.length - 1] + 1);
+            for (ZoneOffsetTransition trans : transArray) {
+                long transEpochSec = trans.toEpochSecond();
+                if (epochSec < transEpochSec) {
+                    return new OffsetInterval(start, transEpochSec, trans.getOffsetBefore());
+                }
+                start = Math.max(start, transEpochSec);
+            }
+            long end = (year < Year.MAX_VALUE ? findYearStart(year + 1, lastHistoricOffset) : Long.MAX_VALUE);
+            return new OffsetInterval(start, end, transArray[transArray.length - 1].getOffsetAfter());
+        }
+
+        // using historic rules
+        int index  = Arrays.binarySearch(savingsInstantTransitions, epochSec);
+        if (index < 0) {
+            // switch negative insert position to start of matched range
+            index = -index - 2;
+        }
+        long start = (index >= 0 ? savingsInstantTransitions[index] : Long.MIN_VALUE);
+        long end;
+        if (index + 1 < savingsInstantTransitions.length) {
+            end = savingsInstantTransitions[index + 1];
+        } else {
+            end = (lastRules.length > 0 ? savingsInstantTransitions[index] + 1 : Long.MAX_VALUE);
+        }
+        return new OffsetInterval(start, end, wallOffsets[index + 1]);
+    }
+
+    /**
+     * Finds the first epoch-second of the year, as used by {@link #findYear(long, ZoneOffset)}.
+     *
+     * @param year  the year
+     * @param offset  the offset used to find the year, not null
+     * @return the epoch-second
+     */
+    private static long findYearStart(int year, ZoneOffset offset) {
+        return LocalDate.ofYearDay(year, 1).toEpochDay() * 86400 - offset.getTotalSeconds();
+    }
+
     //-----------------------------------------------------------------------
     @Override
     public ZoneOffset getOffset(LocalDateTime localDateTime) {
@@ -313,14 +730,175 @@ final class StandardZoneRules extends ZoneRules implements Serializable {
         return (ZoneOffset) info;
     }
 
+    @Override
+    public int getOffsetSecondsForLocal(long localEpochSecond) {
+        // check if using last rules
+        if (lastRules.length > 0 &&
+                localEpochSecond > savingsLocalEpochSeconds[savingsLocalEpochSeconds.length - 1]) {
+            ZoneOffsetTransition[] transArray = findTransitionArray(findYear(localEpochSecond));
+            int offsetSecs = 0;
+            for (ZoneOffsetTransition trans : transArray) {
+                int beforeSecs = trans.getOffsetBefore().getTotalSeconds();
+                int afterSecs = trans.getOffsetAfter().getTotalSeconds();
+                if (localEpochSecond < trans.toEpochSecond() + Math.max(beforeSecs, afterSecs)) {
+                    // before the transition, or in the gap or overlap
+                    return beforeSecs;
+                }
+                offsetSecs = afterSecs;
+            }
+            return offsetSecs;
+        }
+
+        // using historic rules
+        int index  = Arrays.binarySearch(savingsLocalEpochSeconds, localEpochSecond);
+        if (index == -1) {
+            // before first transition
+            return wallOffsets[0].getTotalSeconds();
+        }
+        if (index < 0) {
+            // switch negative insert position to start of matched range
+            index = -index - 2;
+        } else if (index < savingsLocalEpochSeconds.length - 1 &&
+                savingsLocalEpochSeconds[index] == savingsLocalEpochSeconds[index + 1]) {
+            // handle overlap immediately following gap
+            index++;
+        }
+        if ((index & 1) == 0) {
+            // gap or overlap, use offset before
+            return wallOffsets[index / 2].getTotalSeconds();
+        }
+        // normal (neither gap or overlap)
+        return wallOffsets[index / 2 + 1].getTotalSeconds();
+    }
+
+    //-----------------------------------------------------------------------
+    @Override
+    void convertToLocal(long[] source, long[] destination, int offset, int length, int unitsPerSecond) {
+        // the interval of constant offset used for the previous value, initially empty
+        long start = 0;
+        long end = 0;
+        long offsetUnits = 0;
+        int misses = 0;
+        for (int i = offset; i < offset + length; i++) {
+            long value = source[i];
+            long epochSec = (unitsPerSecond == 1 ? value : Jdk8Methods.floorDiv(value, unitsPerSecond));
+            if (epochSec < start || epochSec >= end) {
+                if (++misses > MAX_BULK_MISSES && misses * 2 > i - offset) {
+                    // values are not clustered in time, so convert each one separately
+                    super.convertToLocal(source, destination, i, offset + length - i, unitsPerSecond);
+                    return;
+                }
+                OffsetInterval interval = findOffsetInterval(epochSec);
+                start = interval.start;
+                end = interval.end;
+                offsetUnits = (long) interval.offset.getTotalSeconds() * unitsPerSecond;
+            }
+            destination[i] = Jdk8Methods.safeAdd(value, offsetUnits);
+        }
+    }
+
+    @Override
+    void convertFromLocal(long[] source, long[] destination, int offset, int length, int unitsPerSecond, TransitionPolicy policy) {
+        // the local interval used for the previous value, initially empty
+        LocalInterval interval = null;
+        int misses = 0;
+        for (int i = offset; i < offset + length; i++) {
+            long value = source[i];
+            long localSec = (unitsPerSecond == 1 ? value : Jdk8Methods.floorDiv(value, unitsPerSecond));
+            if (interval == null || localSec < interval.start || localSec >= interval.end) {
+                if (++misses > MAX_BULK_MISSES && misses * 2 > i - offset) {
+                    // values are not clustered in time, so convert each one separately
+                    super.convertFromLocal(source, destination, i, offset + length - i, unitsPerSecond, policy);
+                    return;
+                }
+                interval = findLocalInterval(localSec);
+            }
+            int offsetSecs = interval.offsetBefore;
+            if (interval.offsetAfter != offsetSecs) {
+                offsetSecs = policy.resolve(localSec, offsetSecs, interval.offsetAfter);
+            }
+            destination[i] = Jdk8Methods.safeSubtract(value, (long) offsetSecs * unitsPerSecond);
+        }
+    }
+
+    /**
+     * Finds the interval of the local time-line that contains the specified local epoch-second.
+     * <p>
+     * The interval either has a single valid offset, or is a gap or overlap.
+     * This matches {@link #getOffsetSecondsForLocal(long)}, such that the offset before
+     * found for any local epoch-second within the interval would be the same.
+     *
+     * @param localSec  the local epoch-second
+     * @return the interval, not null
+     */
+    private LocalInterval findLocalInterval(long localSec) {
+        long[] localTransitions = savingsLocalEpochSeconds;
+        int lastIndex = localTransitions.length - 1;
+
+        // check if using last rules
+        if (lastRules.length > 0 && localSec > localTransitions[lastIndex]) {
+            int year = findYear(localSec);
+            ZoneOffsetTransition[] transArray = findTransitionArray(year);
+            // the interval cannot extend outside the year or back into the historic rules
+            long start = Math.max(findYearStart(year, ZoneOffset.UTC), localTransitions[lastIndex] + 1);
+            int offsetSecs = 0;
+            for (ZoneOffsetTransition trans : transArray) {
+                int beforeSecs = trans.getOffsetBefore().getTotalSeconds();
+                int afterSecs = trans.getOffsetAfter().getTotalSeconds();
+                long transStart = trans.toEpochSecond() + Math.min(beforeSecs, afterSecs);
+                long transEnd = trans.toEpochSecond() + Math.max(beforeSecs, afterSecs);
+                if (localSec < transStart) {
+                    return new LocalInterval(start, transStart, beforeSecs, beforeSecs);
+                }
+                if (localSec < transEnd) {
+                    return new LocalInterval(Math.max(start, transStart), transEnd, beforeSecs, afterSecs);
+                }
+                start = Math.max(start, transEnd);
+                offsetSecs = afterSecs;
+            }
+            long end = (year < Year.MAX_VALUE ? findYearStart(year + 1, ZoneOffset.UTC) : Long.MAX_VALUE);
+            return new LocalInterval(start, end, offsetSecs, offsetSecs);
+        }
+
+        // using historic rules
+        int index  = Arrays.binarySearch(localTransitions, localSec);
+        if (index == -1) {
+            // before first transition
+            int offsetSecs = wallOffsets[0].getTotalSeconds();
+            return new LocalInterval(Long.MIN_VALUE, lastIndex >= 0 ? localTransitions[0] : Long.MAX_VALUE, offsetSecs, offsetSecs);
+        }
+        if (index < 0) {
+            // switch negative insert position to start of matched range
+            index = -index - 2;
+        } else if (index < lastIndex && localTransitions[index] == localTransitions[index + 1]) {
+            // handle overlap immediately following gap
+            index++;
+        }
+        if ((index & 1) == 0) {
+            // gap or overlap
+            return new LocalInterval(localTransitions[index], localTransitions[index + 1],
+                    wallOffsets[index / 2].getTotalSeconds(), wallOffsets[index / 2 + 1].getTotalSeconds());
+        }
+        // normal (neither gap or overlap)
+        long end;
+        if (index < lastIndex) {
+            end = localTransitions[index + 1];
+        } else {
+            end = (lastRules.length > 0 ? localTransitions[index] + 1 : Long.MAX_VALUE);
+        }
+        int offsetSecs = wallOffsets[index / 2 + 1].getTotalSeconds();
+        return new LocalInterval(localTransitions[index], end, offsetSecs, offsetSecs);
+    }
+
     @Override
     public List<ZoneOffset> getValidOffsets(LocalDateTime localDateTime) {
-        // should probably be optimized
         Object info = getOffsetInfo(localDateTime);
         if (info instanceof ZoneOffsetTransition) {
             return ((ZoneOffsetTransition) info).getValidOffsets();
         }
-        return Collections.singletonList((ZoneOffset) info);
+        // the offsets are held by these rules, so the fixed rules and their
+        // singleton list are created at most once for each offset instance
+        return ((ZoneOffset) info).getRules().getValidOffsets(localDateTime);
     }
 
     @Override
@@ -330,9 +908,12 @@ final class StandardZoneRules extends ZoneRules implements Serializable {
     }
 
     private Object getOffsetInfo(LocalDateTime dt) {
+        // transitions are on whole seconds, thus any fraction of a second can be ignored
+        long localEpochSecond = dt.toEpochSecond(ZoneOffset.UTC);
+
         // check if using last rules
         if (lastRules.length > 0 &&
-                dt.isAfter(savingsLocalTransitions[savingsLocalTransitions.length - 1])) {
+                localEpochSecond > savingsLocalEpochSeconds[savingsLocalEpochSeconds.length - 1]) {
             ZoneOffsetTransition[] transArray = findTransitionArray(dt.getYear());
             Object info = null;
             for (ZoneOffsetTransition trans : transArray) {
@@ -345,7 +926,7 @@ final class StandardZoneRules extends ZoneRules implements Serializable {
         }
 
         // using historic rules
-        int index  = Arrays.binarySearch(savingsLocalTransitions, dt);
+        int index  = Arrays.binarySearch(savingsLocalEpochSeconds, localEpochSecond);
         if (index == -1) {
             // before first transition
             return wallOffsets[0];
@@ -353,24 +934,14 @@ final class StandardZoneRules extends ZoneRules implements Serializable {
         if (index < 0) {
             // switch negative insert position to start of matched range
             index = -index - 2;
-        } else if (index < savingsLocalTransitions.length - 1 &&
-                savingsLocalTransitions[index].equals(savingsLocalTransitions[index + 1])) {
+        } else if (index < savingsLocalEpochSeconds.length - 1 &&
+                savingsLocalEpochSeconds[index] == savingsLocalEpochSeconds[index + 1]) {
             // handle overlap immediately following gap
             index++;
         }
         if ((index & 1) == 0) {
             // gap or overlap
-            LocalDateTime dtBefore = savingsLocalTransitions[index];
-            LocalDateTime dtAfter = savingsLocalTransitions[index + 1];
-            ZoneOffset offsetBefore = wallOffsets[index / 2];
-            ZoneOffset offsetAfter = wallOffsets[index / 2 + 1];
-            if (offsetAfter.getTotalSeconds() > offsetBefore.getTotalSeconds()) {
-                // gap
-                return new ZoneOffsetTransition(dtBefore, offsetBefore, offsetAfter);
-            } else {
-                // overlap
-                return new ZoneOffsetTransition(dtAfter, offsetBefore, offsetAfter);
-            }
+            return findSavingsTransition(index / 2);
         } else {
             // normal (neither gap or overlap)
             return wallOffsets[index / 2 + 1];
@@ -409,7 +980,32 @@ final class StandardZoneRules extends ZoneRules implements Serializable {
 
     @Override
     public boolean isValidOffset(LocalDateTime localDateTime, ZoneOffset offset) {
-        return getValidOffsets(localDateTime).contains(offset);
+        Object info = getOffsetInfo(localDateTime);
+        if (info instanceof ZoneOffsetTransition) {
+            return ((ZoneOffsetTransition) info).isValidOffset(offset);
+        }
+        return info.equals(offset);
+    }
+
+    //-----------------------------------------------------------------------
+    /**
+     * Finds the historic transition at the specified index.
+     * <p>
+     * The transitions are created on first use and then interned.
+     *
+     * @param index  the index of the transition
+     * @return the transition, not null
+     */
+    private ZoneOffsetTransition findSavingsTransition(int index) {
+        ZoneOffsetTransition trans = savingsTransitions.get(index);
+        if (trans != null) {
+            return trans;
+        }
+        trans = new ZoneOffsetTransition(savingsInstantTransitions[index], wallOffsets[index], wallOffsets[index + 1]);
+        if (savingsTransitions.compareAndSet(index, null, trans) == false) {
+            return savingsTransitions.get(index);
+        }
+        return trans;
     }
 
     //-----------------------------------------------------------------------
@@ -420,19 +1016,33 @@ final class StandardZoneRules extends ZoneRules implements Serializable {
      * @return the transition array, not null
      */
     private ZoneOffsetTransition[] findTransitionArray(int year) {
-        Integer yearObj = year;  // should use Year class, but this saves a class load
-        ZoneOffsetTransition[] transArray = lastRulesCache.get(yearObj);
+        int index = year - firstCachedYear;
+        if (index < 0 || index >= lastRulesCache.length()) {
+            return createTransitionArray(year);
+        }
+        ZoneOffsetTransition[] transArray = lastRulesCache.get(index);
         if (transArray != null) {
             return transArray;
         }
+        transArray = createTransitionArray(year);
+        if (lastRulesCache.compareAndSet(index, null, transArray) == false) {
+            return lastRulesCache.get(index);
+        }
+        return transArray;
+    }
+
+    /**
+     * Creates the transition array for the given year from the last rules.
+     *
+     * @param year  the year
+     * @return the transition array, not null
+     */
+    private ZoneOffsetTransition[] createTransitionArray(int year) {
         ZoneOffsetTransitionRule[] ruleArray = lastRules;
-        transArray  = new ZoneOffsetTransition[ruleArray.length];
+        ZoneOffsetTransition[] transArray  = new ZoneOffsetTransition[ruleArray.length];
         for (int i = 0; i < ruleArray.length; i++) {
             transArray[i] = ruleArray[i].createTransition(year);
         }
-        if (year < LAST_CACHED_YEAR) {
-            lastRulesCache.putIfAbsent(yearObj, transArray);
-        }
         return transArray;
     }
 
@@ -493,7 +1103,7 @@ final class StandardZoneRules extends ZoneRules implements Serializable {
         } else {
             index += 1;  // exact match, so need to add one to get the next
         }
-        return new ZoneOffsetTransition(savingsInstantTransitions[index], wallOffsets[index], wallOffsets[index + 1]);
+        return findSavingsTransition(index);
     }
 
     @Override
@@ -532,14 +1142,156 @@ final class StandardZoneRules extends ZoneRules implements Serializable {
         if (index <= 0) {
             return null;
         }
-        return new ZoneOffsetTransition(savingsInstantTransitions[index - 1], wallOffsets[index - 1], wallOffsets[index]);
+        return findSavingsTransition(index - 1);
+    }
+
+    @Override
+    public Iterator<ZoneOffsetTransition> transitionsBetween(Instant startInclusive, Instant endExclusive) {
+        Jdk8Methods.requireNonNull(startInclusive, "startInclusive");
+        Jdk8Methods.requireNonNull(endExclusive, "endExclusive");
+        return new TransitionCursor(toStartSecond(startInclusive), toEndSecond(endExclusive));
     }
 
     private int findYear(long epochSecond, ZoneOffset offset) {
-        // inline for performance
-        long localSecond = epochSecond + offset.getTotalSeconds();
-        long localEpochDay = Jdk8Methods.floorDiv(localSecond, 86400);
-        return LocalDate.ofEpochDay(localEpochDay).getYear();
+        return findYear(epochSecond + offset.getTotalSeconds());
+    }
+
+    /**
+     * Finds the year of a local epoch-second.
+     * <p>
+     * This is the same algorithm as {@link LocalDate#ofEpochDay(long)},
+     * inlined to avoid creating the date.
+     *
+     * @param localSecond  the local epoch-second
+     * @return the year
+     */
+    private static int findYear(long localSecond) {
+        long zeroDay = Jdk8Methods.floorDiv(localSecond, 86400) + DAYS_0000_TO_1970;
+        // find the march-based year
+        zeroDay -= 60;  // adjust to 0000-03-01 so leap day is at end of four year cycle
+        long adjust = 0;
+        if (zeroDay < 0) {
+            // adjust negative years to positive for calculation
+            long adjustCycles = (zeroDay + 1) / DAYS_PER_CYCLE - 1;
+            adjust = adjustCycles * 400;
+            zeroDay += -adjustCycles * DAYS_PER_CYCLE;
+        }
+        long yearEst = (400 * zeroDay + 591) / DAYS_PER_CYCLE;
+        long doyEst = zeroDay - (365 * yearEst + yearEst / 4 - yearEst / 100 + yearEst / 400);
+        if (doyEst < 0) {
+            // fix estimate
+            yearEst--;
+            doyEst = zeroDay - (365 * yearEst + yearEst / 4 - yearEst / 100 + yearEst / 400);
+        }
+        yearEst += adjust;  // reset any negative year
+        int marchMonth0 = ((int) doyEst * 5 + 2) / 153;
+        yearEst += marchMonth0 / 10;
+        return YEAR.checkValidIntValue(yearEst);
+    }
+
+    //-------------------------------------------------------------------------
+    /**
+     * Iterator over a range of transitions.
+     * <p>
+     * This holds a cursor into the historic transitions, continuing into the
+     * transitions generated by the last rules year by year.
+     */
+    private final class TransitionCursor implements Iterator<ZoneOffsetTransition> {
+        /**
+         * The first epoch-second in the range.
+         */
+        private final long start;
+        /**
+         * The epoch-second after the range.
+         */
+        private final long end;
+        /**
+         * The index of the next historic transition.
+         */
+        private int index;
+        /**
+         * The year of the generated transitions.
+         */
+        private int year;
+        /**
+         * The generated transitions of the year, null until the historic transitions are used up.
+         */
+        private ZoneOffsetTransition[] transArray;
+        /**
+         * The index of the next generated transition within the year.
+         */
+        private int yearIndex;
+        /**
+         * The next transition, null if none.
+         */
+        private ZoneOffsetTransition next;
+
+        TransitionCursor(long start, long end) {
+            this.start = start;
+            this.end = end;
+            if (start < end) {
+                int index = Arrays.binarySearch(savingsInstantTransitions, start);
+                this.index = (index < 0 ? -index - 1 : index);
+                next = findNext();
+            }
+        }
+
+        private ZoneOffsetTransition findNext() {
+            long[] transitions = savingsInstantTransitions;
+            if (index < transitions.length) {
+                return (transitions[index] < end ? findSavingsTransition(index++) : null);
+            }
+            if (lastRules.length == 0) {
+                return null;
+            }
+            if (transArray == null) {
+                // generated transitions continue after the last historic one
+                long searchSec = start;
+                if (transitions.length > 0) {
+                    searchSec = Math.max(searchSec, transitions[transitions.length - 1] + 1);
+                }
+                year = findYear(searchSec, wallOffsets[wallOffsets.length - 1]);
+                transArray = findTransitionArray(year);
+                ZoneOffsetTransition trans = findNextGenerated();
+                while (trans != null && trans.toEpochSecond() < searchSec) {
+                    trans = findNextGenerated();
+                }
+                return (trans != null && trans.toEpochSecond() < end ? trans : null);
+            }
+            ZoneOffsetTransition trans = findNextGenerated();
+            return (trans != null && trans.toEpochSecond() < end ? trans : null);
+        }
+
+        private ZoneOffsetTransition findNextGenerated() {
+            while (yearIndex == transArray.length) {
+                if (year == Year.MAX_VALUE) {
+                    return null;
+                }
+                transArray = findTransitionArray(++year);
+                yearIndex = 0;
+            }
+            return transArray[yearIndex++];
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public ZoneOffsetTransition next() {
+            ZoneOffsetTransition trans = next;
+            if (trans == null) {
+                throw new NoSuchElementException();
+            }
+            next = findNext();
+            return trans;
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
     }
 
     //-------------------------------------------------------------------------
@@ -547,7 +1299,7 @@ final class StandardZoneRules extends ZoneRules implements Serializable {
     public List<ZoneOffsetTransition> getTransitions() {
         List<ZoneOffsetTransition> list = new ArrayList<ZoneOffsetTransition>();
         for (int i = 0; i < savingsInstantTransitions.length; i++) {
-            list.add(new ZoneOffsetTransition(savingsInstantTransitions[i], wallOffsets[i], wallOffsets[i + 1]));
+            list.add(findSavingsTransition(i));
         }
         return Collections.unmodifiableList(list);
     }
@@ -597,4 +1349,112 @@ final class StandardZoneRules extends ZoneRules implements Serializable {
         return "StandardZoneRules[currentStandardOffset=" + standardOffsets[standardOffsets.length - 1] + "]";
     }
 
+    //-----------------------------------------------------------------------
+    /**
+     * The flat table of historic transitions followed by those generated from the last rules.
+     */
+    private static final class TransitionTable {
+        /**
+         * The transitions (epoch seconds), sorted.
+         */
+        private final long[] transitions;
+        /**
+         * The wall offsets, one more than the number of transitions.
+         */
+        private final ZoneOffset[] offsets;
+        /**
+         * The wall offsets in seconds, parallel to the offsets.
+         */
+        private final int[] offsetSeconds;
+        /**
+         * The epoch second that the table is valid until, exclusive.
+         */
+        private final long limit;
+
+        /**
+         * Constructor.
+         *
+         * @param transitions  the transitions, not null
+         * @param offsets  the wall offsets, not null
+         * @param offsetSeconds  the wall offsets in seconds, not null
+         * @param limit  the epoch second that the table is valid until, exclusive
+         */
+        TransitionTable(long[] transitions, ZoneOffset[] offsets, int[] offsetSeconds, long limit) {
+            this.transitions = transitions;
+            this.offsets = offsets;
+            this.offsetSeconds = offsetSeconds;
+            this.limit = limit;
+        }
+    }
+
+    //-----------------------------------------------------------------------
+    /**
+     * An interval of the time-line with a single offset.
+     */
+    private static final class OffsetInterval {
+        /**
+         * The first epoch-second of the interval, inclusive.
+         */
+        private final long start;
+        /**
+         * The last epoch-second of the interval, exclusive.
+         */
+        private final long end;
+        /**
+         * The offset applicable throughout the interval.
+         */
+        private final ZoneOffset offset;
+
+        /**
+         * Constructor.
+         *
+         * @param start  the first epoch-second of the interval, inclusive
+         * @param end  the last epoch-second of the interval, exclusive
+         * @param offset  the offset, not null
+         */
+        OffsetInterval(long start, long end, ZoneOffset offset) {
+            this.start = start;
+            this.end = end;
+            this.offset = offset;
+        }
+    }
+
+    //-----------------------------------------------------------------------
+    /**
+     * An interval of the local time-line with a single offset, or a gap or overlap.
+     */
+    private static final class LocalInterval {
+        /**
+         * The first local epoch-second of the interval, inclusive.
+         */
+        private final long start;
+        /**
+         * The last local epoch-second of the interval, exclusive.
+         */
+        private final long end;
+        /**
+         * The offset in seconds before the transition, or the single offset if not a gap or overlap.
+         */
+        private final int offsetBefore;
+        /**
+         * The offset in seconds after the transition, or the single offset if not a gap or overlap.
+         */
+        private final int offsetAfter;
+
+        /**
+         * Constructor.
+         *
+         * @param start  the first local epoch-second of the interval, inclusive
+         * @param end  the last local epoch-second of the interval, exclusive
+         * @param offsetBefore  the offset in seconds before the transition
+         * @param offsetAfter  the offset in seconds after the transition
+         */
+        LocalInterval(long start, long end, int offsetBefore, int offsetAfter) {
+            this.start = start;
+            this.end = end;
+            this.offsetBefore = offsetBefore;
+            this.offsetAfter = offsetAfter;
+        }
+    }
+
 }
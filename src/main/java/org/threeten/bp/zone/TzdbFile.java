@@ -0,0 +1,587 @@
+/*
+ * Copyright (c) 2007-present, Stephen Colebourne & Michael Nascimento Santos
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *  * Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ *  * Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ *  * Neither the name of JSR-310 nor the names of its contributors
+ *    may be used to endorse or promote products derived from this software
+ *    without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.threeten.bp.zone;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StreamCorruptedException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * The contents of a 'TZDB.dat' file, indexed so that any rules can be decoded on demand.
+ * <p>
+ * Two formats are read.
+ * Format 1 stores the version IDs, region IDs and rules one after another,
+ * thus the whole file has to be scanned to find the position of each rule.
+ * Format 2 starts with a fixed-width index, allowing the rules for a region to be located
+ * directly, and stores the transitions as deltas, see {@link StandardZoneRules#writeCompact}.
+ * All values are big-endian as per {@code DataOutput}:
+ * <pre>
+ *  byte     2                    the format
+ *  UTF      "TZDB"               the group
+ *  short    versionCount
+ *  short    regionCount
+ *  short    ruleCount
+ *  int      stringPoolLength
+ *  int      ruleDataLength
+ *  int[versionCount]             version ID offsets into the string pool
+ *  int[regionCount]              region ID offsets into the string pool, sorted by ID
+ *  int[ruleCount]                rule offsets into the rule data
+ *  short[versionCount * regionCount]  rule index by version then region, -1 if absent
+ *  byte[stringPoolLength]        the string pool, each string in {@code writeUTF} form
+ *  byte[ruleDataLength]          the rule data
+ * </pre>
+ *
+ * <h3>Specification for implementors</h3>
+ * This class is thread-safe.
+ * The buffer is never modified, only duplicated, and decoded rules are published atomically.
+ */
+final class TzdbFile {
+
+    /**
+     * The original, sequential, format.
+     */
+    static final int FORMAT_1 = 1;
+    /**
+     * The indexed format.
+     */
+    static final int FORMAT_2 = 2;
+
+    /**
+     * The buffer holding the whole file.
+     */
+    private final ByteBuffer buffer;
+    /**
+     * The format of the file.
+     */
+    private final int format;
+    /**
+     * The version IDs, in file order.
+     */
+    private final String[] versionIds;
+    /**
+     * The region IDs, sorted.
+     */
+    private final String[] regionIds;
+    /**
+     * The rule index by version then region, -1 if the version does not have the region,
+     * null if read from the index in the buffer.
+     */
+    private final short[] ruleIndices;
+    /**
+     * The position in the buffer of the data of each rule, null if read from the index in the buffer.
+     */
+    private final int[] rulePositions;
+    /**
+     * The position in the buffer of the rule index table, format 2 only.
+     */
+    private final int ruleIndexTable;
+    /**
+     * The position in the buffer of the rule offset table, format 2 only.
+     */
+    private final int ruleOffsetTable;
+    /**
+     * The position in the buffer of the rule data, format 2 only.
+     */
+    private final int ruleDataStart;
+    /**
+     * The rules that have been decoded, by rule index.
+     */
+    private final AtomicReferenceArray<ZoneRules> ruleData;
+
+    /**
+     * Reads the index of a file.
+     * <p>
+     * Only the IDs and the position of each rule are read, the rules themselves
+     * are decoded when first requested.
+     *
+     * @param buffer  the buffer holding the whole file, positioned at zero, not null
+     * @return the file, not null
+     * @throws IOException if the file is invalid
+     */
+    static TzdbFile load(ByteBuffer buffer) throws IOException {
+        try {
+            ByteBuffer index = buffer.duplicate();
+            DataInputStream dis = new DataInputStream(new ByteBufferInputStream(index));
+            int format = dis.readByte();
+            if (format != FORMAT_1 && format != FORMAT_2) {
+                throw new StreamCorruptedException("File format not recognised");
+            }
+            // group
+            String groupId = dis.readUTF();
+            if ("TZDB".equals(groupId) == false) {
+                throw new StreamCorruptedException("File format not recognised");
+            }
+            return (format == FORMAT_1 ? loadFormat1(buffer, index, dis) : loadFormat2(buffer, index, dis));
+        } catch (BufferUnderflowException ex) {
+            throw new StreamCorruptedException("Unexpected end of file");
+        } catch (IllegalArgumentException ex) {
+            throw new StreamCorruptedException("Invalid position in file");
+        }
+    }
+
+    /**
+     * Reads the whole of a stream into a buffer.
+     * <p>
+     * When the length is known the buffer is allocated once at that size,
+     * thus the data is not copied through a growing intermediate array.
+     * The stream is not closed.
+     *
+     * @param in  the stream to read, not null
+     * @param length  the expected length in bytes, negative if unknown
+     * @param direct  whether to allocate a direct buffer
+     * @return the buffer, positioned at zero with the limit at the end of the data, not null
+     * @throws IOException if an error occurs
+     */
+    static ByteBuffer readFully(InputStream in, long length, boolean direct) throws IOException {
+        int capacity = (length >= 0 && length < Integer.MAX_VALUE ? (int) length : 128 * 1024);
+        ByteBuffer buf = allocate(capacity, direct);
+        ReadableByteChannel channel = Channels.newChannel(in);
+        while (true) {
+            if (buf.hasRemaining()) {
+                if (channel.read(buf) < 0) {
+                    break;
+                }
+            } else {
+                // full, so only grow if the stream has more data
+                int next = in.read();
+                if (next < 0) {
+                    break;
+                }
+                if (buf.capacity() > Integer.MAX_VALUE / 2) {
+                    throw new IOException("File too large");
+                }
+                ByteBuffer larger = allocate(Math.max(buf.capacity() * 2, 8192), direct);
+                buf.flip();
+                larger.put(buf);
+                larger.put((byte) next);
+                buf = larger;
+            }
+        }
+        buf.flip();
+        return buf;
+    }
+
+    private static ByteBuffer allocate(int capacity, boolean direct) {
+        return (direct ? ByteBuffer.allocateDirect(capacity) : ByteBuffer.allocate(capacity));
+    }
+
+    private static TzdbFile loadFormat1(ByteBuffer buffer, ByteBuffer index, DataInputStream dis) throws IOException {
+        // versions
+        int versionCount = dis.readShort();
+        String[] versionArray = new String[versionCount];
+        for (int i = 0; i < versionCount; i++) {
+            versionArray[i] = dis.readUTF();
+        }
+        // regions
+        int regionCount = dis.readShort();
+        String[] regionArray = new String[regionCount];
+        for (int i = 0; i < regionCount; i++) {
+            regionArray[i] = dis.readUTF();
+        }
+        // rules, only the position is recorded
+        int ruleCount = dis.readShort();
+        int[] rulePositions = new int[ruleCount];
+        for (int i = 0; i < ruleCount; i++) {
+            int length = dis.readShort();
+            rulePositions[i] = index.position();
+            if (dis.skipBytes(length) != length) {
+                throw new StreamCorruptedException("Unexpected end of file");
+            }
+        }
+        // link version-region-rules
+        short[] ruleIndices = new short[versionCount * regionCount];
+        Arrays.fill(ruleIndices, (short) -1);
+        for (int i = 0; i < versionCount; i++) {
+            int versionRegionCount = dis.readShort();
+            for (int j = 0; j < versionRegionCount; j++) {
+                int regionIndex = checkIndex(dis.readShort(), regionCount);
+                int ruleIndex = checkIndex(dis.readShort(), ruleCount);
+                ruleIndices[i * regionCount + regionIndex] = (short) ruleIndex;
+            }
+        }
+        return new TzdbFile(buffer, FORMAT_1, versionArray, regionArray, ruleIndices, rulePositions, 0, 0, 0);
+    }
+
+    private static TzdbFile loadFormat2(ByteBuffer buffer, ByteBuffer index, DataInputStream dis) throws IOException {
+        int versionCount = dis.readShort();
+        int regionCount = dis.readShort();
+        int ruleCount = dis.readShort();
+        int stringPoolLength = dis.readInt();
+        int ruleDataLength = dis.readInt();
+        if (versionCount < 0 || regionCount < 0 || ruleCount < 0 || stringPoolLength < 0 || ruleDataLength < 0) {
+            throw new StreamCorruptedException("Invalid index in file");
+        }
+        // the tables are read directly from the buffer when needed
+        int versionTable = index.position();
+        int regionTable = versionTable + versionCount * 4;
+        int ruleOffsetTable = regionTable + regionCount * 4;
+        int ruleIndexTable = ruleOffsetTable + ruleCount * 4;
+        int stringPool = ruleIndexTable + versionCount * regionCount * 2;
+        int ruleDataStart = stringPool + stringPoolLength;
+        if ((long) ruleDataStart + ruleDataLength != buffer.limit()) {
+            throw new StreamCorruptedException("Invalid file length");
+        }
+        String[] versionArray = readStrings(buffer, versionTable, versionCount, stringPool, stringPoolLength);
+        String[] regionArray = readStrings(buffer, regionTable, regionCount, stringPool, stringPoolLength);
+        return new TzdbFile(buffer, FORMAT_2, versionArray, regionArray, null, null, ruleIndexTable, ruleOffsetTable, ruleDataStart);
+    }
+
+    private static String[] readStrings(ByteBuffer buffer, int table, int count, int stringPool, int stringPoolLength) throws IOException {
+        String[] strings = new String[count];
+        for (int i = 0; i < count; i++) {
+            strings[i] = readString(buffer, stringPool + checkIndex(buffer.getInt(table + i * 4), stringPoolLength));
+        }
+        return strings;
+    }
+
+    /**
+     * Reads a string in {@code writeUTF} form at a position in the buffer.
+     * <p>
+     * IDs are almost always ASCII, which is decoded directly as it is much
+     * faster than going through a stream while the JVM is starting up.
+     */
+    private static String readString(ByteBuffer buffer, int position) throws IOException {
+        int length = buffer.getShort(position) & 0xFFFF;
+        char[] chars = new char[length];
+        for (int i = 0; i < length; i++) {
+            byte b = buffer.get(position + 2 + i);
+            if (b <= 0) {
+                ByteBuffer buf = buffer.duplicate();
+                buf.position(position);
+                return new DataInputStream(new ByteBufferInputStream(buf)).readUTF();
+            }
+            chars[i] = (char) b;
+        }
+        return new String(chars);
+    }
+
+    private static int checkIndex(int index, int size) throws StreamCorruptedException {
+        if (index < 0 || index >= size) {
+            throw new StreamCorruptedException("Invalid index in file: " + index);
+        }
+        return index;
+    }
+
+    /**
+     * Constructor.
+     */
+    private TzdbFile(ByteBuffer buffer, int format, String[] versionIds, String[] regionIds,
+            short[] ruleIndices, int[] rulePositions, int ruleIndexTable, int ruleOffsetTable, int ruleDataStart) {
+        this.buffer = buffer;
+        this.format = format;
+        this.versionIds = versionIds;
+        this.regionIds = regionIds;
+        this.ruleIndices = ruleIndices;
+        this.rulePositions = rulePositions;
+        this.ruleIndexTable = ruleIndexTable;
+        this.ruleOffsetTable = ruleOffsetTable;
+        this.ruleDataStart = ruleDataStart;
+        int ruleCount = (rulePositions != null ? rulePositions.length : (ruleIndexTable - ruleOffsetTable) / 4);
+        this.ruleData = new AtomicReferenceArray<ZoneRules>(ruleCount);
+    }
+
+    //-----------------------------------------------------------------------
+    /**
+     * Gets the format of the file.
+     *
+     * @return the format, 1 or 2
+     */
+    int getFormat() {
+        return format;
+    }
+
+    /**
+     * Gets the version IDs, which must not be modified.
+     *
+     * @return the version IDs in file order, not null
+     */
+    String[] getVersionIds() {
+        return versionIds;
+    }
+
+    /**
+     * Gets the region IDs, which must not be modified.
+     *
+     * @return the sorted region IDs, not null
+     */
+    String[] getRegionIds() {
+        return regionIds;
+    }
+
+    /**
+     * Checks if a version has rules for a region, without decoding them.
+     *
+     * @param versionIndex  the index of the version
+     * @param regionId  the region ID, not null
+     * @return true if the version has the region
+     */
+    boolean hasRules(int versionIndex, String regionId) {
+        return findRuleIndex(versionIndex, regionId) != -1;
+    }
+
+    /**
+     * Gets the rules for a region in a version, decoding them if necessary.
+     *
+     * @param versionIndex  the index of the version
+     * @param regionId  the region ID, not null
+     * @return the rules, null if the version does not have the region
+     * @throws ZoneRulesException if the rules cannot be decoded
+     */
+    ZoneRules getRules(int versionIndex, String regionId) {
+        int ruleIndex = findRuleIndex(versionIndex, regionId);
+        if (ruleIndex == -1) {
+            return null;
+        }
+        try {
+            return getRules(ruleIndex);
+        } catch (Exception ex) {
+            throw new ZoneRulesException("Invalid binary time-zone data: TZDB:" + regionId + ", version: " + versionIds[versionIndex], ex);
+        }
+    }
+
+    /**
+     * Finds the index of the rules for a region in a version.
+     *
+     * @param versionIndex  the index of the version
+     * @param regionId  the region ID, not null
+     * @return the index of the rules, -1 if the version does not have the region
+     */
+    private int findRuleIndex(int versionIndex, String regionId) {
+        int regionIndex = Arrays.binarySearch(regionIds, regionId);
+        if (regionIndex < 0) {
+            return -1;
+        }
+        int tableIndex = versionIndex * regionIds.length + regionIndex;
+        return (ruleIndices != null ? ruleIndices[tableIndex] : buffer.getShort(ruleIndexTable + tableIndex * 2));
+    }
+
+    /**
+     * Gets the rules at the specified index, decoding them if necessary.
+     * <p>
+     * Decoded rules are interned, thus equal rules from another file are the same instance.
+     *
+     * @param ruleIndex  the index of the rules
+     * @return the rules, not null
+     * @throws Exception if the rules cannot be decoded
+     */
+    ZoneRules getRules(int ruleIndex) throws Exception {
+        ZoneRules rules = ruleData.get(checkIndex(ruleIndex, ruleData.length()));
+        if (rules == null) {
+            ByteBuffer buf = buffer.duplicate();
+            buf.position(rulePositions != null ? rulePositions[ruleIndex] : ruleDataStart + buffer.getInt(ruleOffsetTable + ruleIndex * 4));
+            DataInputStream dis = new DataInputStream(new ByteBufferInputStream(buf));
+            rules = (format == FORMAT_1 ? (ZoneRules) Ser.read(dis) : StandardZoneRules.readCompact(dis));
+            rules = ZoneRulesInterner.intern(rules);
+            if (ruleData.compareAndSet(ruleIndex, null, rules) == false) {
+                rules = ruleData.get(ruleIndex);
+            }
+        }
+        return rules;
+    }
+
+    /**
+     * Gets the number of rules in the file.
+     *
+     * @return the number of rules
+     */
+    int getRuleCount() {
+        return ruleData.length();
+    }
+
+    //-----------------------------------------------------------------------
+    /**
+     * Writes a file in format 1.
+     *
+     * @param out  the output to write to, not null
+     * @param versionIds  the version IDs, not null
+     * @param regionIds  the sorted region IDs, not null
+     * @param rules  the rules, not null
+     * @param ruleIndices  the rule index by version then region, -1 if absent, not null
+     * @throws IOException if an error occurs
+     */
+    static void writeFormat1(DataOutput out, String[] versionIds, String[] regionIds,
+            ZoneRules[] rules, short[] ruleIndices) throws IOException {
+        // file version
+        out.writeByte(FORMAT_1);
+        // group
+        out.writeUTF("TZDB");
+        // versions
+        out.writeShort(versionIds.length);
+        for (String version : versionIds) {
+            out.writeUTF(version);
+        }
+        // regions
+        out.writeShort(regionIds.length);
+        for (String regionId : regionIds) {
+            out.writeUTF(regionId);
+        }
+        // rules
+        out.writeShort(rules.length);
+        ByteArrayOutputStream baos = new ByteArrayOutputStream(1024);
+        for (ZoneRules rule : rules) {
+            baos.reset();
+            DataOutputStream dataos = new DataOutputStream(baos);
+            Ser.write(rule, dataos);
+            dataos.close();
+            byte[] bytes = baos.toByteArray();
+            out.writeShort(bytes.length);
+            out.write(bytes);
+        }
+        // link version-region-rules
+        for (int i = 0; i < versionIds.length; i++) {
+            int count = 0;
+            for (int j = 0; j < regionIds.length; j++) {
+                if (ruleIndices[i * regionIds.length + j] != -1) {
+                    count++;
+                }
+            }
+            out.writeShort(count);
+            for (int j = 0; j < regionIds.length; j++) {
+                int ruleIndex = ruleIndices[i * regionIds.length + j];
+                if (ruleIndex != -1) {
+                    out.writeShort(j);
+                    out.writeShort(ruleIndex);
+                }
+            }
+        }
+    }
+
+    /**
+     * Writes a file in format 2.
+     *
+     * @param out  the output to write to, not null
+     * @param versionIds  the version IDs, not null
+     * @param regionIds  the sorted region IDs, not null
+     * @param rules  the rules, not null
+     * @param ruleIndices  the rule index by version then region, -1 if absent, not null
+     * @throws IOException if an error occurs
+     */
+    static void writeFormat2(DataOutput out, String[] versionIds, String[] regionIds,
+            ZoneRules[] rules, short[] ruleIndices) throws IOException {
+        ByteArrayOutputStream pool = new ByteArrayOutputStream(16 * 1024);
+        DataOutputStream poolOut = new DataOutputStream(pool);
+        int[] versionOffsets = new int[versionIds.length];
+        for (int i = 0; i < versionIds.length; i++) {
+            versionOffsets[i] = poolOut.size();
+            poolOut.writeUTF(versionIds[i]);
+        }
+        int[] regionOffsets = new int[regionIds.length];
+        for (int i = 0; i < regionIds.length; i++) {
+            regionOffsets[i] = poolOut.size();
+            poolOut.writeUTF(regionIds[i]);
+        }
+        ByteArrayOutputStream data = new ByteArrayOutputStream(64 * 1024);
+        DataOutputStream dataOut = new DataOutputStream(data);
+        int[] ruleOffsets = new int[rules.length];
+        for (int i = 0; i < rules.length; i++) {
+            ruleOffsets[i] = dataOut.size();
+            ((StandardZoneRules) rules[i]).writeCompact(dataOut);
+        }
+        // header
+        out.writeByte(FORMAT_2);
+        out.writeUTF("TZDB");
+        out.writeShort(versionIds.length);
+        out.writeShort(regionIds.length);
+        out.writeShort(rules.length);
+        out.writeInt(pool.size());
+        out.writeInt(data.size());
+        // index
+        for (int offset : versionOffsets) {
+            out.writeInt(offset);
+        }
+        for (int offset : regionOffsets) {
+            out.writeInt(offset);
+        }
+        for (int offset : ruleOffsets) {
+            out.writeInt(offset);
+        }
+        for (short ruleIndex : ruleIndices) {
+            out.writeShort(ruleIndex);
+        }
+        // content
+        out.write(pool.toByteArray());
+        out.write(data.toByteArray());
+    }
+
+    //-----------------------------------------------------------------------
+    /**
+     * An input stream reading from a buffer, advancing its position.
+     */
+    static final class ByteBufferInputStream extends InputStream {
+        private final ByteBuffer buffer;
+
+        ByteBufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] bytes, int off, int len) {
+            if (len == 0) {
+                return 0;
+            }
+            if (buffer.hasRemaining() == false) {
+                return -1;
+            }
+            len = Math.min(len, buffer.remaining());
+            buffer.get(bytes, off, len);
+            return len;
+        }
+
+        @Override
+        public long skip(long n) {
+            int skipped = (int) Math.max(Math.min(n, buffer.remaining()), 0);
+            buffer.position(buffer.position() + skipped);
+            return skipped;
+        }
+
+        @Override
+        public int available() {
+            return buffer.remaining();
+        }
+    }
+
+}
@@ -36,7 +36,6 @@ import static org.threeten.bp.temporal.ChronoField.MINUTE_OF_HOUR;
 import static org.threeten.bp.temporal.ChronoField.SECOND_OF_MINUTE;
 
 import java.io.BufferedReader;
-import java.io.ByteArrayOutputStream;
 import java.io.DataOutputStream;
 import java.io.File;
 import java.io.FileOutputStream;
@@ -55,6 +54,13 @@ import java.util.SortedMap;
 import java.util.StringTokenizer;
 import java.util.TreeMap;
 import java.util.TreeSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
 import java.util.jar.JarOutputStream;
 import java.util.zip.ZipEntry;
 
@@ -112,6 +118,8 @@ final class TzdbZoneRulesCompiler {
         File baseSrcDir = null;
         File dstDir = null;
         boolean unpacked = false;
+        int format = 0;
+        int threads = 0;
         boolean verbose = false;
 
         // parse options
@@ -136,6 +144,22 @@ final class TzdbZoneRulesCompiler {
                     version = args[i];
                     continue;
                 }
+            } else if ("-format".equals(arg)) {
+                if (format == 0 && ++i < args.length) {
+                    if ("1".equals(args[i]) || "2".equals(args[i])) {
+                        format = Integer.parseInt(args[i]);
+                        continue;
+                    }
+                    System.out.println("Unrecognised file format: " + args[i]);
+                }
+            } else if ("-threads".equals(arg)) {
+                if (threads == 0 && ++i < args.length) {
+                    if (args[i].matches("[1-9][0-9]{0,3}")) {
+                        threads = Integer.parseInt(args[i]);
+                        continue;
+                    }
+                    System.out.println("Invalid thread count: " + args[i]);
+                }
             } else if ("-unpacked".equals(arg)) {
                 if (unpacked == false) {
                     unpacked = true;
@@ -204,7 +228,16 @@ final class TzdbZoneRulesCompiler {
             System.out.println("Destination is not a directory: " + dstDir);
             return;
         }
-        process(srcDirs, srcFileNames, dstDir, unpacked, verbose);
+        format = (format != 0 ? format : TzdbFile.FORMAT_1);
+        threads = (threads != 0 ? threads : Runtime.getRuntime().availableProcessors());
+        ExecutorService executor = (threads > 1 ? Executors.newFixedThreadPool(threads) : null);
+        try {
+            process(srcDirs, srcFileNames, dstDir, unpacked, format, executor, verbose);
+        } finally {
+            if (executor != null) {
+                executor.shutdown();
+            }
+        }
     }
 
     /**
@@ -217,6 +250,8 @@ final class TzdbZoneRulesCompiler {
         System.out.println("   -dstdir <directory>   Where to output generated files (default srcdir)");
         System.out.println("   -version <version>    Specify the version, such as 2009a (optional)");
         System.out.println("   -unpacked             Generate dat files without jar files");
+        System.out.println("   -format <format>      The format of the dat file, 1 (default) or 2 (indexed)");
+        System.out.println("   -threads <count>      The number of threads building zones (default processors)");
         System.out.println("   -help                 Print this usage message");
         System.out.println("   -verbose              Output verbose information during compilation");
         System.out.println(" There must be one directory for each version in srcdir");
@@ -230,12 +265,13 @@ final class TzdbZoneRulesCompiler {
     /**
      * Process to create the jar files.
      */
-    private static void process(List<File> srcDirs, List<String> srcFileNames, File dstDir, boolean unpacked, boolean verbose) {
+    private static void process(List<File> srcDirs, List<String> srcFileNames, File dstDir, boolean unpacked, int format,
+            ExecutorService executor, boolean verbose) {
         // build actual jar files
-        Map<Object, Object> deduplicateMap = new HashMap<Object, Object>();
+        Map<Object, Object> deduplicateMap = new ConcurrentHashMap<Object, Object>();
+        Map<String, ZoneRules> zoneCache = new HashMap<String, ZoneRules>();
         Map<String, SortedMap<String, ZoneRules>> allBuiltZones = new TreeMap<String, SortedMap<String, ZoneRules>>();
         Set<String> allRegionIds = new TreeSet<String>();
-        Set<ZoneRules> allRules = new HashSet<ZoneRules>();
         SortedMap<LocalDate, Byte> bestLeapSeconds = null;
 
         for (File srcDir : srcDirs) {
@@ -260,6 +296,8 @@ final class TzdbZoneRulesCompiler {
             String loopVersion = srcDir.getName();
             TzdbZoneRulesCompiler compiler = new TzdbZoneRulesCompiler(loopVersion, srcFiles, leapSecondsFile, verbose);
             compiler.setDeduplicateMap(deduplicateMap);
+            compiler.setZoneCache(zoneCache);
+            compiler.setExecutor(executor);
             try {
                 // compile
                 compiler.compile();
@@ -272,13 +310,12 @@ final class TzdbZoneRulesCompiler {
                     if (verbose) {
                         System.out.println("Outputting file: " + dstFile);
                     }
-                    outputFile(dstFile, loopVersion, builtZones, parsedLeapSeconds);
+                    outputFile(dstFile, loopVersion, builtZones, parsedLeapSeconds, format);
                 }
 
                 // create totals
                 allBuiltZones.put(loopVersion, builtZones);
                 allRegionIds.addAll(builtZones.keySet());
-                allRules.addAll(builtZones.values());
 
                 // track best possible leap seconds collection
                 if (compiler.getMostRecentLeapSecond() != null) {
@@ -300,13 +337,13 @@ final class TzdbZoneRulesCompiler {
             if (verbose) {
                 System.out.println("Outputting combined files: " + dstDir);
             }
-            outputFilesDat(dstDir, allBuiltZones, allRegionIds, allRules, bestLeapSeconds);
+            outputFilesDat(dstDir, allBuiltZones, allRegionIds, bestLeapSeconds, format);
         } else {
             File dstFile = new File(dstDir, "threeten-TZDB-all.jar");
             if (verbose) {
                 System.out.println("Outputting combined file: " + dstFile);
             }
-            outputFile(dstFile, allBuiltZones, allRegionIds, allRules, bestLeapSeconds);
+            outputFile(dstFile, allBuiltZones, allRegionIds, bestLeapSeconds, format);
         }
     }
 
@@ -314,7 +351,7 @@ final class TzdbZoneRulesCompiler {
      * Outputs the DAT files.
      */
     private static void outputFilesDat(File dstDir, Map<String, SortedMap<String, ZoneRules>> allBuiltZones,
-            Set<String> allRegionIds, Set<ZoneRules> allRules, SortedMap<LocalDate, Byte> leapSeconds) {
+            Set<String> allRegionIds, SortedMap<LocalDate, Byte> leapSeconds, int format) {
         File tzdbFile = new File(dstDir, "TZDB.dat");
         tzdbFile.delete();
         File leapFile = new File(dstDir, "LeapSecondRules.dat");
@@ -323,7 +360,7 @@ final class TzdbZoneRulesCompiler {
             FileOutputStream fos = null;
             try {
                 fos = new FileOutputStream(tzdbFile);
-                outputTzdbDat(fos, allBuiltZones, allRegionIds, allRules);
+                outputTzdbDat(fos, allBuiltZones, allRegionIds, format);
             } finally {
                 if (fos != null) {
                     fos.close();
@@ -348,23 +385,22 @@ final class TzdbZoneRulesCompiler {
     /**
      * Outputs the file.
      */
-    private static void outputFile(File dstFile, String version, SortedMap<String, ZoneRules> builtZones, SortedMap<LocalDate, Byte> leapSeconds) {
+    private static void outputFile(File dstFile, String version, SortedMap<String, ZoneRules> builtZones, SortedMap<LocalDate, Byte> leapSeconds, int format) {
         Map<String, SortedMap<String, ZoneRules>> loopAllBuiltZones = new TreeMap<String, SortedMap<String, ZoneRules>>();
         loopAllBuiltZones.put(version, builtZones);
         Set<String> loopAllRegionIds = new TreeSet<String>(builtZones.keySet());
-        Set<ZoneRules> loopAllRules = new HashSet<ZoneRules>(builtZones.values());
-        outputFile(dstFile, loopAllBuiltZones, loopAllRegionIds, loopAllRules, leapSeconds);
+        outputFile(dstFile, loopAllBuiltZones, loopAllRegionIds, leapSeconds, format);
     }
 
     /**
      * Outputs the file.
      */
     private static void outputFile(File dstFile, Map<String, SortedMap<String, ZoneRules>> allBuiltZones,
-            Set<String> allRegionIds, Set<ZoneRules> allRules, SortedMap<LocalDate, Byte> leapSeconds) {
+            Set<String> allRegionIds, SortedMap<LocalDate, Byte> leapSeconds, int format) {
         JarOutputStream jos = null;
         try {
             jos = new JarOutputStream(new FileOutputStream(dstFile));
-            outputTzdbEntry(jos, allBuiltZones, allRegionIds, allRules);
+            outputTzdbEntry(jos, allBuiltZones, allRegionIds, format);
             outputLeapSecondEntry(jos, leapSeconds);
         } catch (Exception ex) {
             System.out.println("Failed: " + ex.toString());
@@ -386,11 +422,11 @@ final class TzdbZoneRulesCompiler {
      */
     private static void outputTzdbEntry(
             JarOutputStream jos, Map<String, SortedMap<String, ZoneRules>> allBuiltZones,
-            Set<String> allRegionIds, Set<ZoneRules> allRules) {
+            Set<String> allRegionIds, int format) {
         // this format is not publicly specified
         try {
             jos.putNextEntry(new ZipEntry("org/threeten/bp/TZDB.dat"));
-            outputTzdbDat(jos, allBuiltZones, allRegionIds, allRules);
+            outputTzdbDat(jos, allBuiltZones, allRegionIds, format);
             jos.closeEntry();
         } catch (Exception ex) {
             System.out.println("Failed: " + ex.toString());
@@ -404,48 +440,36 @@ final class TzdbZoneRulesCompiler {
      */
     private static void outputTzdbDat(OutputStream jos,
             Map<String, SortedMap<String, ZoneRules>> allBuiltZones,
-            Set<String> allRegionIds, Set<ZoneRules> allRules) throws IOException {
+            Set<String> allRegionIds, int format) throws IOException {
         DataOutputStream out = new DataOutputStream(jos);
-
-        // file version
-        out.writeByte(1);
-        // group
-        out.writeUTF("TZDB");
-        // versions
         String[] versionArray = allBuiltZones.keySet().toArray(new String[allBuiltZones.size()]);
-        out.writeShort(versionArray.length);
-        for (String version : versionArray) {
-            out.writeUTF(version);
-        }
-        // regions
         String[] regionArray = allRegionIds.toArray(new String[allRegionIds.size()]);
-        out.writeShort(regionArray.length);
-        for (String regionId : regionArray) {
-            out.writeUTF(regionId);
-        }
-        // rules
-        List<ZoneRules> rulesList = new ArrayList<ZoneRules>(allRules);
-        out.writeShort(rulesList.size());
-        ByteArrayOutputStream baos = new ByteArrayOutputStream(1024);
-        for (ZoneRules rules : rulesList) {
-            baos.reset();
-            DataOutputStream dataos = new DataOutputStream(baos);
-            Ser.write(rules, dataos);
-            dataos.close();
-            byte[] bytes = baos.toByteArray();
-            out.writeShort(bytes.length);
-            out.write(bytes);
-        }
-        // link version-region-rules
-        for (String version : allBuiltZones.keySet()) {
-            out.writeShort(allBuiltZones.get(version).size());
-            for (Map.Entry<String, ZoneRules> entry : allBuiltZones.get(version).entrySet()) {
-                 int regionIndex = Arrays.binarySearch(regionArray, entry.getKey());
-                 int rulesIndex = rulesList.indexOf(entry.getValue());
-                 out.writeShort(regionIndex);
-                 out.writeShort(rulesIndex);
+        // link version-region-rules, numbering rules in order of first use
+        // so that the output does not depend on the order zones were built in
+        // the numbering differs from earlier compilers, which used hash order,
+        // thus the bytes differ from their output although the rules are equal
+        List<ZoneRules> rulesList = new ArrayList<ZoneRules>();
+        Map<ZoneRules, Integer> rulesIndex = new HashMap<ZoneRules, Integer>();
+        short[] ruleIndices = new short[versionArray.length * regionArray.length];
+        Arrays.fill(ruleIndices, (short) -1);
+        for (int i = 0; i < versionArray.length; i++) {
+            for (Map.Entry<String, ZoneRules> entry : allBuiltZones.get(versionArray[i]).entrySet()) {
+                int regionIndex = Arrays.binarySearch(regionArray, entry.getKey());
+                Integer ruleIndex = rulesIndex.get(entry.getValue());
+                if (ruleIndex == null) {
+                    ruleIndex = rulesList.size();
+                    rulesList.add(entry.getValue());
+                    rulesIndex.put(entry.getValue(), ruleIndex);
+                }
+                ruleIndices[i * regionArray.length + regionIndex] = ruleIndex.shortValue();
             }
         }
+        ZoneRules[] rulesArray = rulesList.toArray(new ZoneRules[rulesList.size()]);
+        if (format == TzdbFile.FORMAT_2) {
+            TzdbFile.writeFormat2(out, versionArray, regionArray, rulesArray, ruleIndices);
+        } else {
+            TzdbFile.writeFormat1(out, versionArray, regionArray, rulesArray, ruleIndices);
+        }
         out.flush();
     }
 
@@ -493,10 +517,18 @@ final class TzdbZoneRulesCompiler {
     private final Map<String, List<TZDBZone>> zones = new HashMap<String, List<TZDBZone>>();
     /** The TZDB links. */
     private final Map<String, String> links = new HashMap<String, String>();
+    /** The normalized source lines of each rule set, keyed by rule name. */
+    private final Map<String, StringBuilder> ruleSources = new HashMap<String, StringBuilder>();
+    /** The normalized source lines of each zone, keyed by zone ID. */
+    private final Map<String, StringBuilder> zoneSources = new HashMap<String, StringBuilder>();
     /** The built zones. */
     private final SortedMap<String, ZoneRules> builtZones = new TreeMap<String, ZoneRules>();
     /** A map to deduplicate object instances. */
-    private Map<Object, Object> deduplicateMap = new HashMap<Object, Object>();
+    private Map<Object, Object> deduplicateMap = new ConcurrentHashMap<Object, Object>();
+    /** A cache of built zones keyed by the source lines they were built from, may be shared between versions. */
+    private Map<String, ZoneRules> zoneCache = new HashMap<String, ZoneRules>();
+    /** The executor used to build zones, null to build on the calling thread. */
+    private ExecutorService executor;
     /** Sorted collection of LeapSecondRules. */
     private final SortedMap<LocalDate, Byte> leapSeconds = new TreeMap<LocalDate, Byte>();
 
@@ -574,6 +606,30 @@ final class TzdbZoneRulesCompiler {
         this.deduplicateMap = deduplicateMap;
     }
 
+    /**
+     * Sets the cache of built zones.
+     * <p>
+     * The cache is keyed by the normalized Zone and Rule lines that a zone is built from.
+     * Sharing the cache between compilers allows unchanged zones to be reused
+     * from one version to the next.
+     *
+     * @param zoneCache  the cache of built zones, not null
+     */
+    void setZoneCache(Map<String, ZoneRules> zoneCache) {
+        this.zoneCache = zoneCache;
+    }
+
+    /**
+     * Sets the executor used to build zones in parallel.
+     * <p>
+     * The deduplication map must be thread-safe if an executor is used.
+     *
+     * @param executor  the executor, null to build zones on the calling thread
+     */
+    void setExecutor(ExecutorService executor) {
+        this.executor = executor;
+    }
+
     //-----------------------------------------------------------------------
     /**
      * Parses the source files.
@@ -692,6 +748,7 @@ final class TzdbZoneRulesCompiler {
         try {
             in = new BufferedReader(new FileReader(file));
             List<TZDBZone> openZone = null;
+            StringBuilder openZoneSource = null;
             for ( ; (line = in.readLine()) != null; lineNumber++) {
                 int index = line.indexOf('#');  // remove comments (doesn't handle # in quotes)
                 if (index >= 0) {
@@ -702,6 +759,7 @@ final class TzdbZoneRulesCompiler {
                 }
                 StringTokenizer st = new StringTokenizer(line, " \t");
                 if (openZone != null && Character.isWhitespace(line.charAt(0)) && st.hasMoreTokens()) {
+                    appendSource(openZoneSource, line);
                     if (parseZoneLine(st, openZone)) {
                         openZone = null;
                     }
@@ -714,7 +772,10 @@ final class TzdbZoneRulesCompiler {
                                 throw new IllegalArgumentException("Invalid Zone line");
                             }
                             openZone = new ArrayList<TZDBZone>();
-                            zones.put(st.nextToken(), openZone);
+                            openZoneSource = new StringBuilder();
+                            String zoneId = st.nextToken();
+                            zones.put(zoneId, openZone);
+                            zoneSources.put(zoneId, appendSource(openZoneSource, line));
                             if (parseZoneLine(st, openZone)) {
                                 openZone = null;
                             }
@@ -725,6 +786,13 @@ final class TzdbZoneRulesCompiler {
                                     printVerbose("Invalid Rule line in file: " + file + ", line: " + line);
                                     throw new IllegalArgumentException("Invalid Rule line");
                                 }
+                                StringTokenizer nameTokenizer = new StringTokenizer(line, " \t");
+                                nameTokenizer.nextToken();
+                                String name = nameTokenizer.nextToken();
+                                if (ruleSources.containsKey(name) == false) {
+                                    ruleSources.put(name, new StringBuilder());
+                                }
+                                appendSource(ruleSources.get(name), line);
                                 parseRuleLine(st);
 
                             } else if (first.equals("Link")) {
@@ -752,6 +820,21 @@ final class TzdbZoneRulesCompiler {
         }
     }
 
+    /**
+     * Appends a source line to the source of a zone or rule set, normalizing whitespace.
+     *
+     * @param buf  the buffer to append to, not null
+     * @param line  the line without comments, not null
+     * @return the buffer, not null
+     */
+    private static StringBuilder appendSource(StringBuilder buf, String line) {
+        StringTokenizer st = new StringTokenizer(line, " \t");
+        while (st.hasMoreTokens()) {
+            buf.append(st.nextToken()).append(' ');
+        }
+        return buf.append('\n');
+    }
+
     /**
      * Parses a Rule line.
      *
@@ -954,17 +1037,58 @@ final class TzdbZoneRulesCompiler {
      * @throws Exception if an error occurs
      */
     private void buildZoneRules() throws Exception {
-        // build zones
+        // rules are shared between zones, so complete their mutation before building in parallel
+        for (List<TZDBRule> tzdbRules : rules.values()) {
+            for (TZDBRule tzdbRule : tzdbRules) {
+                tzdbRule.adjustToFowards(2004);  // irrelevant, treat as leap year
+            }
+        }
+
+        // build zones, reusing those whose source lines have been built before
+        Map<String, Future<ZoneRules>> tasks = new TreeMap<String, Future<ZoneRules>>();
         for (String zoneId : zones.keySet()) {
+            final String dedupZoneId = deduplicate(zoneId);
+            final String cacheKey = getZoneCacheKey(zoneId);
+            ZoneRules cached = zoneCache.get(cacheKey);
+            if (cached != null) {
+                printVerbose("Reusing zone " + zoneId);
+                builtZones.put(dedupZoneId, cached);
+                continue;
+            }
             printVerbose("Building zone " + zoneId);
-            zoneId = deduplicate(zoneId);
-            List<TZDBZone> tzdbZones = zones.get(zoneId);
-            ZoneRulesBuilder bld = new ZoneRulesBuilder();
-            for (TZDBZone tzdbZone : tzdbZones) {
-                bld = tzdbZone.addToBuilder(bld, rules);
+            final List<TZDBZone> tzdbZones = zones.get(zoneId);
+            Callable<ZoneRules> task = new Callable<ZoneRules>() {
+                @Override
+                public ZoneRules call() {
+                    ZoneRulesBuilder bld = new ZoneRulesBuilder();
+                    for (TZDBZone tzdbZone : tzdbZones) {
+                        bld = tzdbZone.addToBuilder(bld, rules);
+                    }
+                    return deduplicate(bld.toRules(dedupZoneId, deduplicateMap));
+                }
+            };
+            if (executor != null) {
+                tasks.put(dedupZoneId, executor.submit(task));
+            } else {
+                FutureTask<ZoneRules> future = new FutureTask<ZoneRules>(task);
+                future.run();
+                tasks.put(dedupZoneId, future);
             }
-            ZoneRules buildRules = bld.toRules(zoneId, deduplicateMap);
-            builtZones.put(zoneId, deduplicate(buildRules));
+        }
+        for (Map.Entry<String, Future<ZoneRules>> entry : tasks.entrySet()) {
+            String zoneId = entry.getKey();
+            ZoneRules buildRules;
+            try {
+                buildRules = entry.getValue().get();
+            } catch (ExecutionException ex) {
+                Throwable cause = ex.getCause();
+                if (cause instanceof Exception) {
+                    throw (Exception) cause;
+                }
+                throw (Error) cause;
+            }
+            builtZones.put(zoneId, buildRules);
+            zoneCache.put(getZoneCacheKey(zoneId), buildRules);
         }
 
         // build aliases
@@ -992,6 +1116,27 @@ final class TzdbZoneRulesCompiler {
         builtZones.remove("GMT-0");
     }
 
+    /**
+     * Gets the key used to cache a built zone.
+     * <p>
+     * The key consists of the Zone lines followed by every Rule line referenced by them,
+     * so two zones with the same key are guaranteed to build to equal rules.
+     *
+     * @param zoneId  the zone ID, not null
+     * @return the cache key, not null
+     */
+    private String getZoneCacheKey(String zoneId) {
+        StringBuilder buf = new StringBuilder(zoneSources.get(zoneId));
+        Set<String> ruleNames = new HashSet<String>();
+        for (TZDBZone tzdbZone : zones.get(zoneId)) {
+            String savingsRule = tzdbZone.savingsRule;
+            if (savingsRule != null && ruleNames.add(savingsRule)) {
+                buf.append(savingsRule).append(":\n").append(ruleSources.get(savingsRule));
+            }
+        }
+        return buf.toString();
+    }
+
     //-----------------------------------------------------------------------
     /**
      * Deduplicates an object instance.
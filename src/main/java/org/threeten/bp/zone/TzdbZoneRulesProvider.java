@@ -31,41 +31,59 @@
  */
 package org.threeten.bp.zone;
 
-import java.io.ByteArrayInputStream;
-import java.io.DataInputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.StreamCorruptedException;
 import java.net.URL;
+import java.net.URLConnection;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Enumeration;
 import java.util.HashSet;
+import java.util.List;
 import java.util.NavigableMap;
 import java.util.Set;
 import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentNavigableMap;
 import java.util.concurrent.ConcurrentSkipListMap;
 import java.util.concurrent.CopyOnWriteArraySet;
-import java.util.concurrent.atomic.AtomicReferenceArray;
 
 import org.threeten.bp.jdk8.Jdk8Methods;
 
 /**
  * Loads time-zone rules for 'TZDB'.
  * <p>
- * This class is public for the service loader to access.
+ * This is the default provider, unless another is named by the system property
+ * {@code org.threeten.bp.zone.DefaultZoneRulesProvider}.
+ * <p>
+ * The regions that are loaded can be restricted by setting the system property
+ * {@code org.threeten.bp.zone.TzdbZoneRulesProvider.regions} before the first use of
+ * time-zones, or by using the constructor taking the regions.
+ * The value is a comma separated list of region IDs, such as 'Europe/London',
+ * where an entry ending in '*' matches all regions starting with the preceding text,
+ * such as 'America/*'. Regions that are not included are unknown to this provider,
+ * thus {@code ZoneId.of} fails for them with an exception.
  *
  * <h3>Specification for implementors</h3>
  * This class is immutable and thread-safe.
  */
 public final class TzdbZoneRulesProvider extends ZoneRulesProvider {
-    // TODO: can this be private/hidden in any way?
-    // service loader seems to need it to be public
+    /**
+     * The system property restricting the regions that are loaded.
+     */
+    static final String REGIONS_PROPERTY = "org.threeten.bp.zone.TzdbZoneRulesProvider.regions";
 
+    /**
+     * The regions to load.
+     */
+    private final RegionFilter filter;
     /**
      * All the regions that are available.
      */
-    private final Set<String> regionIds = new CopyOnWriteArraySet<String>();
+    private final Set<String> regionIds = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>(1024, 0.75f, 2));
     /**
      * All the versions that are available.
      */
@@ -78,21 +96,42 @@ public final class TzdbZoneRulesProvider extends ZoneRulesProvider {
 
     /**
      * Creates an instance.
-     * Created by the {@code ServiceLoader}.
+     * Created as the default provider.
+     * <p>
+     * The regions are restricted if the system property is set.
      *
      * @throws ZoneRulesException if unable to load
      */
     public TzdbZoneRulesProvider() {
+        this(RegionFilter.fromSystemProperty());
+    }
+
+    /**
+     * Creates an instance loading only the specified regions.
+     * <p>
+     * Each entry is a region ID, or a prefix followed by '*'.
+     *
+     * @param regions  the regions to load, not null
+     * @throws ZoneRulesException if unable to load, or a specified region ID is not found
+     */
+    public TzdbZoneRulesProvider(Collection<String> regions) {
+        this(RegionFilter.of(regions));
+    }
+
+    private TzdbZoneRulesProvider(RegionFilter filter) {
         super();
+        this.filter = filter;
         if (load(ZoneRulesProvider.class.getClassLoader()) == false) {
             throw new ZoneRulesException("No time-zone rules found for 'TZDB'");
         }
+        filter.checkFound(regionIds);
     }
 
     //-----------------------------------------------------------------------
     @Override
     protected Set<String> provideZoneIds() {
-        return new HashSet<String>(regionIds);
+        // the set is concurrent, thus the view can be iterated while versions are loaded
+        return Collections.unmodifiableSet(regionIds);
     }
 
     @Override
@@ -105,6 +144,11 @@ public final class TzdbZoneRulesProvider extends ZoneRulesProvider {
         return rules;
     }
 
+    @Override
+    protected boolean provideImmutableRules() {
+        return true;
+    }
+
     @Override
     protected NavigableMap<String, ZoneRules> provideVersions(String zoneId) {
         TreeMap<String, ZoneRules> map = new TreeMap<String, ZoneRules>();
@@ -150,58 +194,22 @@ public final class TzdbZoneRulesProvider extends ZoneRulesProvider {
 
     /**
      * Loads the rules from a URL, often in a jar file.
+     * <p>
+     * The file is read into memory and indexed, with each rule decoded when first used.
+     * The region IDs matching the filter are added to the set of region IDs.
      *
      * @param url  the jar file to load, not null
-     * @throws Exception if an error occurs
+     * @return the versions in the file, not null
+     * @throws IOException if an error occurs reading the file
      */
-    private Iterable<Version> load(URL url) throws ClassNotFoundException, IOException {
+    private Iterable<Version> load(URL url) throws IOException {
         InputStream in = null;
         try {
-            in = url.openStream();
-            DataInputStream dis = new DataInputStream(in);
-            if (dis.readByte() != 1) {
-                throw new StreamCorruptedException("File format not recognised");
-            }
-            // group
-            String groupId = dis.readUTF();
-            if ("TZDB".equals(groupId) == false) {
-                throw new StreamCorruptedException("File format not recognised");
-            }
-            // versions
-            int versionCount = dis.readShort();
-            String[] versionArray = new String[versionCount];
-            for (int i = 0; i < versionCount; i++) {
-                versionArray[i] = dis.readUTF();
-            }
-            // regions
-            int regionCount = dis.readShort();
-            String[] regionArray = new String[regionCount];
-            for (int i = 0; i < regionCount; i++) {
-                regionArray[i] = dis.readUTF();
-            }
-            regionIds.addAll(Arrays.asList(regionArray));
-            // rules
-            int ruleCount = dis.readShort();
-            Object[] ruleArray = new Object[ruleCount];
-            for (int i = 0; i < ruleCount; i++) {
-                byte[] bytes = new byte[dis.readShort()];
-                dis.readFully(bytes);
-                ruleArray[i] = bytes;
-            }
-            AtomicReferenceArray<Object> ruleData = new AtomicReferenceArray<Object>(ruleArray);
-            // link version-region-rules
-            Set<Version> versionSet = new HashSet<Version>(versionCount);
-            for (int i = 0; i < versionCount; i++) {
-                int versionRegionCount = dis.readShort();
-                String[] versionRegionArray = new String[versionRegionCount];
-                short[] versionRulesArray = new short[versionRegionCount];
-                for (int j = 0; j < versionRegionCount; j++) {
-                    versionRegionArray[j] = regionArray[dis.readShort()];
-                    versionRulesArray[j] = dis.readShort();
-                }
-                versionSet.add(new Version(versionArray[i], versionRegionArray, versionRulesArray, ruleData));
-            }
-            return versionSet;
+            URLConnection connection = url.openConnection();
+            in = connection.getInputStream();
+            TzdbFile file = TzdbFile.load(TzdbFile.readFully(in, connection.getContentLength(), false));
+            regionIds.addAll(filter.filter(file.getRegionIds()));
+            return Version.of(file, filter);
         } finally {
             if (in != null) {
                 in.close();
@@ -220,43 +228,151 @@ public final class TzdbZoneRulesProvider extends ZoneRulesProvider {
      */
     static class Version {
         private final String versionId;
-        private final String[] regionArray;
-        private final short[] ruleIndices;
-        private final AtomicReferenceArray<Object> ruleData;
+        private final TzdbFile file;
+        private final int versionIndex;
+        private final RegionFilter filter;
 
-        Version(String versionId, String[] regionIds, short[] ruleIndices, AtomicReferenceArray<Object> ruleData) {
-            this.ruleData = ruleData;
+        Version(String versionId, TzdbFile file, int versionIndex, RegionFilter filter) {
             this.versionId = versionId;
-            this.regionArray = regionIds;
-            this.ruleIndices = ruleIndices;
+            this.file = file;
+            this.versionIndex = versionIndex;
+            this.filter = filter;
+        }
+
+        static Set<Version> of(TzdbFile file, RegionFilter filter) {
+            String[] versionArray = file.getVersionIds();
+            Set<Version> versionSet = new HashSet<Version>(versionArray.length);
+            for (int i = 0; i < versionArray.length; i++) {
+                versionSet.add(new Version(versionArray[i], file, i, filter));
+            }
+            return versionSet;
+        }
+
+        String getVersionId() {
+            return versionId;
+        }
+
+        boolean hasRules(String regionId) {
+            return filter.includes(regionId) && file.hasRules(versionIndex, regionId);
         }
 
         ZoneRules getRules(String regionId) {
-            int regionIndex = Arrays.binarySearch(regionArray, regionId);
-            if (regionIndex < 0) {
+            if (filter.includes(regionId) == false) {
                 return null;
             }
+            return file.getRules(versionIndex, regionId);
+        }
+
+        @Override
+        public String toString() {
+            return versionId;
+        }
+    }
+
+
+    //-----------------------------------------------------------------------
+    /**
+     * The regions to load, by ID or by prefix.
+     */
+    static final class RegionFilter {
+        /**
+         * The filter including all regions.
+         */
+        static final RegionFilter ALL = new RegionFilter(null, null);
+
+        private final Set<String> regionIds;
+        private final String[] prefixes;
+
+        private RegionFilter(Set<String> regionIds, String[] prefixes) {
+            this.regionIds = regionIds;
+            this.prefixes = prefixes;
+        }
+
+        /**
+         * Obtains the filter from the system property, including all regions if not set.
+         *
+         * @return the filter, not null
+         */
+        static RegionFilter fromSystemProperty() {
+            String value = null;
             try {
-                return createRule(ruleIndices[regionIndex]);
-            } catch (Exception ex) {
-                throw new ZoneRulesException("Invalid binary time-zone data: TZDB:" + regionId + ", version: " + versionId, ex);
+                value = System.getProperty(REGIONS_PROPERTY);
+            } catch (SecurityException ex) {
+                // include all regions
             }
+            return (value == null ? ALL : of(Arrays.asList(value.split(","))));
         }
 
-        ZoneRules createRule(short index) throws Exception {
-            Object obj = ruleData.get(index);
-            if (obj instanceof byte[]) {
-                byte[] bytes = (byte[]) obj;
-                DataInputStream dis = new DataInputStream(new ByteArrayInputStream(bytes));
-                obj = Ser.read(dis);
-                ruleData.set(index, obj);
+        /**
+         * Obtains the filter for region IDs and prefixes.
+         *
+         * @param regions  the region IDs, and prefixes ending in '*', not null
+         * @return the filter, not null
+         */
+        static RegionFilter of(Collection<String> regions) {
+            Jdk8Methods.requireNonNull(regions, "regions");
+            Set<String> ids = new HashSet<String>();
+            List<String> prefixList = new ArrayList<String>();
+            for (String region : regions) {
+                region = region.trim();
+                if (region.endsWith("*")) {
+                    prefixList.add(region.substring(0, region.length() - 1));
+                } else if (region.length() > 0) {
+                    ids.add(region);
+                }
             }
-            return (ZoneRules) obj;
+            return new RegionFilter(ids, prefixList.toArray(new String[prefixList.size()]));
         }
 
-        @Override
-        public String toString() {
-            return versionId;
+        /**
+         * Checks if a region is included.
+         *
+         * @param regionId  the region ID, not null
+         * @return true if included
+         */
+        boolean includes(String regionId) {
+            if (regionIds == null || regionIds.contains(regionId)) {
+                return true;
+            }
+            for (String prefix : prefixes) {
+                if (regionId.startsWith(prefix)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Filters an array of region IDs.
+         *
+         * @param allRegionIds  the region IDs, not null
+         * @return the included region IDs, not null
+         */
+        List<String> filter(String[] allRegionIds) {
+            if (regionIds == null) {
+                return Arrays.asList(allRegionIds);
+            }
+            List<String> included = new ArrayList<String>();
+            for (String regionId : allRegionIds) {
+                if (includes(regionId)) {
+                    included.add(regionId);
+                }
+            }
+            return included;
+        }
+
+        /**
+         * Checks that every region ID specified exactly has been found.
+         *
+         * @param found  the regions found, not null
+         * @throws ZoneRulesException if a region ID was not found
+         */
+        void checkFound(Set<String> found) {
+            if (regionIds != null && found.containsAll(regionIds) == false) {
+                Set<String> missing = new TreeSet<String>(regionIds);
+                missing.removeAll(found);
+                throw new ZoneRulesException("Unknown time-zone ID, not found in 'TZDB': " + missing);
+            }
         }
     }
 
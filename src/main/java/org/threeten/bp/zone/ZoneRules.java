@@ -33,8 +33,11 @@ package org.threeten.bp.zone;
 
 import java.io.Serializable;
 import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
 
+import org.threeten.bp.DateTimeException;
 import org.threeten.bp.Duration;
 import org.threeten.bp.Instant;
 import org.threeten.bp.LocalDateTime;
@@ -242,6 +245,186 @@ public abstract class ZoneRules {
      */
     public abstract ZoneOffsetTransition getTransition(LocalDateTime localDateTime);
 
+    //-----------------------------------------------------------------------
+    /**
+     * Gets the offset in seconds applicable at the specified epoch-second in these rules.
+     * <p>
+     * This is equivalent to {@link #getOffset(Instant)} but operates on primitive
+     * values, allowing callers that hold a raw epoch-second to avoid creating an
+     * {@code Instant} and unwrapping the {@code ZoneOffset}.
+     *
+     * @param epochSecond  the epoch-second to find the offset for, measured from 1970-01-01T00:00:00Z
+     * @return the total offset in seconds
+     */
+    public abstract int getOffsetSeconds(long epochSecond);
+
+    /**
+     * Gets a suitable offset in seconds for the specified local epoch-second in these rules.
+     * <p>
+     * The local epoch-second is the number of seconds from 1970-01-01T00:00:00 on the
+     * local time-line, as returned by {@code localDateTime.toEpochSecond(ZoneOffset.UTC)}.
+     * This is equivalent to {@link #getOffset(LocalDateTime)} but operates on primitive values.
+     * As such, in the case of a Gap or Overlap the offset before the transition is returned.
+     * <p>
+     * The epoch-second of the instant can then be obtained by subtracting the offset
+     * from the local epoch-second.
+     *
+     * @param localEpochSecond  the local epoch-second to query, measured from 1970-01-01T00:00:00
+     * @return the best available total offset in seconds for the local epoch-second
+     */
+    public abstract int getOffsetSecondsForLocal(long localEpochSecond);
+
+    //-----------------------------------------------------------------------
+    /**
+     * Converts an array of epoch-seconds to local epoch-seconds in these rules.
+     * <p>
+     * Each element in the range is converted as per {@link #getOffsetSeconds(long)},
+     * adding the offset to the epoch-second. The source and destination may be the same
+     * array, allowing the conversion to be performed in place.
+     * <p>
+     * This is intended for converting large columns of values without creating an
+     * object for each element. The rules are searched once for each run of values
+     * that share the same offset, thus the conversion is fastest for sorted data.
+     *
+     * @param epochSeconds  the epoch-seconds to convert, not null
+     * @param localEpochSeconds  the array to store the local epoch-seconds in, not null
+     * @param offset  the index of the first element to convert
+     * @param length  the number of elements to convert
+     * @throws IndexOutOfBoundsException if the range is outside either array
+     * @throws ArithmeticException if numeric overflow occurs
+     */
+    public void toLocalEpochSeconds(long[] epochSeconds, long[] localEpochSeconds, int offset, int length) {
+        checkRange(epochSeconds, localEpochSeconds, offset, length);
+        convertToLocal(epochSeconds, localEpochSeconds, offset, length, 1);
+    }
+
+    /**
+     * Converts an array of epoch-milliseconds to local epoch-milliseconds in these rules.
+     * <p>
+     * This is the same as {@link #toLocalEpochSeconds(long[], long[], int, int)}
+     * except that the values are measured in milliseconds.
+     *
+     * @param epochMillis  the epoch-milliseconds to convert, not null
+     * @param localEpochMillis  the array to store the local epoch-milliseconds in, not null
+     * @param offset  the index of the first element to convert
+     * @param length  the number of elements to convert
+     * @throws IndexOutOfBoundsException if the range is outside either array
+     * @throws ArithmeticException if numeric overflow occurs
+     */
+    public void toLocalEpochMillis(long[] epochMillis, long[] localEpochMillis, int offset, int length) {
+        checkRange(epochMillis, localEpochMillis, offset, length);
+        convertToLocal(epochMillis, localEpochMillis, offset, length, 1000);
+    }
+
+    /**
+     * Converts an array of local epoch-seconds to epoch-seconds in these rules.
+     * <p>
+     * Each element in the range is converted by subtracting the offset valid at
+     * that local epoch-second. Where the local epoch-second is in a gap or overlap,
+     * the offset is chosen by the policy. The source and destination may be the same
+     * array, allowing the conversion to be performed in place.
+     * <p>
+     * This is intended for converting large columns of values without creating an
+     * object for each element. The rules are searched once for each run of values
+     * that share the same offset, thus the conversion is fastest for sorted data.
+     *
+     * @param localEpochSeconds  the local epoch-seconds to convert, not null
+     * @param epochSeconds  the array to store the epoch-seconds in, not null
+     * @param offset  the index of the first element to convert
+     * @param length  the number of elements to convert
+     * @param policy  the policy for local epoch-seconds in a gap or overlap, not null
+     * @throws IndexOutOfBoundsException if the range is outside either array
+     * @throws DateTimeException if the policy is strict and a value is in a gap or overlap,
+     *  in which case the elements before it will have been converted
+     * @throws ArithmeticException if numeric overflow occurs
+     */
+    public void toEpochSeconds(long[] localEpochSeconds, long[] epochSeconds, int offset, int length, TransitionPolicy policy) {
+        checkRange(localEpochSeconds, epochSeconds, offset, length);
+        Jdk8Methods.requireNonNull(policy, "policy");
+        convertFromLocal(localEpochSeconds, epochSeconds, offset, length, 1, policy);
+    }
+
+    /**
+     * Converts an array of local epoch-milliseconds to epoch-milliseconds in these rules.
+     * <p>
+     * This is the same as {@link #toEpochSeconds(long[], long[], int, int, TransitionPolicy)}
+     * except that the values are measured in milliseconds.
+     *
+     * @param localEpochMillis  the local epoch-milliseconds to convert, not null
+     * @param epochMillis  the array to store the epoch-milliseconds in, not null
+     * @param offset  the index of the first element to convert
+     * @param length  the number of elements to convert
+     * @param policy  the policy for local epoch-milliseconds in a gap or overlap, not null
+     * @throws IndexOutOfBoundsException if the range is outside either array
+     * @throws DateTimeException if the policy is strict and a value is in a gap or overlap,
+     *  in which case the elements before it will have been converted
+     * @throws ArithmeticException if numeric overflow occurs
+     */
+    public void toEpochMillis(long[] localEpochMillis, long[] epochMillis, int offset, int length, TransitionPolicy policy) {
+        checkRange(localEpochMillis, epochMillis, offset, length);
+        Jdk8Methods.requireNonNull(policy, "policy");
+        convertFromLocal(localEpochMillis, epochMillis, offset, length, 1000, policy);
+    }
+
+    private static void checkRange(long[] source, long[] destination, int offset, int length) {
+        Jdk8Methods.requireNonNull(source, "source");
+        Jdk8Methods.requireNonNull(destination, "destination");
+        if (offset < 0 || length < 0 || offset > source.length - length || offset > destination.length - length) {
+            throw new IndexOutOfBoundsException("Invalid range: offset " + offset + ", length " + length);
+        }
+    }
+
+    /**
+     * Converts a range of instant values to local values.
+     * <p>
+     * This implementation converts each element separately.
+     *
+     * @param source  the values to convert, not null
+     * @param destination  the array to store the results in, not null
+     * @param offset  the index of the first element, validated
+     * @param length  the number of elements, validated
+     * @param unitsPerSecond  the number of units in a second, 1 or 1000
+     */
+    void convertToLocal(long[] source, long[] destination, int offset, int length, int unitsPerSecond) {
+        for (int i = offset; i < offset + length; i++) {
+            long value = source[i];
+            int offsetSecs = getOffsetSeconds(Jdk8Methods.floorDiv(value, unitsPerSecond));
+            destination[i] = Jdk8Methods.safeAdd(value, (long) offsetSecs * unitsPerSecond);
+        }
+    }
+
+    /**
+     * Converts a range of local values to instant values.
+     * <p>
+     * This implementation converts each element separately.
+     *
+     * @param source  the values to convert, not null
+     * @param destination  the array to store the results in, not null
+     * @param offset  the index of the first element, validated
+     * @param length  the number of elements, validated
+     * @param unitsPerSecond  the number of units in a second, 1 or 1000
+     * @param policy  the policy for a gap or overlap, not null
+     */
+    void convertFromLocal(long[] source, long[] destination, int offset, int length, int unitsPerSecond, TransitionPolicy policy) {
+        for (int i = offset; i < offset + length; i++) {
+            long value = source[i];
+            long localSecs = Jdk8Methods.floorDiv(value, unitsPerSecond);
+            int offsetSecs;
+            if (policy == TransitionPolicy.OFFSET_BEFORE) {
+                offsetSecs = getOffsetSecondsForLocal(localSecs);
+            } else {
+                LocalDateTime dateTime = LocalDateTime.ofEpochSecond(localSecs, 0, ZoneOffset.UTC);
+                ZoneOffsetTransition trans = getTransition(dateTime);
+                if (trans == null) {
+                    offsetSecs = getOffset(dateTime).getTotalSeconds();
+                } else {
+                    offsetSecs = policy.resolve(localSecs, trans.getOffsetBefore().getTotalSeconds(), trans.getOffsetAfter().getTotalSeconds());
+                }
+            }
+            destination[i] = Jdk8Methods.safeSubtract(value, (long) offsetSecs * unitsPerSecond);
+        }
+    }
+
     //-----------------------------------------------------------------------
     /**
      * Gets the standard offset for the specified instant in this zone.
@@ -334,6 +517,52 @@ public abstract class ZoneRules {
      */
     public abstract ZoneOffsetTransition previousTransition(Instant instant);
 
+    /**
+     * Gets the transitions from the start instant inclusive to the end instant exclusive.
+     * <p>
+     * This returns an iterator over the transitions, in order, including both the
+     * fully defined transitions and those generated by the transition rules.
+     * The transitions are found as the iterator advances, so this is suitable for
+     * ranges far into the future where the number of transitions is large.
+     * <p>
+     * The iterator will be empty for fixed offset rules, or if the end is not after the start.
+     * The iterator does not support removal.
+     *
+     * @param startInclusive  the start instant, inclusive, not null
+     * @param endExclusive  the end instant, exclusive, not null
+     * @return an iterator over the transitions in the range, not null
+     */
+    public Iterator<ZoneOffsetTransition> transitionsBetween(Instant startInclusive, Instant endExclusive) {
+        Jdk8Methods.requireNonNull(startInclusive, "startInclusive");
+        Jdk8Methods.requireNonNull(endExclusive, "endExclusive");
+        return new TransitionIterator(this, toStartSecond(startInclusive), toEndSecond(endExclusive));
+    }
+
+    /**
+     * Converts the start of a range to the first epoch-second in the range.
+     * <p>
+     * Transitions always occur on a whole second, so a start with nanoseconds
+     * excludes a transition at the start second.
+     *
+     * @param startInclusive  the start instant, not null
+     * @return the first epoch-second in the range
+     */
+    static long toStartSecond(Instant startInclusive) {
+        long epochSec = startInclusive.getEpochSecond();
+        return (startInclusive.getNano() > 0 ? epochSec + 1 : epochSec);
+    }
+
+    /**
+     * Converts the end of a range to the epoch-second after the last in the range.
+     *
+     * @param endExclusive  the end instant, not null
+     * @return the epoch-second after the range
+     */
+    static long toEndSecond(Instant endExclusive) {
+        long epochSec = endExclusive.getEpochSecond();
+        return (endExclusive.getNano() > 0 ? epochSec + 1 : epochSec);
+    }
+
     /**
      * Gets the complete list of fully defined transitions.
      * <p>
@@ -395,6 +624,113 @@ public abstract class ZoneRules {
     @Override
     public abstract int hashCode();
 
+    //-----------------------------------------------------------------------
+    /**
+     * The policy used when converting a local value in a gap or overlap to an instant.
+     * <p>
+     * In a gap, such as when clocks are set forward in spring, the local value does not exist.
+     * In an overlap, such as when clocks are set back in autumn, the local value occurs twice.
+     */
+    public static enum TransitionPolicy {
+        /**
+         * Uses the offset before the transition.
+         * <p>
+         * In an overlap, this is the earlier of the two instants.
+         * In a gap, this results in the local value being moved later by the length of the gap,
+         * matching {@code ZonedDateTime.of(LocalDateTime, ZoneId)}.
+         */
+        OFFSET_BEFORE,
+        /**
+         * Uses the offset after the transition.
+         * <p>
+         * In an overlap, this is the later of the two instants.
+         * In a gap, this results in the local value being moved earlier by the length of the gap.
+         */
+        OFFSET_AFTER,
+        /**
+         * Rejects a local value in a gap or overlap by throwing {@code DateTimeException}.
+         */
+        STRICT;
+
+        /**
+         * Resolves the offset for a local epoch-second in a gap or overlap.
+         *
+         * @param localEpochSecond  the local epoch-second, used for the error message
+         * @param offsetBefore  the offset before the transition in seconds
+         * @param offsetAfter  the offset after the transition in seconds
+         * @return the offset in seconds
+         * @throws DateTimeException if this policy is strict
+         */
+        int resolve(long localEpochSecond, int offsetBefore, int offsetAfter) {
+            switch (this) {
+                case OFFSET_BEFORE:
+                    return offsetBefore;
+                case OFFSET_AFTER:
+                    return offsetAfter;
+                default:
+                    LocalDateTime dateTime = LocalDateTime.ofEpochSecond(localEpochSecond, 0, ZoneOffset.UTC);
+                    if (offsetAfter > offsetBefore) {
+                        throw new DateTimeException("LocalDateTime '" + dateTime +
+                                "' does not exist due to a gap in the local time-line");
+                    }
+                    throw new DateTimeException("LocalDateTime '" + dateTime +
+                            "' is ambiguous due to an overlap in the local time-line");
+            }
+        }
+    }
+
+    //-----------------------------------------------------------------------
+    /**
+     * Iterator over a range of transitions using {@link ZoneRules#nextTransition(Instant)}.
+     */
+    private static final class TransitionIterator implements Iterator<ZoneOffsetTransition> {
+        /**
+         * The rules.
+         */
+        private final ZoneRules rules;
+        /**
+         * The epoch-second after the range.
+         */
+        private final long end;
+        /**
+         * The next transition, null if none.
+         */
+        private ZoneOffsetTransition next;
+
+        TransitionIterator(ZoneRules rules, long start, long end) {
+            this.rules = rules;
+            this.end = end;
+            if (start < end) {
+                long before = Math.max(start - 1, Instant.MIN.getEpochSecond());
+                advance(rules.nextTransition(Instant.ofEpochSecond(before)));
+            }
+        }
+
+        private void advance(ZoneOffsetTransition trans) {
+            next = (trans != null && trans.toEpochSecond() < end ? trans : null);
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public ZoneOffsetTransition next() {
+            ZoneOffsetTransition trans = next;
+            if (trans == null) {
+                throw new NoSuchElementException();
+            }
+            advance(rules.nextTransition(trans.getInstant()));
+            return trans;
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+    }
+
     //-----------------------------------------------------------------------
     /**
      * Fixed time-zone.
@@ -404,6 +740,8 @@ public abstract class ZoneRules {
         private static final long serialVersionUID = -8733721350312276297L;
         /** The offset. */
         private final ZoneOffset offset;
+        /** The list of valid offsets, lazily created. */
+        private transient List<ZoneOffset> validOffsets;
 
         /**
          * Constructor.
@@ -432,7 +770,23 @@ public abstract class ZoneRules {
 
         @Override
         public List<ZoneOffset> getValidOffsets(LocalDateTime localDateTime) {
-            return Collections.singletonList(offset);
+            // racy single-check is safe as the list is immutable
+            List<ZoneOffset> list = validOffsets;
+            if (list == null) {
+                list = Collections.singletonList(offset);
+                validOffsets = list;
+            }
+            return list;
+        }
+
+        @Override
+        public int getOffsetSeconds(long epochSecond) {
+            return offset.getTotalSeconds();
+        }
+
+        @Override
+        public int getOffsetSecondsForLocal(long localEpochSecond) {
+            return offset.getTotalSeconds();
         }
 
         @Override
@@ -440,6 +794,22 @@ public abstract class ZoneRules {
             return null;
         }
 
+        @Override
+        void convertToLocal(long[] source, long[] destination, int offset, int length, int unitsPerSecond) {
+            long offsetUnits = (long) this.offset.getTotalSeconds() * unitsPerSecond;
+            for (int i = offset; i < offset + length; i++) {
+                destination[i] = Jdk8Methods.safeAdd(source[i], offsetUnits);
+            }
+        }
+
+        @Override
+        void convertFromLocal(long[] source, long[] destination, int offset, int length, int unitsPerSecond, TransitionPolicy policy) {
+            long offsetUnits = (long) this.offset.getTotalSeconds() * unitsPerSecond;
+            for (int i = offset; i < offset + length; i++) {
+                destination[i] = Jdk8Methods.safeSubtract(source[i], offsetUnits);
+            }
+        }
+
         @Override
         public boolean isValidOffset(LocalDateTime dateTime, ZoneOffset offset) {
             return this.offset.equals(offset);
@@ -472,6 +842,13 @@ public abstract class ZoneRules {
             return null;
         }
 
+        @Override
+        public Iterator<ZoneOffsetTransition> transitionsBetween(Instant startInclusive, Instant endExclusive) {
+            Jdk8Methods.requireNonNull(startInclusive, "startInclusive");
+            Jdk8Methods.requireNonNull(endExclusive, "endExclusive");
+            return Collections.<ZoneOffsetTransition>emptyList().iterator();
+        }
+
         @Override
         public List<ZoneOffsetTransition> getTransitions() {
             return Collections.emptyList();
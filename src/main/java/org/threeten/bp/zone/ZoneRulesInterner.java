@@ -0,0 +1,199 @@
+/*
+ * Copyright (c) 2007-present, Stephen Colebourne & Michael Nascimento Santos
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *  * Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ *  * Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ *  * Neither the name of JSR-310 nor the names of its contributors
+ *    may be used to endorse or promote products derived from this software
+ *    without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.threeten.bp.zone;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Interns decoded zone rules and the arrays they hold, so that equal content is held once.
+ * <p>
+ * The same rules are frequently decoded more than once, such as by several providers,
+ * from several files, or for several versions held in separate files.
+ * Different zones also hold equal arrays, such as the standard offsets or the last rules
+ * of the zones in one country. Interning allows all of these to share one instance.
+ * <p>
+ * Instances are only weakly held, thus interning does not keep otherwise unused rules alive.
+ * <p>
+ * This class is thread-safe.
+ */
+final class ZoneRulesInterner {
+
+    /**
+     * The interned values, each key also being the value.
+     */
+    private static final Map<Entry, Entry> ENTRIES = new HashMap<Entry, Entry>();
+    /**
+     * The queue of entries whose value has been collected.
+     */
+    private static final ReferenceQueue<Object> QUEUE = new ReferenceQueue<Object>();
+
+    /**
+     * Restricted constructor.
+     */
+    private ZoneRulesInterner() {
+    }
+
+    //-----------------------------------------------------------------------
+    /**
+     * Interns the rules, returning an equal instance if one is already held.
+     *
+     * @param rules  the rules to intern, not null
+     * @return the interned rules, not null
+     */
+    static ZoneRules intern(ZoneRules rules) {
+        return (ZoneRules) internObject(rules);
+    }
+
+    /**
+     * Interns an array, returning an array with equal content if one is already held.
+     * <p>
+     * The array must not be altered once interned.
+     *
+     * @param array  the array to intern, not null
+     * @return the interned array, not null
+     */
+    static long[] intern(long[] array) {
+        return (long[]) internObject(array);
+    }
+
+    /**
+     * Interns an array, returning an array with equal content if one is already held.
+     * <p>
+     * The array must not be altered once interned.
+     *
+     * @param <T>  the type of the array element
+     * @param array  the array to intern, not null
+     * @return the interned array, not null
+     */
+    @SuppressWarnings("unchecked")
+    static <T> T[] intern(T[] array) {
+        return (T[]) internObject(array);
+    }
+
+    private static Object internObject(Object value) {
+        Entry probe = new Entry(value, null);
+        synchronized (ENTRIES) {
+            expunge();
+            Entry entry = ENTRIES.get(probe);
+            if (entry != null) {
+                Object existing = entry.get();
+                if (existing != null) {
+                    return existing;
+                }
+                ENTRIES.remove(entry);
+            }
+            Entry added = new Entry(value, QUEUE);
+            ENTRIES.put(added, added);
+            return value;
+        }
+    }
+
+    /**
+     * Removes the entries whose value has been collected.
+     */
+    private static void expunge() {
+        Object ref;
+        while ((ref = QUEUE.poll()) != null) {
+            ENTRIES.remove(ref);
+        }
+    }
+
+    /**
+     * Gets the number of interned values, for testing.
+     *
+     * @return the number of values
+     */
+    static int size() {
+        synchronized (ENTRIES) {
+            expunge();
+            return ENTRIES.size();
+        }
+    }
+
+    //-----------------------------------------------------------------------
+    /**
+     * An entry in the map, weakly referencing the value and comparing by its content.
+     * An entry whose value has been collected is only equal to itself.
+     */
+    private static final class Entry extends WeakReference<Object> {
+        /** The hash code of the content, retained after collection. */
+        private final int hash;
+
+        Entry(Object value, ReferenceQueue<Object> queue) {
+            super(value, queue);
+            this.hash = contentHashCode(value);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (obj instanceof Entry) {
+                Entry other = (Entry) obj;
+                Object value = get();
+                Object otherValue = other.get();
+                return hash == other.hash && value != null && otherValue != null &&
+                        value.getClass() == otherValue.getClass() && contentEquals(value, otherValue);
+            }
+            return false;
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        private static int contentHashCode(Object value) {
+            if (value instanceof long[]) {
+                return Arrays.hashCode((long[]) value);
+            } else if (value instanceof Object[]) {
+                return Arrays.hashCode((Object[]) value);
+            }
+            return value.hashCode();
+        }
+
+        private static boolean contentEquals(Object value, Object otherValue) {
+            if (value instanceof long[]) {
+                return Arrays.equals((long[]) value, (long[]) otherValue);
+            } else if (value instanceof Object[]) {
+                return Arrays.equals((Object[]) value, (Object[]) otherValue);
+            }
+            return value.equals(otherValue);
+        }
+    }
+
+}
@@ -42,6 +42,7 @@ import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.threeten.bp.DateTimeException;
 import org.threeten.bp.ZoneId;
@@ -83,9 +84,22 @@ public abstract class ZoneRulesProvider {
      * The lookup from zone region ID to provider.
      */
     private static final ConcurrentMap<String, ZoneRulesProvider> ZONES = new ConcurrentHashMap<String, ZoneRulesProvider>(512, 0.75f, 2);
+    /**
+     * The number of times that the available zone IDs or their rules have changed.
+     */
+    private static final AtomicInteger CHANGE_COUNT = new AtomicInteger();
+    /**
+     * The cache of rules from providers with immutable rules, keyed by zone region ID.
+     * This is replaced as a whole when rules change, so a lookup in progress
+     * cannot add stale rules to the new cache.
+     */
+    private static volatile ConcurrentMap<String, ZoneRules> RESOLVED = createResolvedCache();
     static {
-        ServiceLoader<ZoneRulesProvider> sl = ServiceLoader.load(ZoneRulesProvider.class, ZoneRulesProvider.class.getClassLoader());
         List<ZoneRulesProvider> loaded = new ArrayList<ZoneRulesProvider>();
+        ZoneRulesProvider defaultProvider = createDefaultProvider();
+        registerProvider0(defaultProvider);
+        loaded.add(defaultProvider);
+        ServiceLoader<ZoneRulesProvider> sl = ServiceLoader.load(ZoneRulesProvider.class, ZoneRulesProvider.class.getClassLoader());
         Iterator<ZoneRulesProvider> it = sl.iterator();
         while (it.hasNext()) {
             ZoneRulesProvider provider;
@@ -98,11 +112,42 @@ public abstract class ZoneRulesProvider {
                 throw ex;
             }
             registerProvider0(provider);
+            loaded.add(provider);
         }
         // CopyOnWriteList could be slow if lots of providers and each added individually
         PROVIDERS.addAll(loaded);
     }
 
+    /**
+     * Creates the default provider.
+     * <p>
+     * This is {@link TzdbZoneRulesProvider} unless the system property
+     * {@code org.threeten.bp.zone.DefaultZoneRulesProvider} names another class,
+     * such as {@link MappedTzdbZoneRulesProvider}, that has a public no-args constructor.
+     *
+     * @return the default provider, not null
+     * @throws ZoneRulesException if the named provider cannot be created
+     */
+    private static ZoneRulesProvider createDefaultProvider() {
+        String className = null;
+        try {
+            className = System.getProperty("org.threeten.bp.zone.DefaultZoneRulesProvider");
+        } catch (SecurityException ex) {
+            // use the standard provider
+        }
+        if (className == null) {
+            return new TzdbZoneRulesProvider();
+        }
+        try {
+            Class<?> cls = Class.forName(className, true, ZoneRulesProvider.class.getClassLoader());
+            return ZoneRulesProvider.class.cast(cls.newInstance());
+        } catch (ZoneRulesException ex) {
+            throw ex;
+        } catch (Exception ex) {
+            throw new ZoneRulesException("Unable to create default time-zone rules provider: " + className, ex);
+        }
+    }
+
     //-------------------------------------------------------------------------
     /**
      * Gets the set of available zone IDs.
@@ -140,7 +185,17 @@ public abstract class ZoneRulesProvider {
      */
     public static ZoneRules getRules(String zoneId, boolean forCaching) {
         Jdk8Methods.requireNonNull(zoneId, "zoneId");
-        return getProvider(zoneId).provideRules(zoneId, forCaching);
+        ConcurrentMap<String, ZoneRules> resolved = RESOLVED;
+        ZoneRules rules = resolved.get(zoneId);
+        if (rules != null) {
+            return rules;
+        }
+        ZoneRulesProvider provider = getProvider(zoneId);
+        rules = provider.provideRules(zoneId, forCaching);
+        if (rules != null && provider.provideImmutableRules()) {
+            resolved.putIfAbsent(zoneId, rules);
+        }
+        return rules;
     }
 
     /**
@@ -202,6 +257,9 @@ public abstract class ZoneRulesProvider {
      * <p>
      * To ensure the integrity of time-zones already created, there is no way
      * to deregister providers.
+     * <p>
+     * To register many providers, combine them in a {@link LayeredZoneRulesProvider}
+     * and register that, which avoids the cost of registering each individually.
      *
      * @param provider  the provider to register, not null
      * @throws ZoneRulesException if a region is already registered
@@ -210,6 +268,38 @@ public abstract class ZoneRulesProvider {
         Jdk8Methods.requireNonNull(provider, "provider");
         registerProvider0(provider);
         PROVIDERS.add(provider);
+        CHANGE_COUNT.incrementAndGet();
+    }
+
+    /**
+     * Registers a zone rules provider that takes priority over those already registered.
+     * <p>
+     * This adds a new provider to those currently available.
+     * For each zone ID it supplies, this provider replaces the provider currently
+     * registered, if any. This allows patched rules for a few zones to be used in
+     * preference to those of the default provider. To combine several providers
+     * with a defined priority, register a {@link LayeredZoneRulesProvider}.
+     * <p>
+     * Region-based {@code ZoneId} instances obtain the new rules the next time their
+     * rules are queried, however the offset stored in any {@link ZonedDateTime}
+     * may be invalid for the zone ID, as with {@link #refresh()}.
+     * The replaced provider remains registered and continues to be refreshed.
+     *
+     * @param provider  the provider to register, not null
+     * @throws ZoneRulesException if unable to complete the registration
+     */
+    public static void registerOverrideProvider(ZoneRulesProvider provider) {
+        Jdk8Methods.requireNonNull(provider, "provider");
+        Set<String> zoneIds = provider.provideZoneIds();
+        for (String zoneId : zoneIds) {
+            Jdk8Methods.requireNonNull(zoneId, "zoneId");
+        }
+        for (String zoneId : zoneIds) {
+            ZONES.put(zoneId, provider);
+        }
+        PROVIDERS.add(provider);
+        RESOLVED = createResolvedCache();
+        CHANGE_COUNT.incrementAndGet();
     }
 
     /**
@@ -248,11 +338,69 @@ public abstract class ZoneRulesProvider {
     public static boolean refresh() {
         boolean changed = false;
         for (ZoneRulesProvider provider : PROVIDERS) {
-            changed |= provider.provideRefresh();
+            if (provider.provideRefresh()) {
+                provider.registerNewZoneIds();
+                changed = true;
+            }
+        }
+        if (changed) {
+            RESOLVED = createResolvedCache();
+            CHANGE_COUNT.incrementAndGet();
         }
         return changed;
     }
 
+    /**
+     * Creates an empty cache of rules from providers with immutable rules.
+     *
+     * @return the cache, not null
+     */
+    private static ConcurrentMap<String, ZoneRules> createResolvedCache() {
+        return new ConcurrentHashMap<String, ZoneRules>(512, 0.75f, 4);
+    }
+
+    /**
+     * Gets the number of times that the available zone IDs or their rules have changed.
+     * <p>
+     * The count increases whenever a provider is registered, {@link #refresh()} finds
+     * new rules, or a provider reports that its rules changed by calling {@link #notifyRulesChanged()}.
+     * It allows a cache of rules, such as that held by a region-based {@code ZoneId},
+     * or a cache derived from the available zone IDs, to be checked for staleness cheaply,
+     * looking up the rules again if the count differs.
+     *
+     * @return the change count
+     */
+    public static int getChangeCount() {
+        return CHANGE_COUNT.get();
+    }
+
+    /**
+     * Notifies that the rules of this provider have changed outside of {@link #refresh()}.
+     * <p>
+     * This is intended for dynamic providers that load new rules in the background.
+     * Any new zone IDs are registered, and the change count is increased so that
+     * region-based {@code ZoneId} instances obtain the new rules.
+     * The provider must already be returning the new rules when this is called.
+     */
+    protected final void notifyRulesChanged() {
+        registerNewZoneIds();
+        RESOLVED = createResolvedCache();
+        CHANGE_COUNT.incrementAndGet();
+    }
+
+    /**
+     * Registers zone IDs added to this provider since it was registered.
+     * <p>
+     * IDs already registered by another provider are ignored.
+     */
+    private void registerNewZoneIds() {
+        if (PROVIDERS.contains(this)) {
+            for (String zoneId : provideZoneIds()) {
+                ZONES.putIfAbsent(zoneId, this);
+            }
+        }
+    }
+
     //-----------------------------------------------------------------------
     /**
      * Constructor.
@@ -329,4 +477,21 @@ public abstract class ZoneRulesProvider {
         return false;
     }
 
+    /**
+     * SPI method to check if the rules of this provider never change.
+     * <p>
+     * If this returns true, the rules returned by {@link #provideRules} may be cached
+     * by the system, keyed by zone ID, until {@link ZoneRulesProvider#refresh()} finds
+     * new rules. Repeated lookups of the same zone ID then do not call this provider.
+     * Providers that prevent caching, or that change their rules outside of a refresh
+     * without calling {@link #notifyRulesChanged()}, must return false.
+     * <p>
+     * This implementation returns false.
+     *
+     * @return true if the rules for a zone ID never change
+     */
+    protected boolean provideImmutableRules() {
+        return false;
+    }
+
 }
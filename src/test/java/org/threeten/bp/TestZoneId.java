@@ -34,17 +34,24 @@ package org.threeten.bp;
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertFalse;
 import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNotSame;
+import static org.testng.Assert.assertSame;
 import static org.testng.Assert.assertTrue;
 
 import java.io.IOException;
 import java.lang.reflect.Field;
 import java.lang.reflect.Modifier;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
 import java.util.SimpleTimeZone;
 import java.util.TimeZone;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.testng.annotations.DataProvider;
 import org.testng.annotations.Test;
@@ -53,6 +60,7 @@ import org.threeten.bp.temporal.TemporalAccessor;
 import org.threeten.bp.zone.ZoneOffsetTransition;
 import org.threeten.bp.zone.ZoneRules;
 import org.threeten.bp.zone.ZoneRulesException;
+import org.threeten.bp.zone.ZoneRulesProvider;
 
 /**
  * Test ZoneId.
@@ -396,6 +404,120 @@ public class TestZoneId extends AbstractTest {
         ZoneId.of("Unknown");
     }
 
+    public void test_of_string_sameInstance() {
+        assertSame(ZoneId.of("Europe/London"), ZoneId.of("Europe/London"));
+        assertSame(ZoneId.of("Europe/London").getRules(), ZoneId.of("Europe/London").getRules());
+    }
+
+    public void test_of_string_UTC_sameInstance() {
+        assertSame(ZoneId.of("UTC"), ZoneId.of("UTC"));
+        assertSame(ZoneId.of("GMT"), ZoneId.of("GMT"));
+        assertSame(ZoneId.of("UT"), ZoneId.of("UT"));
+        assertEquals(ZoneId.of("UTC").getRules(), ZoneOffset.UTC.getRules());
+    }
+
+    public void test_ofId_lenient_unknownNotCached() {
+        assertNotSame(ZoneRegion.ofId("Lenient/Unknown", false), ZoneRegion.ofId("Lenient/Unknown", false));
+    }
+
+    public void test_ofId_lenient_rulesBoundWhenFound() {
+        ZoneRegion test = ZoneRegion.ofId("Lenient/Late", false);
+        try {
+            test.getRules();
+            throw new AssertionError("Expected ZoneRulesException");
+        } catch (ZoneRulesException ex) {
+            // expected
+        }
+        MockLateProvider provider = new MockLateProvider();
+        ZoneRulesProvider.registerProvider(provider);
+        ZoneRules rules = ZoneId.of("Europe/London").getRules();
+        assertEquals(test.getRules(), rules);
+        assertEquals(test.getRules(), rules);
+        assertEquals(provider.lookups.get(), 1);
+    }
+
+    public void test_getRules_staleRulesKeptUntilNextChange() {
+        MockFlakyProvider provider = new MockFlakyProvider("Lenient/Flaky", false);
+        ZoneRulesProvider.registerProvider(provider);
+        ZoneRules rules = ZoneId.of("Europe/London").getRules();
+        ZoneRegion test = ZoneRegion.ofId("Lenient/Flaky", false);
+        assertEquals(test.getRules(), rules);
+        int lookups = provider.lookups.get();
+        provider.fail = true;
+        provider.changed();
+        for (int i = 0; i < 3; i++) {
+            assertEquals(test.getRules(), rules);
+        }
+        assertEquals(provider.lookups.get(), lookups + 1);
+        provider.changed();
+        assertEquals(test.getRules(), rules);
+        assertEquals(provider.lookups.get(), lookups + 2);
+    }
+
+    public void test_getRules_uncachedRulesAskedOnce() {
+        MockFlakyProvider provider = new MockFlakyProvider("Lenient/Uncached", true);
+        ZoneRulesProvider.registerProvider(provider);
+        ZoneRules rules = ZoneId.of("Europe/London").getRules();
+        ZoneRegion test = ZoneRegion.ofId("Lenient/Uncached", false);
+        assertEquals(test.getRules(), rules);
+        int lookups = provider.lookups.get();
+        for (int i = 0; i < 3; i++) {
+            assertEquals(test.getRules(), rules);
+        }
+        assertEquals(provider.lookups.get(), lookups + 3);
+    }
+
+    static class MockFlakyProvider extends ZoneRulesProvider {
+        final AtomicInteger lookups = new AtomicInteger();
+        final String zoneId;
+        final boolean preventCaching;
+        volatile boolean fail;
+        MockFlakyProvider(String zoneId, boolean preventCaching) {
+            this.zoneId = zoneId;
+            this.preventCaching = preventCaching;
+        }
+        void changed() {
+            notifyRulesChanged();
+        }
+        @Override
+        protected Set<String> provideZoneIds() {
+            return Collections.singleton(zoneId);
+        }
+        @Override
+        protected NavigableMap<String, ZoneRules> provideVersions(String zoneId) {
+            NavigableMap<String, ZoneRules> result = new TreeMap<String, ZoneRules>();
+            result.put("Version", ZoneId.of("Europe/London").getRules());
+            return result;
+        }
+        @Override
+        protected ZoneRules provideRules(String zoneId, boolean forCaching) {
+            lookups.incrementAndGet();
+            if (fail) {
+                throw new ZoneRulesException("Unavailable: " + zoneId);
+            }
+            return (preventCaching && forCaching ? null : ZoneId.of("Europe/London").getRules());
+        }
+    }
+
+    static class MockLateProvider extends ZoneRulesProvider {
+        final AtomicInteger lookups = new AtomicInteger();
+        @Override
+        protected Set<String> provideZoneIds() {
+            return Collections.singleton("Lenient/Late");
+        }
+        @Override
+        protected NavigableMap<String, ZoneRules> provideVersions(String zoneId) {
+            NavigableMap<String, ZoneRules> result = new TreeMap<String, ZoneRules>();
+            result.put("Version", ZoneId.of("Europe/London").getRules());
+            return result;
+        }
+        @Override
+        protected ZoneRules provideRules(String zoneId, boolean forCaching) {
+            lookups.incrementAndGet();
+            return ZoneId.of("Europe/London").getRules();
+        }
+    }
+
     //-------------------------------------------------------------------------
     // TODO: test by deserialization
 //    public void test_ofUnchecked_string_invalidNotChecked() {
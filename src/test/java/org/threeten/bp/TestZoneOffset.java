@@ -398,6 +398,20 @@ public class TestZoneOffset extends AbstractDateTimeTest {
         assertEquals(ZoneOffset.ofTotalSeconds(-18 * 60 * 60), ZoneOffset.ofHours(-18));
     }
 
+    @Test
+    public void test_factory_ofTotalSeconds_quarterHoursCached() {
+        for (int totalSeconds = -18 * 60 * 60; totalSeconds <= 18 * 60 * 60; totalSeconds += 15 * 60) {
+            ZoneOffset test = ZoneOffset.ofTotalSeconds(totalSeconds);
+            assertEquals(test.getTotalSeconds(), totalSeconds);
+            assertSame(ZoneOffset.ofTotalSeconds(totalSeconds), test);
+            assertSame(ZoneOffset.of(test.getId()), test);
+        }
+        assertSame(ZoneOffset.ofTotalSeconds(0), ZoneOffset.UTC);
+        assertSame(ZoneOffset.ofTotalSeconds(-18 * 60 * 60), ZoneOffset.MIN);
+        assertSame(ZoneOffset.ofTotalSeconds(18 * 60 * 60), ZoneOffset.MAX);
+        assertEquals(ZoneOffset.ofTotalSeconds(60 * 60 + 60).getId(), "+01:01");
+    }
+
     @Test(expectedExceptions=DateTimeException.class)
     public void test_factory_ofTotalSeconds_tooLarge() {
         ZoneOffset.ofTotalSeconds(18 * 60 * 60 + 1);
@@ -473,6 +487,13 @@ public class TestZoneOffset extends AbstractDateTimeTest {
         assertEquals(offset.getRules().getTransitionRules().size(), 0);
     }
 
+    @Test
+    public void test_getRules_sameInstance() {
+        ZoneOffset offset = ZoneOffset.ofHoursMinutesSeconds(1, 2, 3);
+        assertSame(offset.getRules(), offset.getRules());
+        assertSame(ZoneOffset.ofHours(2).getRules(), ZoneOffset.ofHours(2).getRules());
+    }
+
     //-----------------------------------------------------------------------
     // get(TemporalField)
     //-----------------------------------------------------------------------
@@ -32,6 +32,7 @@
 package org.threeten.bp;
 
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertSame;
 import static org.testng.Assert.assertTrue;
 import static org.threeten.bp.Month.JANUARY;
 import static org.threeten.bp.temporal.ChronoField.ALIGNED_DAY_OF_WEEK_IN_MONTH;
@@ -347,6 +348,15 @@ public class TestZonedDateTime extends AbstractDateTimeTest {
         check(test, 2008, 6, 30, 11, 30, 10, 35, OFFSET_0200, ZONE_PARIS);
     }
 
+    @Test
+    public void factory_ofInstant_Instant_ZR_offsetFromRules() {
+        // the local mean time offset is not a whole number of quarter hours
+        Instant instant = Instant.ofEpochSecond(-3000000000L);
+        ZonedDateTime test = ZonedDateTime.ofInstant(instant, ZONE_PARIS);
+        assertEquals(test.getOffset(), ZoneOffset.ofHoursMinutesSeconds(0, 9, 21));
+        assertSame(test.getOffset(), ZONE_PARIS.getRules().getOffset(instant));
+    }
+
     @Test
     public void factory_ofInstant_Instant_ZO() {
         Instant instant = LocalDateTime.of(2008, 6, 30, 11, 30, 10, 45).toInstant(OFFSET_0200);
@@ -0,0 +1,103 @@
+/*
+ * Copyright (c) 2007-present, Stephen Colebourne & Michael Nascimento Santos
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *  * Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ *  * Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ *  * Neither the name of JSR-310 nor the names of its contributors
+ *    may be used to endorse or promote products derived from this software
+ *    without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.threeten.bp.format;
+
+import java.text.NumberFormat;
+import java.text.ParsePosition;
+
+import org.threeten.bp.LocalDateTime;
+import org.threeten.bp.OffsetDateTime;
+import org.threeten.bp.temporal.TemporalQuery;
+
+/**
+ * Test Performance of parsing ISO date-times, compiled and through the general parser.
+ */
+public class PerformanceIsoParse {
+
+    /** Size. */
+    private static final NumberFormat NF = NumberFormat.getIntegerInstance();
+    static {
+        NF.setGroupingUsed(true);
+    }
+    /** The number of texts to parse. */
+    private static final int SIZE = 200000;
+
+    /**
+     * Main.
+     * @param args  the arguments
+     */
+    public static void main(String[] args) {
+        String[] local = new String[SIZE];
+        String[] offset = new String[SIZE];
+        LocalDateTime ldt = LocalDateTime.of(2012, 1, 1, 0, 0, 0, 123000000);
+        for (int i = 0; i < SIZE; i++) {
+            local[i] = ldt.toString();
+            offset[i] = ldt + (i % 2 == 0 ? "Z" : "+05:30");
+            ldt = ldt.plusSeconds(9973);
+        }
+        for (int i = 0; i < 10; i++) {
+            compiled("LocalDateTime", DateTimeFormatter.ISO_LOCAL_DATE_TIME, local, LocalDateTime.FROM);
+            general("LocalDateTime", DateTimeFormatter.ISO_LOCAL_DATE_TIME, local, LocalDateTime.FROM);
+            compiled("OffsetDateTime", DateTimeFormatter.ISO_OFFSET_DATE_TIME, offset, OffsetDateTime.FROM);
+            general("OffsetDateTime", DateTimeFormatter.ISO_OFFSET_DATE_TIME, offset, OffsetDateTime.FROM);
+            System.out.println();
+        }
+    }
+
+    //-----------------------------------------------------------------------
+    private static void compiled(String name, DateTimeFormatter formatter, String[] texts, TemporalQuery<?> query) {
+        long start = System.nanoTime();
+        int total = 0;
+        for (String text : texts) {
+            total += formatter.parse(text, query).hashCode();
+        }
+        long end = System.nanoTime();
+        print(name + " compiled", start, end, texts.length, total);
+    }
+
+    private static void general(String name, DateTimeFormatter formatter, String[] texts, TemporalQuery<?> query) {
+        long start = System.nanoTime();
+        int total = 0;
+        for (String text : texts) {
+            DateTimeParseContext.Parsed parsed = (DateTimeParseContext.Parsed) formatter.parseUnresolved(text, new ParsePosition(0));
+            total += parsed.toBuilder().resolve(formatter.getResolverStyle(), null).build(query).hashCode();
+        }
+        long end = System.nanoTime();
+        print(name + " general", start, end, texts.length, total);
+    }
+
+    private static void print(String name, long start, long end, int count, int total) {
+        System.out.println(name + ": " + NF.format((end - start) / count) + " ns/parse, " +
+                NF.format((end - start) / 1000) + " us total " + total);
+    }
+
+}
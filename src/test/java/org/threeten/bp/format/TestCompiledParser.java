@@ -0,0 +1,258 @@
+/*
+ * Copyright (c) 2007-present, Stephen Colebourne & Michael Nascimento Santos
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *  * Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ *  * Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ *  * Neither the name of JSR-310 nor the names of its contributors
+ *    may be used to endorse or promote products derived from this software
+ *    without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.threeten.bp.format;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.fail;
+import static org.threeten.bp.temporal.ChronoField.DAY_OF_MONTH;
+import static org.threeten.bp.temporal.ChronoField.INSTANT_SECONDS;
+import static org.threeten.bp.temporal.ChronoField.MONTH_OF_YEAR;
+import static org.threeten.bp.temporal.ChronoField.YEAR;
+
+import java.text.ParseException;
+import java.text.ParsePosition;
+
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+import org.threeten.bp.DateTimeException;
+import org.threeten.bp.Instant;
+import org.threeten.bp.LocalDate;
+import org.threeten.bp.LocalDateTime;
+import org.threeten.bp.OffsetDateTime;
+import org.threeten.bp.ZoneOffset;
+import org.threeten.bp.format.DateTimeFormatterBuilder.CompiledParser;
+import org.threeten.bp.format.DateTimeParseContext.Parsed;
+
+/**
+ * Test CompiledParser.
+ */
+@Test
+public class TestCompiledParser {
+
+    private static final DateTimeFormatter[] COMPILED = {
+        DateTimeFormatter.ISO_LOCAL_DATE,
+        DateTimeFormatter.ISO_OFFSET_DATE,
+        DateTimeFormatter.ISO_DATE,
+        DateTimeFormatter.ISO_LOCAL_TIME,
+        DateTimeFormatter.ISO_OFFSET_TIME,
+        DateTimeFormatter.ISO_TIME,
+        DateTimeFormatter.ISO_LOCAL_DATE_TIME,
+        DateTimeFormatter.ISO_OFFSET_DATE_TIME,
+        DateTimeFormatter.ISO_INSTANT,
+        DateTimeFormatter.ofPattern("uuuu-MM-dd HH:mm[:ss]"),
+        DateTimeFormatter.ofPattern("dd/MM/uuuu").withResolverStyle(ResolverStyle.SMART),
+        DateTimeFormatter.ofPattern("HH:mm").withResolverStyle(ResolverStyle.LENIENT),
+    };
+
+    private static final DateTimeFormatter SIGN_ALWAYS = new DateTimeFormatterBuilder()
+        .appendValue(YEAR, 4, 10, SignStyle.ALWAYS).appendLiteral('-')
+        .appendValue(MONTH_OF_YEAR, 2).appendLiteral('-')
+        .appendValue(DAY_OF_MONTH, 2)
+        .toFormatter();
+    private static final DateTimeFormatter OPTIONAL_INSTANT = new DateTimeFormatterBuilder()
+        .optionalStart().appendInstant().optionalEnd()
+        .toFormatter();
+
+    private static final String[] TEXTS = {
+        "2012-06-30", "2012-02-29", "2011-02-29", "2012-04-31", "2012-13-01", "2012-00-10", "0000-01-01",
+        "+12345-01-01", "-2012-06-30", "201-06-30", "2012-6-30", "2012-06-30X", "",
+        "12:30", "12:30:40", "12:30:40.1", "12:30:40.123456789", "12:30:40.1234567891", "12:30:40.",
+        "24:00", "23:59:60", "12:60", "12:30:", "12:30:4", "+1:30",
+        "2012-06-30T12:30", "2012-06-30T12:30:40.5", "2012-06-30t12:30", "2012-06-30 12:30", "2012-06-30T24:00",
+        "2012-06-30T12:30:40Z", "2012-06-30T12:30:40z", "2012-06-30T12:30:40+01:00", "2012-06-30T12:30-05:30",
+        "2012-06-30T12:30:40+01:00:30", "2012-06-30T12:30:40+01:00:", "2012-06-30T12:30:40+01", "2012-06-30T12:30:40+18:00",
+        "2012-06-30T12:30:40+18:01", "2012-06-30T12:30:40+01:60", "2012-06-30T12:30:40-00:00",
+        "2012-06-30Z", "2012-06-30+02:00", "12:30Z", "12:30:40-08:00",
+        "2012-06-30T23:59:60Z", "2012-06-30T24:00:00Z", "2012-06-30T12:30:40.123Z", "2012-06-30T12:30Z",
+        "30/06/2012", "31/04/2012", "2012-06-30 12:30", "2012-06-30 12:30:40", "2012-06-30 12:30:",
+    };
+
+    //-----------------------------------------------------------------------
+    @DataProvider(name = "compiled")
+    Object[][] data_compiled() {
+        Object[][] data = new Object[COMPILED.length][];
+        for (int i = 0; i < COMPILED.length; i++) {
+            data[i] = new Object[] {COMPILED[i]};
+        }
+        return data;
+    }
+
+    @Test(dataProvider = "compiled")
+    public void test_compile(DateTimeFormatter formatter) {
+        assertNotNull(CompiledParser.compile(formatter.toPrinterParser(false)), formatter.toString());
+    }
+
+    public void test_compile_unsupported() {
+        assertNull(CompiledParser.compile(DateTimeFormatter.ISO_ZONED_DATE_TIME.toPrinterParser(false)));
+        assertNull(CompiledParser.compile(DateTimeFormatter.ISO_WEEK_DATE.toPrinterParser(false)));
+        assertNull(CompiledParser.compile(DateTimeFormatter.ISO_ORDINAL_DATE.toPrinterParser(false)));
+        assertNull(CompiledParser.compile(DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss.SSSX").toPrinterParser(false)));
+        assertNull(CompiledParser.compile(DateTimeFormatter.ofPattern("uuuu-MM-dd uuuu").toPrinterParser(false)));
+        assertNull(CompiledParser.compile(DateTimeFormatter.ofPattern("yyyy-MM-dd").toPrinterParser(false)));
+        assertNull(CompiledParser.compile(DateTimeFormatter.ofPattern("MMM d, yyyy").toPrinterParser(false)));
+        assertNull(CompiledParser.compile(SIGN_ALWAYS.toPrinterParser(false)));
+        assertNull(CompiledParser.compile(OPTIONAL_INSTANT.toPrinterParser(false)));
+    }
+
+    public void test_parse_signAlways_needsSign() {
+        try {
+            SIGN_ALWAYS.parse("2024-01-15");
+            fail();
+        } catch (DateTimeParseException ex) {
+            assertEquals(ex.getErrorIndex(), 0);
+        }
+        try {
+            SIGN_ALWAYS.toFormat().parseObject("2024-01-15");
+            fail();
+        } catch (ParseException ex) {
+            assertEquals(ex.getErrorOffset(), 0);
+        }
+        assertEquals(SIGN_ALWAYS.parse("+2024-01-15", LocalDate.FROM), LocalDate.of(2024, 1, 15));
+    }
+
+    public void test_parse_optionalInstant_skipped() {
+        DateTimeBuilder builder = (DateTimeBuilder) OPTIONAL_INSTANT.parse("");
+        assertEquals(builder.isSupported(INSTANT_SECONDS), false);
+        assertEquals(OPTIONAL_INSTANT.parse("2012-06-30T12:30:40Z", Instant.FROM), Instant.ofEpochSecond(1341059440L));
+    }
+
+    //-----------------------------------------------------------------------
+    @Test(dataProvider = "compiled")
+    public void test_parse_sameAsGeneralParse(DateTimeFormatter formatter) {
+        CompiledParser compiled = CompiledParser.compile(formatter.toPrinterParser(false));
+        for (String text : TEXTS) {
+            DateTimeBuilder expected = parseGeneral(formatter, text);
+            DateTimeBuilder test = compiled.parse(text);
+            if (test != null) {
+                String msg = formatter + " " + text;
+                assertNotNull(expected, msg);
+                assertEquals(test.toString(), expected.toString(), msg);
+                assertEquals(test.excessDays, expected.excessDays, msg);
+                assertEquals(test.leapSecond, expected.leapSecond, msg);
+            }
+        }
+    }
+
+    //-----------------------------------------------------------------------
+    private static final String[] OUT_OF_RANGE = {
+        "2012-04-31", "31/04/2012", "24:00", "23:59:60", "2012-06-30T24:00", "2012-06-30T23:59:60",
+        "2012-06-30T24:00:00Z", "2012-06-30T23:59:60Z", "2012-06-30 24:00", "2012-06-30 23:59:60",
+        "2012-06-30T12:30:40+18:01", "2012-06-30T12:30:40-18:01", "2012-06-30+18:01", "12:30-18:01",
+    };
+
+    private static final String[] AT_LIMITS = {
+        "2012-04-30", "30/04/2012", "23:59", "23:59:59", "2012-06-30T23:59:59.999999999",
+        "2012-06-30T12:30:40+18:00", "2012-06-30T12:30:40-18:00", "2012-06-30+18:00", "12:30-18:00",
+        "2012-06-30 23:59", "2012-06-30 23:59:59",
+    };
+
+    @DataProvider(name = "compiledStyles")
+    Object[][] data_compiledStyles() {
+        ResolverStyle[] styles = ResolverStyle.values();
+        Object[][] data = new Object[COMPILED.length * styles.length][];
+        for (int i = 0; i < COMPILED.length; i++) {
+            for (int j = 0; j < styles.length; j++) {
+                data[i * styles.length + j] = new Object[] {COMPILED[i], styles[j]};
+            }
+        }
+        return data;
+    }
+
+    @Test(dataProvider = "compiledStyles")
+    public void test_parse_outOfRange_notCompiled(DateTimeFormatter formatter, ResolverStyle style) {
+        CompiledParser compiled = CompiledParser.compile(formatter.withResolverStyle(style).toPrinterParser(false));
+        for (String text : OUT_OF_RANGE) {
+            assertNull(compiled.parse(text), formatter + " " + style + " " + text);
+        }
+    }
+
+    @Test(dataProvider = "compiledStyles")
+    public void test_parse_sameAsGeneralParse_allStyles(DateTimeFormatter formatter, ResolverStyle style) {
+        DateTimeFormatter styled = formatter.withResolverStyle(style);
+        for (String[] texts : new String[][] {TEXTS, OUT_OF_RANGE, AT_LIMITS}) {
+            for (String text : texts) {
+                String msg = formatter + " " + style + " " + text;
+                DateTimeBuilder expected = parseGeneral(styled, text);
+                DateTimeBuilder test;
+                try {
+                    test = (DateTimeBuilder) styled.parse(text);
+                } catch (DateTimeException ex) {
+                    assertNull(expected, msg);
+                    continue;
+                }
+                assertNotNull(expected, msg);
+                assertEquals(test.toString(), expected.toString(), msg);
+                assertEquals(test.excessDays, expected.excessDays, msg);
+                assertEquals(test.leapSecond, expected.leapSecond, msg);
+            }
+        }
+    }
+
+    private static DateTimeBuilder parseGeneral(DateTimeFormatter formatter, String text) {
+        ParsePosition pos = new ParsePosition(0);
+        Parsed parsed = (Parsed) formatter.parseUnresolved(text, pos);
+        if (parsed == null || pos.getIndex() != text.length()) {
+            return null;
+        }
+        try {
+            return parsed.toBuilder().resolve(formatter.getResolverStyle(), formatter.getResolverFields());
+        } catch (DateTimeException ex) {
+            return null;
+        }
+    }
+
+    //-----------------------------------------------------------------------
+    public void test_parse_compiledIso() {
+        CompiledParser compiled = CompiledParser.compile(DateTimeFormatter.ISO_OFFSET_DATE_TIME.toPrinterParser(false));
+        assertNotNull(compiled.parse("2012-06-30T12:30:40.123456789+01:00"));
+        assertNotNull(compiled.parse("2012-06-30T12:30Z"));
+        assertNull(compiled.parse("2012-06-30t12:30Z"));
+        assertNull(compiled.parse("+12345-06-30T12:30Z"));
+    }
+
+    public void test_parse_results() {
+        assertEquals(LocalDateTime.parse("2012-06-30T12:30:40.5"), LocalDateTime.of(2012, 6, 30, 12, 30, 40, 500000000));
+        assertEquals(OffsetDateTime.parse("2012-06-30T12:30-05:30"),
+                OffsetDateTime.of(2012, 6, 30, 12, 30, 0, 0, ZoneOffset.ofHoursMinutes(-5, -30)));
+        assertEquals(Instant.parse("2012-06-30T12:30:40.123Z"), Instant.ofEpochSecond(1341059440L, 123000000));
+        assertEquals(DateTimeFormatter.ISO_OFFSET_DATE_TIME.parse("2012-06-30T12:30+01:00", Instant.FROM),
+                Instant.ofEpochSecond(1341055800L));
+    }
+
+    @Test(expectedExceptions = DateTimeParseException.class)
+    public void test_parse_invalidFallsBackToError() {
+        LocalDateTime.parse("2012-02-30T12:30");
+    }
+
+}
@@ -0,0 +1,260 @@
+/*
+ * Copyright (c) 2007-present, Stephen Colebourne & Michael Nascimento Santos
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *  * Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ *  * Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ *  * Neither the name of JSR-310 nor the names of its contributors
+ *    may be used to endorse or promote products derived from this software
+ *    without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.threeten.bp.format;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+import static org.threeten.bp.temporal.ChronoField.DAY_OF_MONTH;
+import static org.threeten.bp.temporal.ChronoField.MONTH_OF_YEAR;
+import static org.threeten.bp.temporal.ChronoField.NANO_OF_SECOND;
+import static org.threeten.bp.temporal.ChronoField.YEAR;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import org.testng.annotations.Test;
+import org.threeten.bp.DateTimeException;
+import org.threeten.bp.temporal.IsoFields;
+import org.threeten.bp.temporal.TemporalField;
+
+/**
+ * Test FieldValueMap.
+ */
+@Test
+public class TestFieldValueMap {
+
+    private static final TemporalField WEEK = IsoFields.WEEK_OF_WEEK_BASED_YEAR;
+
+    //-----------------------------------------------------------------------
+    public void test_putValue_getValue() {
+        FieldValueMap test = new FieldValueMap();
+        test.putValue(YEAR, 2012);
+        test.putValue(NANO_OF_SECOND, 123456789);
+        test.putValue(WEEK, 23);
+        assertEquals(test.size(), 3);
+        assertEquals(test.getValue(YEAR), 2012);
+        assertEquals(test.getValue(NANO_OF_SECOND), 123456789);
+        assertEquals(test.getValue(WEEK), 23);
+        assertEquals(test.get(YEAR), Long.valueOf(2012));
+        assertEquals(test.get(WEEK), Long.valueOf(23));
+        assertNull(test.get(MONTH_OF_YEAR));
+        assertTrue(test.containsKey(YEAR));
+        assertTrue(test.containsKey(WEEK));
+        assertFalse(test.containsKey(MONTH_OF_YEAR));
+        assertFalse(test.containsKey(IsoFields.QUARTER_OF_YEAR));
+    }
+
+    @Test(expectedExceptions = DateTimeException.class)
+    public void test_getValue_chronoFieldNotPresent() {
+        new FieldValueMap().getValue(YEAR);
+    }
+
+    @Test(expectedExceptions = DateTimeException.class)
+    public void test_getValue_otherFieldNotPresent() {
+        new FieldValueMap().getValue(WEEK);
+    }
+
+    public void test_removeValue() {
+        FieldValueMap test = new FieldValueMap();
+        test.putValue(YEAR, 2012);
+        test.putValue(WEEK, 23);
+        assertEquals(test.removeValue(YEAR), 2012);
+        assertEquals(test.removeValue(WEEK), 23);
+        assertEquals(test.size(), 0);
+        assertTrue(test.isEmpty());
+    }
+
+    public void test_put_remove_asMap() {
+        FieldValueMap test = new FieldValueMap();
+        assertNull(test.put(YEAR, 2012L));
+        assertEquals(test.put(YEAR, 2013L), Long.valueOf(2012));
+        assertNull(test.put(WEEK, 23L));
+        assertEquals(test.remove(YEAR), Long.valueOf(2013));
+        assertNull(test.remove(YEAR));
+        assertEquals(test.remove(WEEK), Long.valueOf(23));
+        assertNull(test.remove("Other"));
+        assertTrue(test.isEmpty());
+    }
+
+    @Test(expectedExceptions = NullPointerException.class)
+    public void test_put_nullValue() {
+        new FieldValueMap().put(YEAR, null);
+    }
+
+    //-----------------------------------------------------------------------
+    public void test_equalsHashMap() {
+        FieldValueMap test = new FieldValueMap();
+        Map<TemporalField, Long> expected = new HashMap<TemporalField, Long>();
+        test.putValue(DAY_OF_MONTH, 30);
+        expected.put(DAY_OF_MONTH, 30L);
+        test.putValue(WEEK, 23);
+        expected.put(WEEK, 23L);
+        assertEquals(test, expected);
+        assertEquals(expected, test);
+        assertEquals(test.hashCode(), expected.hashCode());
+        assertEquals(new HashMap<TemporalField, Long>(test), expected);
+    }
+
+    public void test_putAll() {
+        FieldValueMap base = new FieldValueMap();
+        base.putValue(YEAR, 2012);
+        base.putValue(WEEK, 23);
+        FieldValueMap test = new FieldValueMap();
+        test.putValue(YEAR, 1);
+        test.putValue(MONTH_OF_YEAR, 6);
+        test.putAll(base);
+        assertEquals(test.size(), 3);
+        assertEquals(test.getValue(YEAR), 2012);
+        assertEquals(test.getValue(MONTH_OF_YEAR), 6);
+        assertEquals(test.getValue(WEEK), 23);
+        base.putValue(WEEK, 24);
+        assertEquals(test.getValue(WEEK), 23);
+    }
+
+    public void test_clear() {
+        FieldValueMap test = new FieldValueMap();
+        test.putValue(YEAR, 2012);
+        test.putValue(WEEK, 23);
+        test.clear();
+        assertEquals(test.size(), 0);
+        assertFalse(test.containsKey(YEAR));
+        assertFalse(test.containsKey(WEEK));
+    }
+
+    //-----------------------------------------------------------------------
+    public void test_iterator_order() {
+        FieldValueMap test = new FieldValueMap();
+        test.putValue(WEEK, 23);
+        test.putValue(YEAR, 2012);
+        test.putValue(DAY_OF_MONTH, 30);
+        List<TemporalField> fields = new ArrayList<TemporalField>(test.keySet());
+        assertEquals(fields, Arrays.<TemporalField>asList(DAY_OF_MONTH, YEAR, WEEK));
+    }
+
+    public void test_iterator_remove() {
+        FieldValueMap test = new FieldValueMap();
+        test.putValue(YEAR, 2012);
+        test.putValue(DAY_OF_MONTH, 30);
+        test.putValue(WEEK, 23);
+        Iterator<Entry<TemporalField, Long>> it = test.entrySet().iterator();
+        while (it.hasNext()) {
+            Entry<TemporalField, Long> entry = it.next();
+            if (entry.getKey() != DAY_OF_MONTH) {
+                it.remove();
+            }
+        }
+        assertEquals(test.size(), 1);
+        assertEquals(test.getValue(DAY_OF_MONTH), 30);
+    }
+
+    @Test(expectedExceptions=ConcurrentModificationException.class)
+    public void test_iterator_putNewFieldWhileIterating() {
+        FieldValueMap test = new FieldValueMap();
+        test.putValue(YEAR, 2012);
+        test.putValue(DAY_OF_MONTH, 30);
+        Iterator<TemporalField> it = test.keySet().iterator();
+        it.next();
+        test.putValue(MONTH_OF_YEAR, 6);
+        it.next();
+    }
+
+    @Test(expectedExceptions=ConcurrentModificationException.class)
+    public void test_iterator_putNewOtherFieldWhileIterating() {
+        FieldValueMap test = new FieldValueMap();
+        test.putValue(YEAR, 2012);
+        test.putValue(DAY_OF_MONTH, 30);
+        Iterator<TemporalField> it = test.keySet().iterator();
+        it.next();
+        test.put(WEEK, 23L);
+        it.next();
+    }
+
+    @Test(expectedExceptions=ConcurrentModificationException.class)
+    public void test_iterator_removeWhileIterating() {
+        FieldValueMap test = new FieldValueMap();
+        test.putValue(YEAR, 2012);
+        test.putValue(DAY_OF_MONTH, 30);
+        test.putValue(WEEK, 23);
+        Iterator<TemporalField> it = test.keySet().iterator();
+        it.next();
+        test.removeValue(YEAR);
+        it.next();
+    }
+
+    public void test_iterator_replaceValueWhileIterating() {
+        FieldValueMap test = new FieldValueMap();
+        test.putValue(YEAR, 2012);
+        test.putValue(DAY_OF_MONTH, 30);
+        test.putValue(WEEK, 23);
+        List<TemporalField> fields = new ArrayList<TemporalField>();
+        for (TemporalField field : test.keySet()) {
+            test.putValue(field, 1);
+            fields.add(field);
+        }
+        assertEquals(fields, Arrays.<TemporalField>asList(DAY_OF_MONTH, YEAR, WEEK));
+        assertEquals(test.getValue(YEAR), 1);
+    }
+
+    public void test_keySet_retainAll() {
+        FieldValueMap test = new FieldValueMap();
+        test.putValue(YEAR, 2012);
+        test.putValue(DAY_OF_MONTH, 30);
+        test.putValue(WEEK, 23);
+        test.keySet().retainAll(Arrays.asList(YEAR, WEEK));
+        assertEquals(test.keySet().size(), 2);
+        assertFalse(test.containsKey(DAY_OF_MONTH));
+    }
+
+    public void test_entry_setValue() {
+        FieldValueMap test = new FieldValueMap();
+        test.putValue(YEAR, 2012);
+        Entry<TemporalField, Long> entry = test.entrySet().iterator().next();
+        assertEquals(entry.setValue(2013L), Long.valueOf(2012));
+        assertEquals(entry.getValue(), Long.valueOf(2013));
+        assertEquals(test.getValue(YEAR), 2013);
+    }
+
+    public void test_toString() {
+        FieldValueMap test = new FieldValueMap();
+        test.putValue(YEAR, 2012);
+        assertEquals(test.toString(), "{Year=2012}");
+    }
+
+}
@@ -34,7 +34,11 @@ package org.threeten.bp.format;
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertTrue;
 
+import java.util.Collections;
+import java.util.Locale;
+import java.util.NavigableMap;
 import java.util.Set;
+import java.util.TreeMap;
 
 import org.testng.annotations.DataProvider;
 import org.testng.annotations.Test;
@@ -42,6 +46,7 @@ import org.threeten.bp.ZoneId;
 import org.threeten.bp.ZoneOffset;
 import org.threeten.bp.format.DateTimeFormatterBuilder.ZoneIdPrinterParser;
 import org.threeten.bp.temporal.TemporalQueries;
+import org.threeten.bp.zone.ZoneRules;
 import org.threeten.bp.zone.ZoneRulesProvider;
 
 /**
@@ -137,6 +142,40 @@ public class TestZoneIdParser extends AbstractTestPrinterParser {
         assertParsed(ZoneId.of("Europe/London"));
     }
 
+    public void test_parse_upperCase_allIds() throws Exception {
+        ZoneIdPrinterParser pp = new ZoneIdPrinterParser(TemporalQueries.zoneId(), null);
+        parseContext.setCaseSensitive(false);
+        for (String id : ZoneRulesProvider.getAvailableZoneIds()) {
+            String text = id.toUpperCase(Locale.ENGLISH) + "!";
+            assertEquals(pp.parse(parseContext, text, 0), id.length(), id);
+            assertTrue(parseContext.toParsed().zone.getId().equalsIgnoreCase(id), id);
+        }
+    }
+
+    public void test_parse_longestMatch_allIds() throws Exception {
+        Set<String> ids = ZoneRulesProvider.getAvailableZoneIds();
+        ZoneIdPrinterParser pp = new ZoneIdPrinterParser(TemporalQueries.zoneId(), null);
+        for (String id : ids) {
+            String text = id + "/X";
+            String expected = null;
+            for (String other : ids) {
+                if (text.startsWith(other) && (expected == null || other.length() > expected.length())) {
+                    expected = other;
+                }
+            }
+            assertEquals(pp.parse(parseContext, text, 0), expected.length(), id);
+            assertParsed(ZoneId.of(expected));
+        }
+    }
+
+    public void test_parse_newlyRegisteredId() throws Exception {
+        ZoneIdPrinterParser pp = new ZoneIdPrinterParser(TemporalQueries.zoneId(), null);
+        assertEquals(pp.parse(parseContext, "Mock/ZoneIdParser", 0), ~0);
+        ZoneRulesProvider.registerProvider(new MockProvider("Mock/ZoneIdParser"));
+        assertEquals(pp.parse(parseContext, "Mock/ZoneIdParser", 0), 17);
+        assertParsed(ZoneId.of("Mock/ZoneIdParser"));
+    }
+
     //-----------------------------------------------------------------------
     public void test_parse_endStringMatch_utc() throws Exception {
         ZoneIdPrinterParser pp = new ZoneIdPrinterParser(TemporalQueries.zoneId(), null);
@@ -177,4 +216,26 @@ public class TestZoneIdParser extends AbstractTestPrinterParser {
         assertEquals(parseContext.toParsed().zone, expectedZone);
     }
 
+    static class MockProvider extends ZoneRulesProvider {
+        final ZoneRules rules = ZoneOffset.ofHours(1).getRules();
+        final String zoneId;
+        MockProvider(String zoneId) {
+            this.zoneId = zoneId;
+        }
+        @Override
+        protected Set<String> provideZoneIds() {
+            return Collections.singleton(zoneId);
+        }
+        @Override
+        protected NavigableMap<String, ZoneRules> provideVersions(String zoneId) {
+            NavigableMap<String, ZoneRules> result = new TreeMap<String, ZoneRules>();
+            result.put("Version", rules);
+            return result;
+        }
+        @Override
+        protected ZoneRules provideRules(String zoneId, boolean forCaching) {
+            return rules;
+        }
+    }
+
 }
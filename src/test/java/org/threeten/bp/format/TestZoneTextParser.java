@@ -0,0 +1,172 @@
+/*
+ * Copyright (c) 2007-present, Stephen Colebourne & Michael Nascimento Santos
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *  * Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ *  * Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ *  * Neither the name of JSR-310 nor the names of its contributors
+ *    may be used to endorse or promote products derived from this software
+ *    without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.threeten.bp.format;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.TimeZone;
+
+import org.testng.annotations.Test;
+import org.threeten.bp.LocalDateTime;
+import org.threeten.bp.ZoneId;
+import org.threeten.bp.ZonedDateTime;
+import org.threeten.bp.format.DateTimeFormatterBuilder.PrefixTree;
+import org.threeten.bp.format.DateTimeFormatterBuilder.ZoneTextPrinterParser;
+
+/**
+ * Test ZoneTextPrinterParser.
+ */
+@Test
+public class TestZoneTextParser extends AbstractTestPrinterParser {
+
+    //-----------------------------------------------------------------------
+    public void test_print_matchesTimeZone() {
+        String[] ids = {"Europe/London", "America/New_York", "Asia/Tokyo", "Australia/Sydney"};
+        Locale[] locales = {Locale.ENGLISH, Locale.FRENCH, Locale.JAPANESE};
+        for (TextStyle style : new TextStyle[] {TextStyle.FULL, TextStyle.SHORT}) {
+            int tzstyle = (style == TextStyle.FULL ? TimeZone.LONG : TimeZone.SHORT);
+            ZoneTextPrinterParser pp = new ZoneTextPrinterParser(style);
+            for (Locale locale : locales) {
+                printContext.setLocale(locale);
+                for (String id : ids) {
+                    ZoneId zone = ZoneId.of(id);
+                    TimeZone tz = TimeZone.getTimeZone(id);
+                    for (int month : new int[] {1, 7, 1}) {
+                        ZonedDateTime zdt = LocalDateTime.of(2012, month, 15, 12, 0).atZone(zone);
+                        printContext.setDateTime(zdt);
+                        boolean daylight = zone.getRules().isDaylightSavings(zdt.toInstant());
+                        buf.setLength(0);
+                        pp.print(printContext, buf);
+                        assertEquals(buf.toString(), tz.getDisplayName(daylight, tzstyle, locale), id + " " + locale);
+                    }
+                }
+            }
+        }
+    }
+
+    //-----------------------------------------------------------------------
+    public void test_parse_id() {
+        ZoneTextPrinterParser pp = new ZoneTextPrinterParser(TextStyle.FULL);
+        int result = pp.parse(parseContext, "OTHEREurope/LondonOTHER", 5);
+        assertEquals(result, 18);
+        assertEquals(parseContext.toParsed().zone, ZoneId.of("Europe/London"));
+    }
+
+    public void test_parse_id_lowerCase() {
+        ZoneTextPrinterParser pp = new ZoneTextPrinterParser(TextStyle.FULL);
+        parseContext.setCaseSensitive(false);
+        int result = pp.parse(parseContext, "europe/london", 0);
+        assertEquals(result, 13);
+        assertEquals(parseContext.toParsed().zone, ZoneId.of("Europe/London"));
+    }
+
+    public void test_parse_noMatch() {
+        ZoneTextPrinterParser pp = new ZoneTextPrinterParser(TextStyle.FULL);
+        assertEquals(pp.parse(parseContext, "OTHER!!!", 5), ~5);
+        assertEquals(pp.parse(parseContext, "OTHER", 5), ~5);
+        assertNull(parseContext.toParsed().zone);
+    }
+
+    public void test_parse_displayName() {
+        String name = TimeZone.getTimeZone("America/New_York").getDisplayName(false, TimeZone.LONG, Locale.ENGLISH);
+        ZoneTextPrinterParser pp = new ZoneTextPrinterParser(TextStyle.FULL);
+        int result = pp.parse(parseContext, name + " OTHER", 0);
+        assertEquals(result, name.length());
+        TimeZone parsed = TimeZone.getTimeZone(parseContext.toParsed().zone.getId());
+        assertEquals(parsed.getDisplayName(false, TimeZone.LONG, Locale.ENGLISH), name);
+    }
+
+    public void test_parse_matchesLongestName() {
+        List<String> names = new ArrayList<String>();
+        for (String id : ZoneId.getAvailableZoneIds()) {
+            TimeZone tz = TimeZone.getTimeZone(id);
+            names.add(id);
+            names.add(tz.getDisplayName(false, TimeZone.SHORT, Locale.ENGLISH));
+            names.add(tz.getDisplayName(true, TimeZone.SHORT, Locale.ENGLISH));
+        }
+        ZoneTextPrinterParser pp = new ZoneTextPrinterParser(TextStyle.SHORT);
+        for (String name : names) {
+            String text = name + "/X";
+            int expected = 0;
+            for (String other : names) {
+                if (other.length() > expected && text.startsWith(other)) {
+                    expected = other.length();
+                }
+            }
+            assertEquals(pp.parse(parseContext, text, 0), expected, name);
+        }
+    }
+
+    //-----------------------------------------------------------------------
+    public void test_prefixTree_longestMatch() {
+        PrefixTree tree = new PrefixTree();
+        tree.add("AB", "1");
+        tree.add("ABCD", "2");
+        tree.add("B", "3");
+        assertEquals(tree.match(parseContext, "ABC", 0).getValue(), "1");
+        assertEquals(tree.match(parseContext, "ABCDE", 0).getValue(), "2");
+        assertEquals(tree.match(parseContext, "ABCDE", 0).getLength(), 4);
+        assertEquals(tree.match(parseContext, "ABCDE", 1).getValue(), "3");
+        assertNull(tree.match(parseContext, "A", 0));
+        assertNull(tree.match(parseContext, "ab", 0));
+    }
+
+    public void test_prefixTree_replace() {
+        PrefixTree tree = new PrefixTree();
+        tree.add("AB", "1");
+        tree.add("AB", "2");
+        assertEquals(tree.match(parseContext, "AB", 0).getValue(), "2");
+    }
+
+    public void test_prefixTree_ignoreCase() {
+        PrefixTree tree = new PrefixTree();
+        tree.add("ab", "1");
+        tree.add("AB", "2");
+        tree.add("aBc", "3");
+        parseContext.setCaseSensitive(false);
+        assertEquals(tree.match(parseContext, "Ab", 0).getValue(), "2");
+        assertEquals(tree.match(parseContext, "ABC", 0).getValue(), "3");
+    }
+
+    public void test_prefixTree_emptyKey() {
+        PrefixTree tree = new PrefixTree();
+        tree.add("", "1");
+        tree.add("A", "2");
+        assertEquals(tree.match(parseContext, "B", 0).getLength(), 0);
+        assertEquals(tree.match(parseContext, "A", 0).getLength(), 1);
+    }
+
+}
@@ -0,0 +1,160 @@
+/*
+ * Copyright (c) 2007-present, Stephen Colebourne & Michael Nascimento Santos
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *  * Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ *  * Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ *  * Neither the name of JSR-310 nor the names of its contributors
+ *    may be used to endorse or promote products derived from this software
+ *    without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.threeten.bp.zone;
+
+import java.text.NumberFormat;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.threeten.bp.Instant;
+import org.threeten.bp.LocalDateTime;
+import org.threeten.bp.ZoneId;
+import org.threeten.bp.ZoneOffset;
+import org.threeten.bp.ZonedDateTime;
+
+/**
+ * Test Performance of converting columns of epoch-millis using the bulk methods.
+ */
+public class PerformanceBulkConversion {
+
+    /** Size. */
+    private static final NumberFormat NF = NumberFormat.getIntegerInstance();
+    static {
+        NF.setGroupingUsed(true);
+    }
+    /** Size. */
+    private static final int SIZE = 1000000;
+    /** The first epoch-milli, 2000-01-01. */
+    private static final long START = 946684800000L;
+    /** The range of epoch-millis, 40 years. */
+    private static final long RANGE = 40L * 365 * 86400000;
+
+    /**
+     * Main.
+     * @param args  the arguments
+     */
+    public static void main(String[] args) {
+        ZoneId zone = ZoneId.of("Europe/London");
+        ZoneRules rules = zone.getRules();
+        long[] sorted = new long[SIZE];
+        long[] random = new long[SIZE];
+        Random rnd = new Random(47);
+        for (int i = 0; i < SIZE; i++) {
+            random[i] = START + (long) (rnd.nextDouble() * RANGE);
+            sorted[i] = random[i];
+        }
+        Arrays.sort(sorted);
+        long[] result = new long[SIZE];
+
+        for (int i = 0; i < 6; i++) {
+            toLocalObjects("ZonedDateTime to local, sorted", zone, sorted, result);
+            toLocalPrimitive("getOffsetSeconds to local, sorted", rules, sorted, result);
+            toLocalBulk("Bulk to local, sorted", rules, sorted, result);
+            toLocalObjects("ZonedDateTime to local, random", zone, random, result);
+            toLocalPrimitive("getOffsetSeconds to local, random", rules, random, result);
+            toLocalBulk("Bulk to local, random", rules, random, result);
+            fromLocalObjects("ZonedDateTime from local, sorted", zone, sorted, result);
+            fromLocalPrimitive("getOffsetSecondsForLocal from local, sorted", rules, sorted, result);
+            fromLocalBulk("Bulk from local, sorted", rules, sorted, result);
+            fromLocalObjects("ZonedDateTime from local, random", zone, random, result);
+            fromLocalPrimitive("getOffsetSecondsForLocal from local, random", rules, random, result);
+            fromLocalBulk("Bulk from local, random", rules, random, result);
+            System.out.println();
+        }
+    }
+
+    //-----------------------------------------------------------------------
+    private static void toLocalObjects(String name, ZoneId zone, long[] epochMillis, long[] result) {
+        long start = System.nanoTime();
+        for (int i = 0; i < SIZE; i++) {
+            LocalDateTime dateTime = ZonedDateTime.ofInstant(Instant.ofEpochMilli(epochMillis[i]), zone).toLocalDateTime();
+            result[i] = dateTime.toInstant(ZoneOffset.UTC).toEpochMilli();
+        }
+        long end = System.nanoTime();
+        print(name, start, end, result);
+    }
+
+    private static void toLocalPrimitive(String name, ZoneRules rules, long[] epochMillis, long[] result) {
+        long start = System.nanoTime();
+        for (int i = 0; i < SIZE; i++) {
+            long epochMilli = epochMillis[i];
+            long epochSec = (epochMilli >= 0 ? epochMilli / 1000 : (epochMilli - 999) / 1000);
+            result[i] = epochMilli + rules.getOffsetSeconds(epochSec) * 1000L;
+        }
+        long end = System.nanoTime();
+        print(name, start, end, result);
+    }
+
+    private static void toLocalBulk(String name, ZoneRules rules, long[] epochMillis, long[] result) {
+        long start = System.nanoTime();
+        rules.toLocalEpochMillis(epochMillis, result, 0, SIZE);
+        long end = System.nanoTime();
+        print(name, start, end, result);
+    }
+
+    private static void fromLocalObjects(String name, ZoneId zone, long[] localMillis, long[] result) {
+        long start = System.nanoTime();
+        for (int i = 0; i < SIZE; i++) {
+            LocalDateTime dateTime = LocalDateTime.ofInstant(Instant.ofEpochMilli(localMillis[i]), ZoneOffset.UTC);
+            result[i] = ZonedDateTime.of(dateTime, zone).toInstant().toEpochMilli();
+        }
+        long end = System.nanoTime();
+        print(name, start, end, result);
+    }
+
+    private static void fromLocalPrimitive(String name, ZoneRules rules, long[] localMillis, long[] result) {
+        long start = System.nanoTime();
+        for (int i = 0; i < SIZE; i++) {
+            long localMilli = localMillis[i];
+            long localSec = (localMilli >= 0 ? localMilli / 1000 : (localMilli - 999) / 1000);
+            result[i] = localMilli - rules.getOffsetSecondsForLocal(localSec) * 1000L;
+        }
+        long end = System.nanoTime();
+        print(name, start, end, result);
+    }
+
+    private static void fromLocalBulk(String name, ZoneRules rules, long[] localMillis, long[] result) {
+        long start = System.nanoTime();
+        rules.toEpochMillis(localMillis, result, 0, SIZE, ZoneRules.TransitionPolicy.OFFSET_BEFORE);
+        long end = System.nanoTime();
+        print(name, start, end, result);
+    }
+
+    private static void print(String name, long start, long end, long[] result) {
+        long total = 0;
+        for (long value : result) {
+            total += value;
+        }
+        System.out.println(name + ": " + NF.format((end - start) / SIZE) + " ns/op " + total);
+    }
+
+}
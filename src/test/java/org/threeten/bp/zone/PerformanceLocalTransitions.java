@@ -0,0 +1,177 @@
+/*
+ * Copyright (c) 2007-present, Stephen Colebourne & Michael Nascimento Santos
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *  * Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ *  * Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ *  * Neither the name of JSR-310 nor the names of its contributors
+ *    may be used to endorse or promote products derived from this software
+ *    without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.threeten.bp.zone;
+
+import java.text.NumberFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.threeten.bp.LocalDateTime;
+import org.threeten.bp.ZoneOffset;
+
+/**
+ * Test Performance of the layout of the local transitions, across all TZDB zones.
+ * <p>
+ * This compares an array of {@code LocalDateTime} searched using {@code compareTo}
+ * against an array of local epoch-seconds, as used by {@code StandardZoneRules}.
+ */
+public class PerformanceLocalTransitions {
+
+    /** Size. */
+    private static final NumberFormat NF = NumberFormat.getIntegerInstance();
+    static {
+        NF.setGroupingUsed(true);
+    }
+    /** Size. */
+    private static final int SIZE = 1000000;
+    /** The first local epoch-second, 1900-01-01. */
+    private static final long START = -2208988800L;
+    /** The range of local epoch-seconds, 135 years. */
+    private static final long RANGE = 135L * 365 * 86400;
+
+    /**
+     * Main.
+     * @param args  the arguments
+     */
+    public static void main(String[] args) {
+        List<String> zoneIds = new ArrayList<String>(ZoneRulesProvider.getAvailableZoneIds());
+        int zoneCount = zoneIds.size();
+
+        long before = usedMemory();
+        LocalDateTime[][] objectLayout = new LocalDateTime[zoneCount][];
+        for (int i = 0; i < zoneCount; i++) {
+            objectLayout[i] = toLocalDateTimes(ZoneRulesProvider.getRules(zoneIds.get(i), false));
+        }
+        long objectBytes = usedMemory() - before;
+        before = usedMemory();
+        long[][] primitiveLayout = new long[zoneCount][];
+        for (int i = 0; i < zoneCount; i++) {
+            primitiveLayout[i] = toEpochSeconds(objectLayout[i]);
+        }
+        long primitiveBytes = usedMemory() - before;
+        int transitions = 0;
+        for (long[] array : primitiveLayout) {
+            transitions += array.length;
+        }
+        System.out.println("Zones: " + zoneCount + ", local transitions: " + NF.format(transitions));
+        System.out.println("LocalDateTime[] layout: " + NF.format(objectBytes) + " bytes");
+        System.out.println("long[] layout:          " + NF.format(primitiveBytes) + " bytes");
+        System.out.println();
+
+        int[] zones = new int[SIZE];
+        LocalDateTime[] dateTimes = new LocalDateTime[SIZE];
+        long[] epochSecs = new long[SIZE];
+        Random rnd = new Random(47);
+        for (int i = 0; i < SIZE; i++) {
+            zones[i] = rnd.nextInt(zoneCount);
+            epochSecs[i] = START + (long) (rnd.nextDouble() * RANGE);
+            dateTimes[i] = LocalDateTime.ofEpochSecond(epochSecs[i], 0, ZoneOffset.UTC);
+        }
+        ZoneRules[] rules = new ZoneRules[zoneCount];
+        for (int i = 0; i < zoneCount; i++) {
+            rules[i] = ZoneRulesProvider.getRules(zoneIds.get(i), false);
+        }
+
+        for (int i = 0; i < 6; i++) {
+            searchObjects(objectLayout, zones, dateTimes);
+            searchPrimitives(primitiveLayout, zones, dateTimes);
+            getOffset(rules, zones, dateTimes);
+            System.out.println();
+        }
+        System.out.println(objectLayout.length + primitiveLayout.length);
+    }
+
+    //-----------------------------------------------------------------------
+    private static LocalDateTime[] toLocalDateTimes(ZoneRules rules) {
+        List<LocalDateTime> list = new ArrayList<LocalDateTime>();
+        for (ZoneOffsetTransition trans : rules.getTransitions()) {
+            if (trans.isGap()) {
+                list.add(trans.getDateTimeBefore());
+                list.add(trans.getDateTimeAfter());
+            } else {
+                list.add(trans.getDateTimeAfter());
+                list.add(trans.getDateTimeBefore());
+            }
+        }
+        return list.toArray(new LocalDateTime[list.size()]);
+    }
+
+    private static long[] toEpochSeconds(LocalDateTime[] dateTimes) {
+        long[] array = new long[dateTimes.length];
+        for (int i = 0; i < dateTimes.length; i++) {
+            array[i] = dateTimes[i].toEpochSecond(ZoneOffset.UTC);
+        }
+        return array;
+    }
+
+    private static long usedMemory() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 5; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    //-----------------------------------------------------------------------
+    private static void searchObjects(LocalDateTime[][] layout, int[] zones, LocalDateTime[] dateTimes) {
+        long total = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < SIZE; i++) {
+            total += Arrays.binarySearch(layout[zones[i]], dateTimes[i]);
+        }
+        long end = System.nanoTime();
+        System.out.println("LocalDateTime[] search: " + NF.format((end - start) / SIZE) + " ns/op " + total);
+    }
+
+    private static void searchPrimitives(long[][] layout, int[] zones, LocalDateTime[] dateTimes) {
+        long total = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < SIZE; i++) {
+            total += Arrays.binarySearch(layout[zones[i]], dateTimes[i].toEpochSecond(ZoneOffset.UTC));
+        }
+        long end = System.nanoTime();
+        System.out.println("long[] search:          " + NF.format((end - start) / SIZE) + " ns/op " + total);
+    }
+
+    private static void getOffset(ZoneRules[] rules, int[] zones, LocalDateTime[] dateTimes) {
+        long total = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < SIZE; i++) {
+            total += rules[zones[i]].getOffset(dateTimes[i]).getTotalSeconds();
+        }
+        long end = System.nanoTime();
+        System.out.println("ZoneRules.getOffset:    " + NF.format((end - start) / SIZE) + " ns/op " + total);
+    }
+
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright (c) 2007-present, Stephen Colebourne & Michael Nascimento Santos
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *  * Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ *  * Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ *  * Neither the name of JSR-310 nor the names of its contributors
+ *    may be used to endorse or promote products derived from this software
+ *    without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.threeten.bp.zone;
+
+import java.text.NumberFormat;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import org.threeten.bp.Instant;
+
+/**
+ * Test Performance of enumerating the transitions of all time-zones over a range.
+ */
+public class PerformanceTransitionIteration {
+
+    /** Size. */
+    private static final NumberFormat NF = NumberFormat.getIntegerInstance();
+    static {
+        NF.setGroupingUsed(true);
+    }
+    /** The start of the range. */
+    private static final Instant START = Instant.parse("1970-01-01T00:00:00Z");
+    /** The end of the range. */
+    private static final Instant END = Instant.parse("2100-01-01T00:00:00Z");
+
+    /**
+     * Main.
+     * @param args  the arguments
+     */
+    public static void main(String[] args) {
+        List<ZoneRules> rules = new ArrayList<ZoneRules>();
+        for (String zoneId : ZoneRulesProvider.getAvailableZoneIds()) {
+            ZoneRules zoneRules = ZoneRulesProvider.getRules(zoneId, false);
+            if (zoneRules.getTransitions().size() > 0) {
+                rules.add(zoneRules);
+            }
+        }
+        for (int i = 0; i < 10; i++) {
+            nextTransition("nextTransition", rules);
+            transitionsBetween("transitionsBetween", rules);
+            System.out.println();
+        }
+    }
+
+    //-----------------------------------------------------------------------
+    private static void nextTransition(String name, List<ZoneRules> rules) {
+        long start = System.nanoTime();
+        long count = 0;
+        long total = 0;
+        for (ZoneRules zoneRules : rules) {
+            ZoneOffsetTransition trans = zoneRules.nextTransition(START.minusSeconds(1));
+            while (trans != null && trans.getInstant().isBefore(END)) {
+                count++;
+                total += trans.toEpochSecond();
+                trans = zoneRules.nextTransition(trans.getInstant());
+            }
+        }
+        long end = System.nanoTime();
+        print(name, start, end, count, total);
+    }
+
+    private static void transitionsBetween(String name, List<ZoneRules> rules) {
+        long start = System.nanoTime();
+        long count = 0;
+        long total = 0;
+        for (ZoneRules zoneRules : rules) {
+            Iterator<ZoneOffsetTransition> it = zoneRules.transitionsBetween(START, END);
+            while (it.hasNext()) {
+                count++;
+                total += it.next().toEpochSecond();
+            }
+        }
+        long end = System.nanoTime();
+        print(name, start, end, count, total);
+    }
+
+    private static void print(String name, long start, long end, long count, long total) {
+        System.out.println(name + ": " + NF.format((end - start) / count) + " ns/transition, " +
+                NF.format((end - start) / 1000) + " us total " + total);
+    }
+
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright (c) 2007-present, Stephen Colebourne & Michael Nascimento Santos
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *  * Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ *  * Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ *  * Neither the name of JSR-310 nor the names of its contributors
+ *    may be used to endorse or promote products derived from this software
+ *    without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.threeten.bp.zone;
+
+import java.nio.ByteBuffer;
+import java.text.NumberFormat;
+
+/**
+ * Test Performance of opening 'TZDB.dat' in each format.
+ */
+public class PerformanceTzdbFile {
+
+    /** Size. */
+    private static final NumberFormat NF = NumberFormat.getIntegerInstance();
+    static {
+        NF.setGroupingUsed(true);
+    }
+    /** Size. */
+    private static final int SIZE = 2000;
+
+    /**
+     * Main.
+     * @param args  the arguments
+     */
+    public static void main(String[] args) throws Exception {
+        TzdbFile bundled = TzdbFile.load(ByteBuffer.wrap(TestTzdbFile.readTzdb()));
+        byte[] format1 = TestTzdbFile.convert(bundled, TzdbFile.FORMAT_1);
+        byte[] format2 = TestTzdbFile.convert(bundled, TzdbFile.FORMAT_2);
+        System.out.println("Format 1: " + NF.format(format1.length) + " bytes");
+        System.out.println("Format 2: " + NF.format(format2.length) + " bytes");
+        System.out.println();
+
+        for (int i = 0; i < 5; i++) {
+            open("Format 1 open", format1);
+            open("Format 2 open", format2);
+            openAll("Format 1 open and decode all", format1);
+            openAll("Format 2 open and decode all", format2);
+            System.out.println();
+        }
+    }
+
+    //-----------------------------------------------------------------------
+    private static void open(String name, byte[] bytes) throws Exception {
+        int total = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < SIZE; i++) {
+            total += TzdbFile.load(ByteBuffer.wrap(bytes)).getRuleCount();
+        }
+        long end = System.nanoTime();
+        System.out.println(name + ": " + NF.format((end - start) / SIZE / 1000) + " us/op " + total);
+    }
+
+    private static void openAll(String name, byte[] bytes) throws Exception {
+        int total = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < SIZE / 20; i++) {
+            TzdbFile file = TzdbFile.load(ByteBuffer.wrap(bytes));
+            for (int j = 0; j < file.getRuleCount(); j++) {
+                total += file.getRules(j).getTransitions().size();
+            }
+        }
+        long end = System.nanoTime();
+        System.out.println(name + ": " + NF.format((end - start) / (SIZE / 20) / 1000) + " us/op " + total);
+    }
+
+}
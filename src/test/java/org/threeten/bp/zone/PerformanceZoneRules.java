@@ -0,0 +1,96 @@
+/*
+ * Copyright (c) 2007-present, Stephen Colebourne & Michael Nascimento Santos
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *  * Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ *  * Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ *  * Neither the name of JSR-310 nor the names of its contributors
+ *    may be used to endorse or promote products derived from this software
+ *    without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.threeten.bp.zone;
+
+import java.text.NumberFormat;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.threeten.bp.ZoneId;
+
+/**
+ * Test Performance of the zone rules lookup options.
+ */
+public class PerformanceZoneRules {
+
+    /** Size. */
+    private static final NumberFormat NF = NumberFormat.getIntegerInstance();
+    static {
+        NF.setGroupingUsed(true);
+    }
+    /** Size. */
+    private static final int SIZE = 1000000;
+    /** The first epoch-second, 2000-01-01. */
+    private static final long START = 946684800L;
+    /** The range of epoch-seconds, 40 years. */
+    private static final long RANGE = 40L * 365 * 86400;
+
+    /**
+     * Main.
+     * @param args  the arguments
+     */
+    public static void main(String[] args) {
+        StandardZoneRules rules = (StandardZoneRules) ZoneId.of("Europe/London").getRules();
+        StandardZoneRules expanded = rules.withTransitionTable(2100);
+        StandardZoneRules remember = rules.withRememberLastHit(true);
+        long[] sorted = new long[SIZE];
+        long[] random = new long[SIZE];
+        Random rnd = new Random(47);
+        for (int i = 0; i < SIZE; i++) {
+            random[i] = START + (long) (rnd.nextDouble() * RANGE);
+            sorted[i] = random[i];
+        }
+        Arrays.sort(sorted);
+
+        for (int i = 0; i < 6; i++) {
+            getOffsetSeconds("Standard Sorted", rules, sorted);
+            getOffsetSeconds("Standard Random", rules, random);
+            getOffsetSeconds("Expanded Sorted", expanded, sorted);
+            getOffsetSeconds("Expanded Random", expanded, random);
+            getOffsetSeconds("LastHit  Sorted", remember, sorted);
+            getOffsetSeconds("LastHit  Random", remember, random);
+            System.out.println();
+        }
+    }
+
+    //-----------------------------------------------------------------------
+    private static void getOffsetSeconds(String name, ZoneRules rules, long[] epochSecs) {
+        long total = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < epochSecs.length; i++) {
+            total += rules.getOffsetSeconds(epochSecs[i]);
+        }
+        long end = System.nanoTime();
+        System.out.println(name + ": " + NF.format((end - start) / epochSecs.length) + " ns/op " + total);
+    }
+
+}
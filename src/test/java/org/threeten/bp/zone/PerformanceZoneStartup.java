@@ -0,0 +1,105 @@
+/*
+ * Copyright (c) 2007-present, Stephen Colebourne & Michael Nascimento Santos
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *  * Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ *  * Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ *  * Neither the name of JSR-310 nor the names of its contributors
+ *    may be used to endorse or promote products derived from this software
+ *    without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.threeten.bp.zone;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.InputStreamReader;
+import java.text.NumberFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.threeten.bp.ZoneId;
+
+/**
+ * Test Performance of the first use of time-zones in a new JVM.
+ * <p>
+ * Each measurement is taken in a separate JVM, started with the same class path.
+ * Any system properties to pass on, such as the default provider, are given as arguments.
+ */
+public class PerformanceZoneStartup {
+
+    /** Size. */
+    private static final NumberFormat NF = NumberFormat.getIntegerInstance();
+    static {
+        NF.setGroupingUsed(true);
+    }
+    /** Number of JVMs to start. */
+    private static final int SIZE = 20;
+
+    /**
+     * Main.
+     * @param args  the arguments, such as -Dorg.threeten.bp.zone.DefaultZoneRulesProvider=...
+     */
+    public static void main(String[] args) throws Exception {
+        if (args.length == 1 && args[0].equals("child")) {
+            child();
+            return;
+        }
+        String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+        List<String> command = new ArrayList<String>();
+        command.add(java);
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.addAll(Arrays.asList(args));
+        command.add(PerformanceZoneStartup.class.getName());
+        command.add("child");
+        List<Long> providers = new ArrayList<Long>();
+        List<Long> firsts = new ArrayList<Long>();
+        for (int i = 0; i < SIZE; i++) {
+            Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+            BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream(), "UTF-8"));
+            String line = reader.readLine();
+            process.waitFor();
+            String[] split = line.split(" ");
+            providers.add(Long.parseLong(split[0]));
+            firsts.add(Long.parseLong(split[1]));
+        }
+        Collections.sort(providers);
+        Collections.sort(firsts);
+        System.out.println("Provider init:     " + NF.format(providers.get(SIZE / 2)) + " us median, " + NF.format(providers.get(0)) + " us min");
+        System.out.println("First ZoneId.of:   " + NF.format(firsts.get(SIZE / 2)) + " us median, " + NF.format(firsts.get(0)) + " us min");
+    }
+
+    //-----------------------------------------------------------------------
+    private static void child() {
+        long start = System.nanoTime();
+        ZoneRulesProvider.getAvailableZoneIds();
+        long middle = System.nanoTime();
+        ZoneId.of("Europe/London").getRules();
+        long end = System.nanoTime();
+        System.out.println((middle - start) / 1000 + " " + (end - middle) / 1000);
+    }
+
+}
@@ -0,0 +1,284 @@
+/*
+ * Copyright (c) 2007-present, Stephen Colebourne & Michael Nascimento Santos
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *  * Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ *  * Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ *  * Neither the name of JSR-310 nor the names of its contributors
+ *    may be used to endorse or promote products derived from this software
+ *    without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.threeten.bp.zone;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+import org.threeten.bp.ZoneId;
+import org.threeten.bp.ZoneOffset;
+
+/**
+ * Test DirectoryTzdbZoneRulesProvider.
+ */
+@Test
+public class TestDirectoryTzdbZoneRulesProvider {
+
+    private static final ZoneRules LONDON = ZoneRulesProvider.getRules("Europe/London", false);
+    private static final ZoneRules PARIS = ZoneRulesProvider.getRules("Europe/Paris", false);
+
+    private File dir;
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+        dir = File.createTempFile("tzdb", "");
+        dir.delete();
+        dir.mkdir();
+    }
+
+    @AfterMethod
+    public void tearDown() {
+        for (File file : dir.listFiles()) {
+            file.delete();
+        }
+        dir.delete();
+    }
+
+    private void write(String name, String version, String regionId, ZoneRules rules) throws Exception {
+        File tmp = new File(dir, "tmp");
+        DataOutputStream out = new DataOutputStream(new FileOutputStream(tmp));
+        try {
+            TzdbFile.writeFormat2(out, new String[] {version}, new String[] {regionId}, new ZoneRules[] {rules}, new short[] {0});
+        } finally {
+            out.close();
+        }
+        assertTrue(tmp.renameTo(new File(dir, name)));
+    }
+
+    //-----------------------------------------------------------------------
+    @Test
+    public void test_classPathOnly() {
+        DirectoryTzdbZoneRulesProvider test = new DirectoryTzdbZoneRulesProvider(dir, 0);
+        assertEquals(test.provideZoneIds(), new TzdbZoneRulesProvider().provideZoneIds());
+        assertEquals(test.provideRules("Europe/London", false), LONDON);
+        assertEquals(test.provideRefresh(), false);
+    }
+
+    @Test
+    public void test_refresh_newVersion() throws Exception {
+        DirectoryTzdbZoneRulesProvider test = new DirectoryTzdbZoneRulesProvider(dir, 0);
+        write("TZDB-2099a.dat", "2099a", "Europe/London", PARIS);
+        assertEquals(test.provideRefresh(), true);
+        assertEquals(test.provideRules("Europe/London", false), PARIS);
+        // other regions fall back to the older version
+        assertEquals(test.provideRules("Europe/Paris", false), PARIS);
+        NavigableMap<String, ZoneRules> versions = test.provideVersions("Europe/London");
+        assertEquals(versions.lastKey(), "2099a");
+        assertEquals(versions.lowerEntry("2099a").getValue(), LONDON);
+        assertEquals(test.provideRefresh(), false);
+    }
+
+    @Test
+    public void test_refresh_newRegion() throws Exception {
+        DirectoryTzdbZoneRulesProvider test = new DirectoryTzdbZoneRulesProvider(dir, 0);
+        write("TZDB-2099a.dat", "2099a", "Test/Region", PARIS);
+        assertEquals(test.provideRefresh(), true);
+        assertTrue(test.provideZoneIds().contains("Test/Region"));
+        assertEquals(test.provideRules("Test/Region", false), PARIS);
+    }
+
+    @Test
+    public void test_refresh_removedFileRetained() throws Exception {
+        write("TZDB-2099a.dat", "2099a", "Test/Region", PARIS);
+        DirectoryTzdbZoneRulesProvider test = new DirectoryTzdbZoneRulesProvider(dir, 0);
+        assertTrue(new File(dir, "TZDB-2099a.dat").delete());
+        assertEquals(test.provideRefresh(), false);
+        assertEquals(test.provideRules("Test/Region", false), PARIS);
+    }
+
+    @Test
+    public void test_refresh_invalidFile() throws Exception {
+        DirectoryTzdbZoneRulesProvider test = new DirectoryTzdbZoneRulesProvider(dir, 0);
+        FileOutputStream out = new FileOutputStream(new File(dir, "TZDB-bad.dat"));
+        out.write(new byte[] {2, 0, 4, 'T', 'Z'});
+        out.close();
+        try {
+            test.provideRefresh();
+            throw new AssertionError("Expected ZoneRulesException");
+        } catch (ZoneRulesException ex) {
+            // expected
+        }
+        assertEquals(test.provideRules("Europe/London", false), LONDON);
+    }
+
+    @Test
+    public void test_refresh_invalidAndChangedFile() throws Exception {
+        DirectoryTzdbZoneRulesProvider test = new DirectoryTzdbZoneRulesProvider(dir, 0);
+        FileOutputStream out = new FileOutputStream(new File(dir, "TZDB-bad.dat"));
+        out.write(new byte[] {2, 0, 4, 'T', 'Z'});
+        out.close();
+        write("TZDB-2099a.dat", "2099a", "Europe/London", PARIS);
+        int count = ZoneRulesProvider.getChangeCount();
+        try {
+            test.provideRefresh();
+            throw new AssertionError("Expected ZoneRulesException");
+        } catch (ZoneRulesException ex) {
+            // expected
+        }
+        assertTrue(ZoneRulesProvider.getChangeCount() > count);
+        assertEquals(test.provideRules("Europe/London", false), PARIS);
+        // the bad file is retried, but the changed file is not reported again
+        count = ZoneRulesProvider.getChangeCount();
+        try {
+            test.provideRefresh();
+            throw new AssertionError("Expected ZoneRulesException");
+        } catch (ZoneRulesException ex) {
+            // expected
+        }
+        assertEquals(ZoneRulesProvider.getChangeCount(), count);
+    }
+
+    @Test
+    public void test_otherFilesIgnored() throws Exception {
+        FileOutputStream out = new FileOutputStream(new File(dir, "LeapSecondRules.dat"));
+        out.write(new byte[] {1, 2, 3});
+        out.close();
+        DirectoryTzdbZoneRulesProvider test = new DirectoryTzdbZoneRulesProvider(dir, 0);
+        assertEquals(test.provideRefresh(), false);
+    }
+
+    @Test
+    public void test_background() throws Exception {
+        DirectoryTzdbZoneRulesProvider test = new DirectoryTzdbZoneRulesProvider(dir, 20);
+        try {
+            write("TZDB-2099a.dat", "2099a", "Europe/London", PARIS);
+            long end = System.currentTimeMillis() + 10000;
+            while (test.provideRules("Europe/London", false).equals(PARIS) == false) {
+                assertTrue(System.currentTimeMillis() < end, "Background reload did not happen");
+                Thread.sleep(10);
+            }
+            assertEquals(test.provideRefresh(), false);
+        } finally {
+            test.close();
+        }
+    }
+
+    @Test
+    public void test_close_stopsBackground() throws Exception {
+        DirectoryTzdbZoneRulesProvider test = new DirectoryTzdbZoneRulesProvider(dir, 20);
+        test.close();
+        write("TZDB-2099a.dat", "2099a", "Europe/London", PARIS);
+        Thread.sleep(200);
+        assertEquals(test.provideRules("Europe/London", false), LONDON);
+        // still checked on refresh
+        assertEquals(test.provideRefresh(), true);
+        assertEquals(test.provideRules("Europe/London", false), PARIS);
+        test.close();
+    }
+
+    @Test
+    public void test_close_noBackground() {
+        DirectoryTzdbZoneRulesProvider test = new DirectoryTzdbZoneRulesProvider(dir, 0);
+        test.close();
+        assertEquals(test.provideRules("Europe/London", false), LONDON);
+    }
+
+    @Test
+    public void test_provideRules_latestVersionPerRegion() throws Exception {
+        write("TZDB-2099a.dat", "2099a", "Europe/London", PARIS);
+        write("TZDB-2099b.dat", "2099b", "Test/Region", LONDON);
+        DirectoryTzdbZoneRulesProvider test = new DirectoryTzdbZoneRulesProvider(dir, 0);
+        assertEquals(test.provideRules("Europe/London", false), PARIS);
+        assertEquals(test.provideRules("Test/Region", false), LONDON);
+        assertEquals(test.provideRules("Europe/Paris", false), PARIS);
+        write("TZDB-2099c.dat", "2099c", "Test/Region", PARIS);
+        assertEquals(test.provideRefresh(), true);
+        assertEquals(test.provideRules("Test/Region", false), PARIS);
+        assertEquals(test.provideRules("Europe/London", false), PARIS);
+    }
+
+    @Test(expectedExceptions=ZoneRulesException.class)
+    public void test_provideRules_unknown() {
+        new DirectoryTzdbZoneRulesProvider(dir, 0).provideRules("Unknown/Region", false);
+    }
+
+    //-----------------------------------------------------------------------
+    @Test
+    public void test_zoneRegion_picksUpChange() {
+        MockDynamicProvider provider = new MockDynamicProvider();
+        ZoneRulesProvider.registerProvider(provider);
+        ZoneId zone = ZoneId.of("Dynamic/Zone");
+        assertEquals(zone.getRules(), LONDON);
+        int count = ZoneRulesProvider.getChangeCount();
+        provider.rules = PARIS;
+        provider.notifyChanged();
+        assertTrue(ZoneRulesProvider.getChangeCount() > count);
+        assertEquals(zone.getRules(), PARIS);
+        assertTrue(ZoneRulesProvider.getAvailableZoneIds().contains("Dynamic/Zone2"));
+    }
+
+    @Test
+    public void test_zoneRegion_fixedNotLookedUp() {
+        ZoneId zone = ZoneId.of("UTC");
+        ZoneRules rules = zone.getRules();
+        new MockDynamicProvider().notifyChanged();
+        assertEquals(zone.getRules(), rules);
+        assertEquals(rules, ZoneOffset.UTC.getRules());
+    }
+
+    static class MockDynamicProvider extends ZoneRulesProvider {
+        volatile ZoneRules rules = LONDON;
+        volatile Set<String> ids = Collections.singleton("Dynamic/Zone");
+        void notifyChanged() {
+            ids = new HashSet<String>(ids);
+            ids.add("Dynamic/Zone2");
+            notifyRulesChanged();
+        }
+        @Override
+        protected Set<String> provideZoneIds() {
+            return ids;
+        }
+        @Override
+        protected NavigableMap<String, ZoneRules> provideVersions(String zoneId) {
+            NavigableMap<String, ZoneRules> result = new TreeMap<String, ZoneRules>();
+            result.put("Version", rules);
+            return result;
+        }
+        @Override
+        protected ZoneRules provideRules(String zoneId, boolean forCaching) {
+            return rules;
+        }
+    }
+
+}
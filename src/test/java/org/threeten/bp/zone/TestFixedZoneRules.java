@@ -122,6 +122,57 @@ public class TestFixedZoneRules {
         assertEquals(test.getOffset((LocalDateTime) null), expectedOffset);
     }
 
+    @Test(dataProvider="rules")
+    public void test_getOffsetSeconds(ZoneRules test, ZoneOffset expectedOffset) {
+        assertEquals(test.getOffsetSeconds(INSTANT.getEpochSecond()), expectedOffset.getTotalSeconds());
+        assertEquals(test.getOffsetSeconds(Long.MIN_VALUE), expectedOffset.getTotalSeconds());
+        assertEquals(test.getOffsetSeconds(Long.MAX_VALUE), expectedOffset.getTotalSeconds());
+    }
+
+    @Test(dataProvider="rules")
+    public void test_getOffsetSecondsForLocal(ZoneRules test, ZoneOffset expectedOffset) {
+        assertEquals(test.getOffsetSecondsForLocal(LDT.toEpochSecond(ZoneOffset.UTC)), expectedOffset.getTotalSeconds());
+        assertEquals(test.getOffsetSecondsForLocal(Long.MIN_VALUE), expectedOffset.getTotalSeconds());
+        assertEquals(test.getOffsetSecondsForLocal(Long.MAX_VALUE), expectedOffset.getTotalSeconds());
+    }
+
+    @Test(dataProvider="rules")
+    public void test_toLocalEpochSeconds(ZoneRules test, ZoneOffset expectedOffset) {
+        long epochSec = INSTANT.getEpochSecond();
+        long[] values = new long[] {9, epochSec, -1, 0, 7};
+        test.toLocalEpochSeconds(values, values, 1, 3);
+        int offsetSecs = expectedOffset.getTotalSeconds();
+        assertEquals(values, new long[] {9, epochSec + offsetSecs, offsetSecs - 1, offsetSecs, 7});
+        test.toEpochSeconds(values, values, 1, 3, ZoneRules.TransitionPolicy.STRICT);
+        assertEquals(values, new long[] {9, epochSec, -1, 0, 7});
+    }
+
+    @Test(dataProvider="rules")
+    public void test_toLocalEpochMillis(ZoneRules test, ZoneOffset expectedOffset) {
+        long epochMilli = INSTANT.toEpochMilli() + 123;
+        long[] values = new long[] {epochMilli, -1};
+        long[] result = new long[2];
+        test.toLocalEpochMillis(values, result, 0, 2);
+        long offsetMillis = expectedOffset.getTotalSeconds() * 1000L;
+        assertEquals(result, new long[] {epochMilli + offsetMillis, offsetMillis - 1});
+        test.toEpochMillis(result, result, 0, 2, ZoneRules.TransitionPolicy.STRICT);
+        assertEquals(result, values);
+    }
+
+    @Test(dataProvider="rules", expectedExceptions=IndexOutOfBoundsException.class)
+    public void test_toLocalEpochSeconds_badRange(ZoneRules test, ZoneOffset expectedOffset) {
+        test.toLocalEpochSeconds(new long[3], new long[2], 1, 2);
+    }
+
+    @Test(dataProvider="rules", expectedExceptions=ArithmeticException.class)
+    public void test_toEpochSeconds_overflow(ZoneRules test, ZoneOffset expectedOffset) {
+        long[] values = new long[] {expectedOffset.getTotalSeconds() > 0 ? Long.MIN_VALUE : Long.MAX_VALUE};
+        if (expectedOffset.getTotalSeconds() == 0) {
+            throw new ArithmeticException();
+        }
+        test.toEpochSeconds(values, values, 0, 1, ZoneRules.TransitionPolicy.OFFSET_BEFORE);
+    }
+
     @Test(dataProvider="rules")
     public void test_getValidOffsets_LDT(ZoneRules test, ZoneOffset expectedOffset) {
         assertEquals(test.getValidOffsets(LDT).size(), 1);
@@ -184,6 +235,11 @@ public class TestFixedZoneRules {
         assertEquals(test.getTransitions().size(), 0);
     }
 
+    @Test(dataProvider="rules")
+    public void test_transitionsBetween(ZoneRules test, ZoneOffset expectedOffset) {
+        assertEquals(test.transitionsBetween(Instant.MIN, Instant.MAX).hasNext(), false);
+    }
+
     @Test(expectedExceptions=UnsupportedOperationException.class)
     public void test_getTransitions_immutable() {
         ZoneRules test = make(OFFSET_PTWO);
@@ -0,0 +1,175 @@
+/*
+ * Copyright (c) 2007-present, Stephen Colebourne & Michael Nascimento Santos
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *  * Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ *  * Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ *  * Neither the name of JSR-310 nor the names of its contributors
+ *    may be used to endorse or promote products derived from this software
+ *    without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.threeten.bp.zone;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.testng.annotations.Test;
+import org.threeten.bp.ZoneId;
+import org.threeten.bp.ZoneOffset;
+
+/**
+ * Test LayeredZoneRulesProvider.
+ */
+@Test
+public class TestLayeredZoneRulesProvider {
+
+    private static final ZoneRules PATCHED = ZoneOffset.of("+03:30").getRules();
+
+    //-----------------------------------------------------------------------
+    @Test
+    public void test_layers_priority() {
+        TzdbZoneRulesProvider tzdb = new TzdbZoneRulesProvider(Arrays.asList("Europe/London", "Europe/Paris"));
+        MockProvider patch = new MockProvider(true, "Europe/Paris", "Patched/Zone");
+        LayeredZoneRulesProvider test = new LayeredZoneRulesProvider(patch, tzdb);
+        assertEquals(test.getLayers(), Arrays.asList(patch, tzdb));
+        assertEquals(test.provideZoneIds(), new HashSet<String>(Arrays.asList("Europe/London", "Europe/Paris", "Patched/Zone")));
+        assertEquals(test.provideRules("Europe/Paris", false), PATCHED);
+        assertEquals(test.provideRules("Patched/Zone", false), PATCHED);
+        assertEquals(test.provideRules("Europe/London", false), tzdb.provideRules("Europe/London", false));
+        assertEquals(test.provideVersions("Europe/Paris").firstKey(), "Patched");
+        assertEquals(test.provideVersions("Europe/London"), tzdb.provideVersions("Europe/London"));
+    }
+
+    @Test
+    public void test_layers_lowerPriorityIgnored() {
+        TzdbZoneRulesProvider tzdb = new TzdbZoneRulesProvider(Arrays.asList("Europe/London", "Europe/Paris"));
+        MockProvider patch = new MockProvider(true, "Europe/Paris");
+        LayeredZoneRulesProvider test = new LayeredZoneRulesProvider(tzdb, patch);
+        assertEquals(test.provideRules("Europe/Paris", false), tzdb.provideRules("Europe/Paris", false));
+        assertEquals(patch.lookups.get(), 0);
+    }
+
+    @Test(expectedExceptions=ZoneRulesException.class)
+    public void test_provideRules_unknownId() {
+        new LayeredZoneRulesProvider(new MockProvider(true, "Patched/Zone")).provideRules("Europe/London", false);
+    }
+
+    @Test(expectedExceptions=NullPointerException.class)
+    public void test_constructor_nullLayer() {
+        new LayeredZoneRulesProvider(new MockProvider(true, "Patched/Zone"), null);
+    }
+
+    @Test
+    public void test_refresh_resolvesAgain() {
+        MockProvider first = new MockProvider(true, "Patched/Zone");
+        MockProvider second = new MockProvider(true, "Patched/Zone", "Patched/Other");
+        LayeredZoneRulesProvider test = new LayeredZoneRulesProvider(first, second);
+        assertEquals(test.provideRefresh(), false);
+        first.refreshIds = new HashSet<String>(Arrays.asList("Patched/Zone", "Patched/Other"));
+        assertEquals(test.provideRules("Patched/Other", false), PATCHED);
+        assertEquals(first.lookups.get(), 0);
+        assertEquals(test.provideRefresh(), true);
+        assertEquals(test.provideRules("Patched/Other", false), PATCHED);
+        assertEquals(first.lookups.get(), 1);
+    }
+
+    @Test
+    public void test_immutableRules() {
+        MockProvider immutable = new MockProvider(true, "Patched/Zone");
+        MockProvider mutable = new MockProvider(false, "Patched/Other");
+        assertEquals(new LayeredZoneRulesProvider(immutable, new TzdbZoneRulesProvider()).provideImmutableRules(), true);
+        assertEquals(new LayeredZoneRulesProvider(immutable, mutable).provideImmutableRules(), false);
+    }
+
+    //-----------------------------------------------------------------------
+    @Test
+    public void test_registerOverrideProvider() {
+        ZoneRules original = ZoneRulesProvider.getRules("Pacific/Chatham", false);
+        ZoneId zone = ZoneId.of("Pacific/Chatham");
+        assertEquals(zone.getRules(), original);
+        int count = ZoneRulesProvider.getChangeCount();
+
+        MockProvider override = new MockProvider(false, "Pacific/Chatham", "Override/Zone");
+        override.rules = original;
+        ZoneRulesProvider.registerOverrideProvider(new LayeredZoneRulesProvider(override));
+        assertTrue(ZoneRulesProvider.getChangeCount() > count);
+        assertTrue(ZoneRulesProvider.getAvailableZoneIds().contains("Override/Zone"));
+        assertEquals(zone.getRules(), original);
+        assertEquals(override.lookups.get(), 1);
+        assertEquals(ZoneId.of("Pacific/Chatham").getRules(), original);
+        assertEquals(ZoneRulesProvider.getVersions("Pacific/Chatham").firstKey(), "Patched");
+    }
+
+    static class MockProvider extends ZoneRulesProvider {
+        final AtomicInteger lookups = new AtomicInteger();
+        final boolean immutable;
+        volatile ZoneRules rules = PATCHED;
+        volatile Set<String> ids;
+        volatile Set<String> refreshIds;
+        MockProvider(boolean immutable, String... ids) {
+            this.immutable = immutable;
+            this.ids = Collections.unmodifiableSet(new HashSet<String>(Arrays.asList(ids)));
+        }
+        @Override
+        protected Set<String> provideZoneIds() {
+            return ids;
+        }
+        @Override
+        protected ZoneRules provideRules(String zoneId, boolean forCaching) {
+            if (ids.contains(zoneId) == false) {
+                throw new ZoneRulesException("Unknown time-zone ID: " + zoneId);
+            }
+            lookups.incrementAndGet();
+            return rules;
+        }
+        @Override
+        protected NavigableMap<String, ZoneRules> provideVersions(String zoneId) {
+            NavigableMap<String, ZoneRules> result = new TreeMap<String, ZoneRules>();
+            result.put("Patched", rules);
+            return result;
+        }
+        @Override
+        protected boolean provideRefresh() {
+            if (refreshIds == null) {
+                return false;
+            }
+            ids = refreshIds;
+            refreshIds = null;
+            return true;
+        }
+        @Override
+        protected boolean provideImmutableRules() {
+            return immutable;
+        }
+    }
+
+}
@@ -0,0 +1,137 @@
+/*
+ * Copyright (c) 2007-present, Stephen Colebourne & Michael Nascimento Santos
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *  * Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ *  * Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ *  * Neither the name of JSR-310 nor the names of its contributors
+ *    may be used to endorse or promote products derived from this software
+ *    without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.threeten.bp.zone;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertSame;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.net.URLConnection;
+import java.net.URLStreamHandler;
+import java.util.NavigableMap;
+import java.util.Set;
+
+import org.testng.annotations.Test;
+
+/**
+ * Test MappedTzdbZoneRulesProvider.
+ */
+@Test
+public class TestMappedTzdbZoneRulesProvider {
+
+    private static final URL TZDB = ZoneRulesProvider.class.getClassLoader().getResource("org/threeten/bp/TZDB.dat");
+
+    //-----------------------------------------------------------------------
+    @Test
+    public void test_matchesStandardProvider() {
+        MappedTzdbZoneRulesProvider test = new MappedTzdbZoneRulesProvider();
+        TzdbZoneRulesProvider base = new TzdbZoneRulesProvider();
+        Set<String> zoneIds = base.provideZoneIds();
+        assertEquals(test.provideZoneIds(), zoneIds);
+        for (String zoneId : zoneIds) {
+            assertEquals(test.provideRules(zoneId, true), base.provideRules(zoneId, true), zoneId);
+            assertEquals(test.provideVersions(zoneId), base.provideVersions(zoneId), zoneId);
+        }
+    }
+
+    @Test
+    public void test_file() throws Exception {
+        MappedTzdbZoneRulesProvider test = new MappedTzdbZoneRulesProvider(new File(TZDB.toURI()));
+        assertEquals(test.provideRules("Europe/London", true), ZoneRulesProvider.getRules("Europe/London", true));
+    }
+
+    @Test
+    public void test_streamUrl() throws Exception {
+        URL url = new URL(null, "test:tzdb", new URLStreamHandler() {
+            @Override
+            protected URLConnection openConnection(URL u) throws IOException {
+                return TZDB.openConnection();
+            }
+        });
+        MappedTzdbZoneRulesProvider test = new MappedTzdbZoneRulesProvider(url);
+        assertEquals(test.provideRules("America/New_York", true), ZoneRulesProvider.getRules("America/New_York", true));
+    }
+
+    @Test
+    public void test_provideRules_decodedOnce() {
+        MappedTzdbZoneRulesProvider test = new MappedTzdbZoneRulesProvider(TZDB);
+        ZoneRules rules = test.provideRules("Europe/Paris", true);
+        assertSame(test.provideRules("Europe/Paris", true), rules);
+        NavigableMap<String, ZoneRules> versions = test.provideVersions("Europe/Paris");
+        assertSame(versions.lastEntry().getValue(), rules);
+    }
+
+    @Test(expectedExceptions=ZoneRulesException.class)
+    public void test_provideRules_unknownId() {
+        new MappedTzdbZoneRulesProvider(TZDB).provideRules("Europe/Lon", true);
+    }
+
+    @Test(expectedExceptions=NullPointerException.class)
+    public void test_provideRules_null() {
+        new MappedTzdbZoneRulesProvider(TZDB).provideRules(null, true);
+    }
+
+    @Test(expectedExceptions=ZoneRulesException.class)
+    public void test_invalidFile() throws Exception {
+        File file = File.createTempFile("tzdb", ".dat");
+        file.deleteOnExit();
+        FileOutputStream out = new FileOutputStream(file);
+        try {
+            out.write(new byte[] {2, 0, 4, 'T', 'Z', 'D', 'B'});
+        } finally {
+            out.close();
+        }
+        new MappedTzdbZoneRulesProvider(file);
+    }
+
+    @Test(expectedExceptions=ZoneRulesException.class)
+    public void test_truncatedFile() throws Exception {
+        InputStream in = TZDB.openStream();
+        File file = File.createTempFile("tzdb", ".dat");
+        file.deleteOnExit();
+        FileOutputStream out = new FileOutputStream(file);
+        try {
+            byte[] bytes = new byte[4096];
+            int read = in.read(bytes);
+            out.write(bytes, 0, read);
+        } finally {
+            in.close();
+            out.close();
+        }
+        new MappedTzdbZoneRulesProvider(file);
+    }
+
+}
@@ -34,16 +34,21 @@ package org.threeten.bp.zone;
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertFalse;
 import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertSame;
 import static org.testng.Assert.assertTrue;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Random;
 
 import org.testng.annotations.Test;
+import org.threeten.bp.DateTimeException;
 import org.threeten.bp.DayOfWeek;
 import org.threeten.bp.Duration;
 import org.threeten.bp.Instant;
@@ -93,6 +98,145 @@ public class TestStandardZoneRules {
         assertEquals(result, test);
     }
 
+    @Test
+    public void test_getOffsetInfo_allZones_aroundTransitions() {
+        for (String zoneId : ZoneRulesProvider.getAvailableZoneIds()) {
+            ZoneRules rules = ZoneRulesProvider.getRules(zoneId, false);
+            List<ZoneOffsetTransition> transitions = rules.getTransitions();
+            for (int i = 0; i < transitions.size(); i++) {
+                ZoneOffsetTransition trans = transitions.get(i);
+                // skip transitions too close to their neighbours for the checks below
+                if ((i > 0 && transitions.get(i - 1).toEpochSecond() > trans.toEpochSecond() - 86400) ||
+                        (i < transitions.size() - 1 && transitions.get(i + 1).toEpochSecond() < trans.toEpochSecond() + 86400)) {
+                    continue;
+                }
+                LocalDateTime start = (trans.isGap() ? trans.getDateTimeBefore() : trans.getDateTimeAfter());
+                LocalDateTime end = (trans.isGap() ? trans.getDateTimeAfter() : trans.getDateTimeBefore());
+                assertEquals(rules.getOffset(start.minusNanos(1)), trans.getOffsetBefore(), zoneId + " " + trans);
+                assertEquals(rules.getTransition(start), trans, zoneId + " " + trans);
+                assertEquals(rules.getTransition(start.plusNanos(1)), trans, zoneId + " " + trans);
+                assertEquals(rules.getTransition(end.minusNanos(1)), trans, zoneId + " " + trans);
+                assertEquals(rules.getTransition(end), null, zoneId + " " + trans);
+                assertEquals(rules.getOffset(end), trans.getOffsetAfter(), zoneId + " " + trans);
+                assertEquals(rules.getOffset(end.plusNanos(1)), trans.getOffsetAfter(), zoneId + " " + trans);
+            }
+        }
+    }
+
+    @Test
+    public void test_toLocalEpochSeconds_allZones() {
+        for (String zoneId : ZoneRulesProvider.getAvailableZoneIds()) {
+            ZoneRules rules = ZoneRulesProvider.getRules(zoneId, false);
+            long[] epochSecs = sampleAroundTransitions(rules);
+            long[] locals = new long[epochSecs.length];
+            rules.toLocalEpochSeconds(epochSecs, locals, 0, epochSecs.length);
+            long[] epochMillis = new long[epochSecs.length];
+            for (int i = 0; i < epochSecs.length; i++) {
+                assertEquals(locals[i], epochSecs[i] + rules.getOffsetSeconds(epochSecs[i]), zoneId + " " + epochSecs[i]);
+                epochMillis[i] = epochSecs[i] * 1000 + 999;
+            }
+            rules.toLocalEpochMillis(epochMillis, epochMillis, 0, epochMillis.length);
+            for (int i = 0; i < epochSecs.length; i++) {
+                assertEquals(epochMillis[i], locals[i] * 1000 + 999, zoneId + " " + epochSecs[i]);
+            }
+        }
+    }
+
+    @Test
+    public void test_toEpochSeconds_allZones() {
+        for (String zoneId : ZoneRulesProvider.getAvailableZoneIds()) {
+            ZoneRules rules = ZoneRulesProvider.getRules(zoneId, false);
+            long[] locals = sampleAroundTransitions(rules);
+            long[] before = new long[locals.length];
+            long[] after = new long[locals.length];
+            rules.toEpochSeconds(locals, before, 0, locals.length, ZoneRules.TransitionPolicy.OFFSET_BEFORE);
+            rules.toEpochSeconds(locals, after, 0, locals.length, ZoneRules.TransitionPolicy.OFFSET_AFTER);
+            for (int i = 0; i < locals.length; i++) {
+                String msg = zoneId + " " + locals[i];
+                assertEquals(before[i], locals[i] - rules.getOffsetSecondsForLocal(locals[i]), msg);
+                LocalDateTime dateTime = LocalDateTime.ofEpochSecond(locals[i], 0, ZoneOffset.UTC);
+                ZoneOffsetTransition trans = rules.getTransition(dateTime);
+                ZoneOffset expected = (trans != null ? trans.getOffsetAfter() : rules.getOffset(dateTime));
+                assertEquals(after[i], locals[i] - expected.getTotalSeconds(), msg);
+                long[] single = new long[] {locals[i]};
+                try {
+                    rules.toEpochSeconds(single, single, 0, 1, ZoneRules.TransitionPolicy.STRICT);
+                    assertEquals(trans, null, msg);
+                    assertEquals(single[0], before[i], msg);
+                } catch (DateTimeException ex) {
+                    assertNotNull(trans, msg);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void test_toEpochMillis_London() {
+        ZoneRules rules = ZoneId.of("Europe/London").getRules();
+        long gap = LocalDateTime.of(2008, 3, 30, 1, 30).toEpochSecond(ZoneOffset.UTC) * 1000 + 5;
+        long overlap = LocalDateTime.of(2008, 10, 26, 1, 30).toEpochSecond(ZoneOffset.UTC) * 1000 + 5;
+        long[] values = new long[] {gap, overlap};
+        rules.toEpochMillis(values, values, 0, 2, ZoneRules.TransitionPolicy.OFFSET_BEFORE);
+        assertEquals(values[0], gap);
+        assertEquals(values[1], overlap - 3600000);
+        values = new long[] {gap, overlap};
+        rules.toEpochMillis(values, values, 0, 2, ZoneRules.TransitionPolicy.OFFSET_AFTER);
+        assertEquals(values[0], gap - 3600000);
+        assertEquals(values[1], overlap);
+    }
+
+    @Test
+    public void test_toEpochSeconds_strict_partial() {
+        ZoneRules rules = ZoneId.of("Europe/London").getRules();
+        long winter = LocalDateTime.of(2008, 1, 1, 0, 0).toEpochSecond(ZoneOffset.UTC);
+        long gap = LocalDateTime.of(2008, 3, 30, 1, 30).toEpochSecond(ZoneOffset.UTC);
+        long[] values = new long[] {winter, gap, gap};
+        try {
+            rules.toEpochSeconds(values, values, 0, 3, ZoneRules.TransitionPolicy.STRICT);
+            throw new AssertionError("Expected DateTimeException");
+        } catch (DateTimeException ex) {
+            assertEquals(values, new long[] {winter, gap, gap});
+        }
+    }
+
+    /**
+     * Creates sorted sample values around each transition of the rules, plus some random values.
+     */
+    private static long[] sampleAroundTransitions(ZoneRules rules) {
+        List<ZoneOffsetTransition> transitions = new ArrayList<ZoneOffsetTransition>(rules.getTransitions());
+        ZoneOffsetTransition next = null;
+        if (rules.getTransitionRules().size() > 0) {
+            next = rules.nextTransition(Instant.ofEpochSecond(1800000000L));
+        }
+        for (int i = 0; i < 20 && next != null; i++) {
+            transitions.add(next);
+            next = rules.nextTransition(next.getInstant());
+        }
+        List<Long> values = new ArrayList<Long>();
+        for (ZoneOffsetTransition trans : transitions) {
+            long epochSec = trans.toEpochSecond();
+            for (long delta : new long[] {-86400, -7200, -3601, -3600, -1801, -1, 0, 1, 1799, 1800, 3599, 3600, 7200}) {
+                values.add(epochSec + delta);
+            }
+        }
+        Random random = new Random(rules.hashCode());
+        for (int i = 0; i < 200; i++) {
+            values.add(-5000000000L + (long) (random.nextDouble() * 10000000000L));
+        }
+        for (int year = 2000; year < 2100; year++) {
+            long start = LocalDate.of(year, 1, 1).toEpochDay() * 86400;
+            values.add(start - 1);
+            values.add(start);
+            values.add(start + 86400 * 180);
+        }
+        Collections.sort(values);
+        long[] array = new long[values.size()];
+        for (int i = 0; i < array.length; i++) {
+            array[i] = values.get(i);
+        }
+        return array;
+    }
+
     //-----------------------------------------------------------------------
     // Europe/London
     //-----------------------------------------------------------------------
@@ -234,6 +378,29 @@ public class TestStandardZoneRules {
         assertEquals(trans.hashCode(), otherTrans.hashCode());
     }
 
+    public void test_London_getOffsetInfo_historic_interned() {
+        ZoneRules test = europeLondon();
+        final LocalDateTime gap = LocalDateTime.of(1990, 3, 25, 1, 30);
+        final LocalDateTime overlap = LocalDateTime.of(1990, 10, 28, 1, 30);
+        final LocalDateTime normal = LocalDateTime.of(1990, 6, 1, 12, 0);
+        checkOffset(test, gap, OFFSET_ZERO, GAP);
+        checkOffset(test, overlap, OFFSET_PONE, OVERLAP);
+        checkOffset(test, normal, OFFSET_PONE, 1);
+
+        assertSame(test.getTransition(gap), test.getTransition(gap));
+        assertSame(test.getTransition(overlap), test.getTransition(overlap));
+        assertSame(test.nextTransition(normal.toInstant(OFFSET_PONE)), test.getTransition(overlap));
+        assertSame(test.previousTransition(normal.toInstant(OFFSET_PONE)), test.getTransition(gap));
+        assertSame(test.getValidOffsets(normal), test.getValidOffsets(normal));
+        assertEquals(test.isValidOffset(normal, OFFSET_PONE), true);
+        assertEquals(test.isValidOffset(normal, OFFSET_ZERO), false);
+        assertEquals(test.isValidOffset(gap, OFFSET_ZERO), false);
+        assertEquals(test.isValidOffset(gap, OFFSET_PONE), false);
+        assertEquals(test.isValidOffset(overlap, OFFSET_ZERO), true);
+        assertEquals(test.isValidOffset(overlap, OFFSET_PONE), true);
+        assertEquals(test.isValidOffset(overlap, OFFSET_PTWO), false);
+    }
+
     public void test_London_getOffsetInfo_overlap() {
         ZoneRules test = europeLondon();
         final LocalDateTime dateTime = LocalDateTime.of(2008, 10, 26, 1, 0, 0, 0);
@@ -417,6 +584,256 @@ public class TestStandardZoneRules {
         }
     }
 
+    //-----------------------------------------------------------------------
+    @Test
+    public void test_transitionsBetween_allZones() {
+        Instant start = Instant.parse("1800-01-01T00:00:00Z");
+        Instant end = Instant.parse("2100-01-01T00:00:00Z");
+        for (String zoneId : new TzdbZoneRulesProvider().provideZoneIds()) {
+            ZoneRules rules = ZoneRulesProvider.getRules(zoneId, false);
+            List<ZoneOffsetTransition> expected = new ArrayList<ZoneOffsetTransition>();
+            if (rules.getTransitions().size() > 0) {
+                ZoneOffsetTransition trans = rules.nextTransition(start.minusSeconds(1));
+                while (trans != null && trans.getInstant().isBefore(end)) {
+                    expected.add(trans);
+                    trans = rules.nextTransition(trans.getInstant());
+                }
+            }
+            assertEquals(toList(rules.transitionsBetween(start, end)), expected, zoneId);
+            if (expected.size() > 2) {
+                // start is inclusive and end is exclusive
+                Instant first = expected.get(1).getInstant();
+                Instant last = expected.get(expected.size() - 1).getInstant();
+                assertEquals(toList(rules.transitionsBetween(first, last)), expected.subList(1, expected.size() - 1), zoneId);
+            }
+        }
+    }
+
+    public void test_transitionsBetween_London() {
+        ZoneRules test = europeLondon();
+        List<ZoneOffsetTransition> trans = test.getTransitions();
+        ZoneOffsetTransition last = trans.get(trans.size() - 1);
+        ZoneOffsetTransitionRule spring = test.getTransitionRules().get(0);
+        ZoneOffsetTransitionRule autumn = test.getTransitionRules().get(1);
+
+        List<ZoneOffsetTransition> expected = new ArrayList<ZoneOffsetTransition>();
+        expected.add(last);
+        expected.add(spring.createTransition(1998));
+        expected.add(autumn.createTransition(1998));
+        assertEquals(toList(test.transitionsBetween(last.getInstant(), autumn.createTransition(1998).getInstant().plusNanos(1))), expected);
+        assertEquals(toList(test.transitionsBetween(last.getInstant().plusNanos(1), autumn.createTransition(1998).getInstant())),
+                expected.subList(1, 2));
+
+        List<ZoneOffsetTransition> future = toList(test.transitionsBetween(
+                Instant.parse("2200-06-01T00:00:00Z"), Instant.parse("2203-06-01T00:00:00Z")));
+        assertEquals(future.size(), 6);
+        assertEquals(future.get(0), autumn.createTransition(2200));
+        assertEquals(future.get(5), spring.createTransition(2203));
+    }
+
+    public void test_transitionsBetween_emptyRange() {
+        ZoneRules test = europeLondon();
+        Instant instant = test.getTransitions().get(10).getInstant();
+        assertFalse(test.transitionsBetween(instant, instant).hasNext());
+        assertFalse(test.transitionsBetween(instant.plusSeconds(1), instant).hasNext());
+        assertFalse(test.transitionsBetween(Instant.MIN, Instant.MIN).hasNext());
+        assertTrue(test.transitionsBetween(Instant.MIN, Instant.EPOCH).hasNext());
+    }
+
+    @Test(expectedExceptions=java.util.NoSuchElementException.class)
+    public void test_transitionsBetween_nextAfterEnd() {
+        ZoneRules test = europeLondon();
+        Instant instant = test.getTransitions().get(10).getInstant();
+        Iterator<ZoneOffsetTransition> it = test.transitionsBetween(instant, instant.plusSeconds(1));
+        assertEquals(it.next(), test.getTransitions().get(10));
+        it.next();
+    }
+
+    @Test(expectedExceptions=UnsupportedOperationException.class)
+    public void test_transitionsBetween_remove() {
+        ZoneRules test = europeLondon();
+        Iterator<ZoneOffsetTransition> it = test.transitionsBetween(Instant.MIN, Instant.MAX);
+        it.next();
+        it.remove();
+    }
+
+    private static List<ZoneOffsetTransition> toList(Iterator<ZoneOffsetTransition> iterator) {
+        List<ZoneOffsetTransition> list = new ArrayList<ZoneOffsetTransition>();
+        while (iterator.hasNext()) {
+            list.add(iterator.next());
+        }
+        return list;
+    }
+
+    public void test_London_nextTransition_rulesBased_beyondCache() {
+        ZoneRules test = europeLondon();
+        List<ZoneOffsetTransitionRule> rules = test.getTransitionRules();
+
+        for (int year = 2095; year < 2105; year++) {
+            ZoneOffsetTransition a = rules.get(0).createTransition(year);
+            ZoneOffsetTransition b = rules.get(1).createTransition(year);
+            ZoneOffsetTransition c = rules.get(0).createTransition(year + 1);
+
+            assertEquals(test.nextTransition(a.getInstant()), b);
+            assertEquals(test.nextTransition(b.getInstant()), c);
+            assertEquals(test.previousTransition(c.getInstant()), b);
+            assertEquals(test.getOffset(a.getInstant()), OFFSET_PONE);
+            assertEquals(test.getOffset(b.getInstant()), OFFSET_ZERO);
+            assertEquals(test.getOffset(a.getDateTimeBefore().plusHours(2)), OFFSET_PONE);
+            assertEquals(test.getOffset(b.getDateTimeAfter().plusHours(2)), OFFSET_ZERO);
+        }
+    }
+
+    public void test_transitionTable_allZones() {
+        for (String zoneId : ZoneRulesProvider.getAvailableZoneIds()) {
+            ZoneRules rules = ZoneRulesProvider.getRules(zoneId, false);
+            if (rules instanceof StandardZoneRules) {
+                StandardZoneRules test = ((StandardZoneRules) rules).withTransitionTable(2050);
+                for (long epochSec = -2000000000L; epochSec < 3000000000L; epochSec += 3600 * 24 * 29 + 1234) {
+                    Instant instant = Instant.ofEpochSecond(epochSec);
+                    assertEquals(test.getOffset(instant), rules.getOffset(instant), zoneId + " " + instant);
+                }
+                for (ZoneOffsetTransition trans : rules.getTransitions()) {
+                    Instant instant = trans.getInstant();
+                    assertEquals(test.getOffset(instant), rules.getOffset(instant), zoneId + " " + instant);
+                    assertEquals(test.getOffset(instant.minusSeconds(1)), rules.getOffset(instant.minusSeconds(1)), zoneId + " " + instant);
+                }
+                assertEquals(test, rules);
+            }
+        }
+    }
+
+    public void test_transitionTable_boundary_allZones() {
+        int lastYear = 2050;
+        for (String zoneId : ZoneRulesProvider.getAvailableZoneIds()) {
+            ZoneRules rules = ZoneRulesProvider.getRules(zoneId, false);
+            if (rules instanceof StandardZoneRules) {
+                StandardZoneRules test = ((StandardZoneRules) rules).withTransitionTable(lastYear);
+                assertEquals(test.getTransitions(), rules.getTransitions(), zoneId);
+                if (rules.getTransitionRules().isEmpty()) {
+                    assertEquals(test.getTableTransitions(), Collections.emptyList(), zoneId);
+                    continue;
+                }
+                // the table holds every transition before the first one of the last year
+                long limit = rules.getTransitionRules().get(0).createTransition(lastYear).toEpochSecond();
+                List<ZoneOffsetTransition> expected = new ArrayList<ZoneOffsetTransition>(rules.getTransitions());
+                ZoneOffsetTransition trans = expected.get(expected.size() - 1);
+                while ((trans = rules.nextTransition(trans.getInstant())) != null && trans.toEpochSecond() < limit) {
+                    expected.add(trans);
+                }
+                assertEquals(test.getTableTransitions(), expected, zoneId);
+
+                // offsets either side of each transition across the limit
+                assertNotNull(trans, zoneId);
+                assertEquals(trans.toEpochSecond(), limit, zoneId);
+                List<ZoneOffsetTransition> boundary = new ArrayList<ZoneOffsetTransition>(
+                        expected.subList(Math.max(expected.size() - 4, 0), expected.size()));
+                for (int i = 0; i < 4; i++) {
+                    boundary.add(trans);
+                    trans = rules.nextTransition(trans.getInstant());
+                }
+                for (ZoneOffsetTransition boundaryTrans : boundary) {
+                    long epochSec = boundaryTrans.toEpochSecond();
+                    assertEquals(test.getOffsetSeconds(epochSec - 1), boundaryTrans.getOffsetBefore().getTotalSeconds(), zoneId);
+                    assertEquals(test.getOffsetSeconds(epochSec), boundaryTrans.getOffsetAfter().getTotalSeconds(), zoneId);
+                    assertEquals(test.getOffset(Instant.ofEpochSecond(epochSec - 1)), boundaryTrans.getOffsetBefore(), zoneId);
+                    assertEquals(test.getOffset(boundaryTrans.getInstant()), boundaryTrans.getOffsetAfter(), zoneId);
+                    assertEquals(test.nextTransition(Instant.ofEpochSecond(epochSec - 1)), boundaryTrans, zoneId);
+                }
+            }
+        }
+    }
+
+    public void test_rememberLastHit_allZones() {
+        Random random = new Random(47);
+        for (String zoneId : ZoneRulesProvider.getAvailableZoneIds()) {
+            ZoneRules rules = ZoneRulesProvider.getRules(zoneId, false);
+            if (rules instanceof StandardZoneRules) {
+                StandardZoneRules base = (StandardZoneRules) rules;
+                StandardZoneRules[] tests = {
+                    base.withRememberLastHit(true), base.withTransitionTable(2050).withRememberLastHit(true)};
+                for (StandardZoneRules test : tests) {
+                    for (long epochSec = -5000000000L; epochSec < 5000000000L; epochSec += 3600 * 24 * 97 + 1234) {
+                        assertEquals(test.getOffset(Instant.ofEpochSecond(epochSec)), rules.getOffset(Instant.ofEpochSecond(epochSec)), zoneId);
+                        assertEquals(test.getOffsetSeconds(epochSec + 1), rules.getOffsetSeconds(epochSec + 1), zoneId);
+                    }
+                    for (ZoneOffsetTransition trans : rules.getTransitions()) {
+                        long epochSec = trans.toEpochSecond();
+                        assertEquals(test.getOffsetSeconds(epochSec - 1), rules.getOffsetSeconds(epochSec - 1), zoneId);
+                        assertEquals(test.getOffsetSeconds(epochSec), rules.getOffsetSeconds(epochSec), zoneId);
+                        assertEquals(test.getOffsetSeconds(epochSec + 1), rules.getOffsetSeconds(epochSec + 1), zoneId);
+                    }
+                    for (int i = 0; i < 100; i++) {
+                        long epochSec = (random.nextLong() % 5000000000L);
+                        assertEquals(test.getOffsetSeconds(epochSec), rules.getOffsetSeconds(epochSec), zoneId);
+                    }
+                }
+            }
+        }
+    }
+
+    public void test_getOffsetSeconds_allZones() {
+        for (String zoneId : ZoneRulesProvider.getAvailableZoneIds()) {
+            ZoneRules test = ZoneRulesProvider.getRules(zoneId, false);
+            for (long epochSec = -5000000000L; epochSec < 5000000000L; epochSec += 3600 * 24 * 97 + 1234) {
+                assertEquals(test.getOffsetSeconds(epochSec), test.getOffset(Instant.ofEpochSecond(epochSec)).getTotalSeconds(), zoneId);
+                LocalDateTime ldt = LocalDateTime.ofEpochSecond(epochSec, 0, ZoneOffset.UTC);
+                assertEquals(test.getOffsetSecondsForLocal(epochSec), test.getOffset(ldt).getTotalSeconds(), zoneId + " " + ldt);
+            }
+            for (ZoneOffsetTransition trans : test.getTransitions()) {
+                long epochSec = trans.toEpochSecond();
+                assertEquals(test.getOffsetSeconds(epochSec - 1), trans.getOffsetBefore().getTotalSeconds(), zoneId);
+                assertEquals(test.getOffsetSeconds(epochSec), trans.getOffsetAfter().getTotalSeconds(), zoneId);
+                checkOffsetSecondsForLocal(test, zoneId, trans);
+            }
+            if (test.getTransitionRules().size() > 0) {
+                for (int year = 2030; year < 2032; year++) {
+                    for (ZoneOffsetTransitionRule rule : test.getTransitionRules()) {
+                        checkOffsetSecondsForLocal(test, zoneId, rule.createTransition(year));
+                    }
+                }
+            }
+        }
+    }
+
+    private void checkOffsetSecondsForLocal(ZoneRules test, String zoneId, ZoneOffsetTransition trans) {
+        LocalDateTime[] ldts = {
+            trans.getDateTimeBefore().minusSeconds(1), trans.getDateTimeBefore(), trans.getDateTimeBefore().plusSeconds(1),
+            trans.getDateTimeAfter().minusSeconds(1), trans.getDateTimeAfter(), trans.getDateTimeAfter().plusSeconds(1),
+        };
+        for (LocalDateTime ldt : ldts) {
+            assertEquals(test.getOffsetSecondsForLocal(ldt.toEpochSecond(ZoneOffset.UTC)), test.getOffset(ldt).getTotalSeconds(), zoneId + " " + ldt);
+        }
+    }
+
+    public void test_lastRulesCacheSize() {
+        assertEquals(StandardZoneRules.lastRulesCacheSize(1996, 2100), 104);
+        assertEquals(StandardZoneRules.lastRulesCacheSize(2100, 2100), 0);
+        assertEquals(StandardZoneRules.lastRulesCacheSize(2100, 1950), 0);
+        assertEquals(StandardZoneRules.lastRulesCacheSize(1000, 9999), StandardZoneRules.MAX_CACHED_YEARS);
+        assertEquals(StandardZoneRules.lastRulesCacheSize(Year.MIN_VALUE, Year.MAX_VALUE), StandardZoneRules.MAX_CACHED_YEARS);
+        assertEquals(StandardZoneRules.lastRulesCacheSize(Year.MAX_VALUE, Year.MIN_VALUE), 0);
+    }
+
+    public void test_readYearProperty() {
+        String key = "org.threeten.bp.zone.TestStandardZoneRules.year";
+        try {
+            assertEquals(StandardZoneRules.readYearProperty(key, 2100, 1900, 9999), 2100);
+            System.setProperty(key, "2050");
+            assertEquals(StandardZoneRules.readYearProperty(key, 2100, 1900, 9999), 2050);
+            System.setProperty(key, "1899");
+            assertEquals(StandardZoneRules.readYearProperty(key, 2100, 1900, 9999), 2100);
+            System.setProperty(key, "-5");
+            assertEquals(StandardZoneRules.readYearProperty(key, 2100, 1900, 9999), 2100);
+            System.setProperty(key, "10000");
+            assertEquals(StandardZoneRules.readYearProperty(key, 2100, 1900, 9999), 2100);
+            System.setProperty(key, "next");
+            assertEquals(StandardZoneRules.readYearProperty(key, 2100, 1900, 9999), 2100);
+        } finally {
+            System.clearProperty(key);
+        }
+    }
+
     public void test_London_nextTransition_lastYear() {
         ZoneRules test = europeLondon();
         List<ZoneOffsetTransitionRule> rules = test.getTransitionRules();
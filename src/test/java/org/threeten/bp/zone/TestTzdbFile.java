@@ -0,0 +1,254 @@
+/*
+ * Copyright (c) 2007-present, Stephen Colebourne & Michael Nascimento Santos
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *  * Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ *  * Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ *  * Neither the name of JSR-310 nor the names of its contributors
+ *    may be used to endorse or promote products derived from this software
+ *    without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.threeten.bp.zone;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StreamCorruptedException;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import org.testng.annotations.Test;
+
+/**
+ * Test TzdbFile.
+ */
+@Test
+public class TestTzdbFile {
+
+    /**
+     * Reads the 'TZDB.dat' file on the class path.
+     *
+     * @return the bytes of the file, not null
+     */
+    static byte[] readTzdb() throws IOException {
+        URL url = ZoneRulesProvider.class.getClassLoader().getResource("org/threeten/bp/TZDB.dat");
+        InputStream in = url.openStream();
+        try {
+            ByteArrayOutputStream baos = new ByteArrayOutputStream();
+            byte[] chunk = new byte[8192];
+            int read;
+            while ((read = in.read(chunk)) != -1) {
+                baos.write(chunk, 0, read);
+            }
+            return baos.toByteArray();
+        } finally {
+            in.close();
+        }
+    }
+
+    /**
+     * Converts a file to the specified format.
+     *
+     * @param file  the file to convert, not null
+     * @param format  the format to write
+     * @return the bytes of the converted file, not null
+     */
+    static byte[] convert(TzdbFile file, int format) throws Exception {
+        String[] versionIds = file.getVersionIds();
+        String[] regionIds = file.getRegionIds();
+        ZoneRules[] rules = new ZoneRules[file.getRuleCount()];
+        for (int i = 0; i < rules.length; i++) {
+            rules[i] = file.getRules(i);
+        }
+        short[] ruleIndices = new short[versionIds.length * regionIds.length];
+        for (int v = 0; v < versionIds.length; v++) {
+            for (int r = 0; r < regionIds.length; r++) {
+                ZoneRules found = file.getRules(v, regionIds[r]);
+                ruleIndices[v * regionIds.length + r] = (short) (found == null ? -1 : Arrays.asList(rules).indexOf(found));
+            }
+        }
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        if (format == TzdbFile.FORMAT_1) {
+            TzdbFile.writeFormat1(new DataOutputStream(baos), versionIds, regionIds, rules, ruleIndices);
+        } else {
+            TzdbFile.writeFormat2(new DataOutputStream(baos), versionIds, regionIds, rules, ruleIndices);
+        }
+        return baos.toByteArray();
+    }
+
+    private static byte[] readTzdb(int format) throws Exception {
+        return convert(TzdbFile.load(ByteBuffer.wrap(readTzdb())), format);
+    }
+
+    //-----------------------------------------------------------------------
+    @Test
+    public void test_bundled() throws Exception {
+        TzdbFile file = TzdbFile.load(ByteBuffer.wrap(readTzdb()));
+        assertEquals(file.getFormat(), TzdbFile.FORMAT_2);
+    }
+
+    @Test
+    public void test_format1() throws Exception {
+        TzdbFile file = TzdbFile.load(ByteBuffer.wrap(readTzdb(TzdbFile.FORMAT_1)));
+        assertEquals(file.getFormat(), TzdbFile.FORMAT_1);
+        assertTrue(Arrays.asList(file.getRegionIds()).containsAll(new TzdbZoneRulesProvider().provideZoneIds()));
+        int latest = file.getVersionIds().length - 1;
+        assertEquals(file.getRules(latest, "Europe/London"), ZoneRulesProvider.getRules("Europe/London", false));
+        assertSame(file.getRules(latest, "Europe/London"), file.getRules(latest, "Europe/London"));
+        assertNull(file.getRules(latest, "Europe/Lon"));
+    }
+
+    @Test
+    public void test_format1_roundTrip() throws Exception {
+        byte[] bytes1 = readTzdb(TzdbFile.FORMAT_1);
+        assertEquals(convert(TzdbFile.load(ByteBuffer.wrap(bytes1)), TzdbFile.FORMAT_1), bytes1);
+    }
+
+    @Test
+    public void test_format2_matchesFormat1() throws Exception {
+        byte[] bytes1 = readTzdb(TzdbFile.FORMAT_1);
+        TzdbFile file1 = TzdbFile.load(ByteBuffer.wrap(bytes1));
+        byte[] bytes2 = convert(file1, TzdbFile.FORMAT_2);
+        assertTrue(bytes2.length < bytes1.length, bytes2.length + " >= " + bytes1.length);
+        TzdbFile file2 = TzdbFile.load(ByteBuffer.wrap(bytes2));
+        assertEquals(file2.getFormat(), TzdbFile.FORMAT_2);
+        assertEquals(file2.getVersionIds(), file1.getVersionIds());
+        assertEquals(file2.getRegionIds(), file1.getRegionIds());
+        for (int v = 0; v < file1.getVersionIds().length; v++) {
+            for (String regionId : file1.getRegionIds()) {
+                assertEquals(file2.getRules(v, regionId), file1.getRules(v, regionId), regionId);
+            }
+        }
+    }
+
+    @Test
+    public void test_format1_mappedProvider() throws Exception {
+        File tmp = File.createTempFile("tzdb", ".dat");
+        tmp.deleteOnExit();
+        FileOutputStream out = new FileOutputStream(tmp);
+        try {
+            out.write(readTzdb(TzdbFile.FORMAT_1));
+        } finally {
+            out.close();
+        }
+        MappedTzdbZoneRulesProvider test = new MappedTzdbZoneRulesProvider(tmp);
+        assertEquals(test.provideZoneIds(), new TzdbZoneRulesProvider().provideZoneIds());
+        assertEquals(test.provideRules("Asia/Kathmandu", true), ZoneRulesProvider.getRules("Asia/Kathmandu", false));
+    }
+
+    @Test(expectedExceptions=StreamCorruptedException.class)
+    public void test_unknownFormat() throws Exception {
+        byte[] bytes = readTzdb();
+        bytes[0] = 3;
+        TzdbFile.load(ByteBuffer.wrap(bytes));
+    }
+
+    @Test(expectedExceptions=StreamCorruptedException.class)
+    public void test_format2_truncated() throws Exception {
+        byte[] bytes = readTzdb();
+        TzdbFile.load(ByteBuffer.wrap(Arrays.copyOf(bytes, bytes.length - 1)));
+    }
+
+    @Test
+    public void test_format2_invalidRuleIndex() throws Exception {
+        ZoneRules rules = ZoneRulesProvider.getRules("Europe/London", false);
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        TzdbFile.writeFormat2(new DataOutputStream(baos), new String[] {"2099a"}, new String[] {"Test/Region"},
+                new ZoneRules[] {rules}, new short[] {1});
+        TzdbFile file = TzdbFile.load(ByteBuffer.wrap(baos.toByteArray()));
+        try {
+            file.getRules(0, "Test/Region");
+            fail();
+        } catch (ZoneRulesException ex) {
+            assertTrue(ex.getCause() instanceof StreamCorruptedException, String.valueOf(ex.getCause()));
+        }
+    }
+
+    //-----------------------------------------------------------------------
+    @Test
+    public void test_readFully() throws Exception {
+        byte[] bytes = readTzdb();
+        long[] lengths = {bytes.length, -1, 0, 100, bytes.length + 100};
+        for (long length : lengths) {
+            for (boolean direct : new boolean[] {false, true}) {
+                ByteBuffer buf = TzdbFile.readFully(new ByteArrayInputStream(bytes), length, direct);
+                assertEquals(buf.position(), 0);
+                assertEquals(buf.remaining(), bytes.length);
+                assertEquals(buf.isDirect(), direct);
+                byte[] test = new byte[buf.remaining()];
+                buf.get(test);
+                assertEquals(test, bytes);
+            }
+        }
+    }
+
+    @Test
+    public void test_readFully_knownLengthNotGrown() throws Exception {
+        byte[] bytes = readTzdb();
+        ByteBuffer buf = TzdbFile.readFully(new ByteArrayInputStream(bytes), bytes.length, true);
+        assertEquals(buf.capacity(), bytes.length);
+        assertEquals(TzdbFile.load(buf).getRegionIds(), TzdbFile.load(ByteBuffer.wrap(bytes)).getRegionIds());
+    }
+
+    @Test
+    public void test_readFully_empty() throws Exception {
+        assertEquals(TzdbFile.readFully(new ByteArrayInputStream(new byte[0]), -1, false).remaining(), 0);
+        assertEquals(TzdbFile.readFully(new ByteArrayInputStream(new byte[0]), 0, true).remaining(), 0);
+    }
+
+    //-----------------------------------------------------------------------
+    @Test
+    public void test_epochSecDeltas() throws Exception {
+        long[] epochSecs = {-5000000000L, -2717640000L - 75, 0, 900, 15724800, 15724801, 10413792000L, 20000000000L + 7};
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        Ser.writeEpochSecDeltas(epochSecs, new DataOutputStream(baos));
+        long[] test = Ser.readEpochSecDeltas(new DataInputStream(new ByteArrayInputStream(baos.toByteArray())));
+        assertEquals(test, epochSecs);
+    }
+
+    @Test
+    public void test_epochSecDeltas_halfYearIsTwoBytes() throws Exception {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        Ser.writeEpochSecDeltas(new long[] {0, 182 * 86400L}, new DataOutputStream(baos));
+        assertEquals(baos.size(), 1 + 3 + 2);
+    }
+
+    @Test(expectedExceptions=IllegalArgumentException.class)
+    public void test_epochSecDeltas_notAscending() throws Exception {
+        Ser.writeEpochSecDeltas(new long[] {900, 900}, new DataOutputStream(new ByteArrayOutputStream()));
+    }
+
+}
@@ -32,12 +32,26 @@
 package org.threeten.bp.zone;
 
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
 
+import java.io.DataInputStream;
 import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
 import java.util.StringTokenizer;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import org.testng.annotations.Test;
 import org.threeten.bp.DayOfWeek;
@@ -56,6 +70,145 @@ import org.threeten.bp.zone.ZoneOffsetTransitionRule.TimeDefinition;
 @Test
 public class TestTzdbZoneRulesCompiler {
 
+    //-----------------------------------------------------------------------
+    // compile()
+    //-----------------------------------------------------------------------
+    private static final String EU_RULES =
+            "Rule\tEU\t1981\tmax\t-\tMar\tlastSun\t 1:00u\t1:00\tS\n" +
+            "Rule\tEU\t1996\tmax\t-\tOct\tlastSun\t 1:00u\t0\t-\n";
+    private static final String US_RULES =
+            "Rule\tUS\t2007\tmax\t-\tMar\tSun>=8\t2:00\t1:00\tD\n" +
+            "Rule\tUS\t2007\tmax\t-\tNov\tSun>=1\t2:00\t0\tS\n";
+    private static final String ZONES =
+            "Zone\tEurope/Paris\t0:09:21 -\tLMT\t1891 Mar 15  0:01\n" +
+            "\t\t\t1:00\tEU\tCE%sT\n" +
+            "Zone\tAmerica/New_York\t-4:56:02 -\tLMT\t1883 Nov 18 12:03:58\n" +
+            "\t\t\t-5:00\tUS\tE%sT\n" +
+            "Zone\tEtc/GMT+5\t-5\t-\t-05\n" +
+            "Link\tEurope/Paris\tEurope/Monaco\n";
+
+    private TzdbZoneRulesCompiler compile(String source, Map<String, ZoneRules> zoneCache, ExecutorService executor) throws Exception {
+        File file = File.createTempFile("tzdb", "");
+        try {
+            Writer out = new OutputStreamWriter(new FileOutputStream(file), "UTF-8");
+            out.write(source);
+            out.close();
+            File leapFile = File.createTempFile("leapseconds", "");
+            try {
+                TzdbZoneRulesCompiler test = new TzdbZoneRulesCompiler("2010c", Arrays.asList(file), leapFile, false);
+                test.setZoneCache(zoneCache);
+                test.setExecutor(executor);
+                test.compile();
+                return test;
+            } finally {
+                leapFile.delete();
+            }
+        } finally {
+            file.delete();
+        }
+    }
+
+    @Test
+    public void test_compile_parallelMatchesSerial() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            TzdbZoneRulesCompiler serial = compile(EU_RULES + US_RULES + ZONES, new HashMap<String, ZoneRules>(), null);
+            TzdbZoneRulesCompiler parallel = compile(EU_RULES + US_RULES + ZONES, new HashMap<String, ZoneRules>(), executor);
+            assertEquals(parallel.getZones(), serial.getZones());
+            assertEquals(serial.getZones().keySet(),
+                    new HashSet<String>(Arrays.asList("America/New_York", "Etc/GMT+5", "Europe/Monaco", "Europe/Paris")));
+            assertSame(serial.getZones().get("Europe/Monaco"), serial.getZones().get("Europe/Paris"));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void test_compile_zoneCache() throws Exception {
+        Map<String, ZoneRules> zoneCache = new HashMap<String, ZoneRules>();
+        TzdbZoneRulesCompiler first = compile(EU_RULES + US_RULES + ZONES, zoneCache, null);
+        assertEquals(zoneCache.size(), 3);
+        // whitespace changes do not affect the cache, rule changes only affect zones using the rule
+        String changed = EU_RULES.replace("\t", "  ") + US_RULES.replace("Sun>=8", "Sun>=15") + ZONES;
+        TzdbZoneRulesCompiler second = compile(changed, zoneCache, null);
+        assertSame(second.getZones().get("Europe/Paris"), first.getZones().get("Europe/Paris"));
+        assertSame(second.getZones().get("Etc/GMT+5"), first.getZones().get("Etc/GMT+5"));
+        assertEquals(second.getZones().get("America/New_York").equals(first.getZones().get("America/New_York")), false);
+        assertEquals(zoneCache.size(), 4);
+        TzdbZoneRulesCompiler uncached = compile(changed, new HashMap<String, ZoneRules>(), null);
+        assertEquals(second.getZones(), uncached.getZones());
+    }
+
+    private static void writeSource(File dir, String name, String source) throws Exception {
+        dir.mkdirs();
+        Writer out = new OutputStreamWriter(new FileOutputStream(new File(dir, name)), "UTF-8");
+        try {
+            out.write(source);
+        } finally {
+            out.close();
+        }
+    }
+
+    private static byte[] compileDat(File srcDir, String format, String threads) throws Exception {
+        File dstDir = File.createTempFile("tzdbout", "");
+        dstDir.delete();
+        try {
+            TzdbZoneRulesCompiler.main(new String[] {
+                "-srcdir", srcDir.getPath(), "-dstdir", dstDir.getPath(), "-unpacked",
+                "-format", format, "-threads", threads, "europe", "northamerica"});
+            File dat = new File(dstDir, "TZDB.dat");
+            byte[] bytes = new byte[(int) dat.length()];
+            DataInputStream in = new DataInputStream(new FileInputStream(dat));
+            try {
+                in.readFully(bytes);
+            } finally {
+                in.close();
+            }
+            return bytes;
+        } finally {
+            for (File file : dstDir.listFiles()) {
+                file.delete();
+            }
+            dstDir.delete();
+        }
+    }
+
+    @Test
+    public void test_main_parallelBytesMatchSerial() throws Exception {
+        File srcDir = File.createTempFile("tzdbsrc", "");
+        srcDir.delete();
+        try {
+            // two versions, so that the zone cache is used for the second
+            writeSource(new File(srcDir, "2010c"), "leapseconds", "Leap\t1972\tJun\t30\t23:59:60\t+\tS\n");
+            writeSource(new File(srcDir, "2011a"), "leapseconds", "Leap\t1972\tJun\t30\t23:59:60\t+\tS\n");
+            writeSource(new File(srcDir, "2010c"), "europe", EU_RULES + ZONES.substring(0, ZONES.indexOf("Zone\tAmerica")));
+            writeSource(new File(srcDir, "2010c"), "northamerica", US_RULES + ZONES.substring(ZONES.indexOf("Zone\tAmerica")));
+            writeSource(new File(srcDir, "2011a"), "europe", EU_RULES + ZONES.substring(0, ZONES.indexOf("Zone\tAmerica")));
+            writeSource(new File(srcDir, "2011a"), "northamerica",
+                    US_RULES.replace("Sun>=8", "Sun>=15") + ZONES.substring(ZONES.indexOf("Zone\tAmerica")));
+            for (String format : new String[] {"1", "2"}) {
+                byte[] serial = compileDat(srcDir, format, "1");
+                assertTrue(serial.length > 0);
+                for (String threads : new String[] {"2", "4", "8"}) {
+                    assertEquals(compileDat(srcDir, format, threads), serial, "format " + format + ", threads " + threads);
+                }
+                // the bytes decode to the rules of each version
+                TzdbFile file = TzdbFile.load(ByteBuffer.wrap(serial));
+                assertEquals(file.getVersionIds(), new String[] {"2010c", "2011a"});
+                assertEquals(file.getRules(0, "America/New_York").equals(file.getRules(1, "America/New_York")), false);
+                assertSame(file.getRules(0, "Europe/Paris"), file.getRules(1, "Europe/Paris"));
+            }
+        } finally {
+            for (File versionDir : srcDir.listFiles()) {
+                for (File file : versionDir.listFiles()) {
+                    file.delete();
+                }
+                versionDir.delete();
+            }
+            srcDir.delete();
+        }
+    }
+
     //-----------------------------------------------------------------------
     // parseYear()
     //-----------------------------------------------------------------------
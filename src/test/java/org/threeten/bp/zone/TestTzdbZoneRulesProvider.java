@@ -0,0 +1,133 @@
+/*
+ * Copyright (c) 2007-present, Stephen Colebourne & Michael Nascimento Santos
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *  * Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ *  * Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ *  * Neither the name of JSR-310 nor the names of its contributors
+ *    may be used to endorse or promote products derived from this software
+ *    without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.threeten.bp.zone;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+import java.net.URL;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.testng.annotations.Test;
+
+/**
+ * Test TzdbZoneRulesProvider.
+ */
+@Test
+public class TestTzdbZoneRulesProvider {
+
+    private static final URL TZDB = ZoneRulesProvider.class.getClassLoader().getResource("org/threeten/bp/TZDB.dat");
+
+    //-----------------------------------------------------------------------
+    @Test
+    public void test_regions_idsAndPrefix() {
+        TzdbZoneRulesProvider test = new TzdbZoneRulesProvider(Arrays.asList("Europe/London", "America/*"));
+        Set<String> zoneIds = test.provideZoneIds();
+        assertTrue(zoneIds.contains("Europe/London"));
+        assertTrue(zoneIds.contains("America/New_York"));
+        assertEquals(zoneIds.contains("Europe/Paris"), false);
+        for (String zoneId : zoneIds) {
+            assertTrue(zoneId.equals("Europe/London") || zoneId.startsWith("America/"), zoneId);
+        }
+        assertEquals(test.provideRules("Europe/London", false), ZoneRulesProvider.getRules("Europe/London", false));
+        assertEquals(test.provideVersions("Europe/Paris").size(), 0);
+    }
+
+    @Test(expectedExceptions=UnsupportedOperationException.class)
+    public void test_provideZoneIds_unmodifiable() {
+        TzdbZoneRulesProvider test = new TzdbZoneRulesProvider(Collections.singleton("Europe/London"));
+        test.provideZoneIds().add("Europe/Paris");
+    }
+
+    @Test(expectedExceptions=ZoneRulesException.class)
+    public void test_regions_excluded() {
+        TzdbZoneRulesProvider test = new TzdbZoneRulesProvider(Collections.singleton("Europe/London"));
+        test.provideRules("Europe/Paris", false);
+    }
+
+    @Test(expectedExceptions=ZoneRulesException.class)
+    public void test_regions_unknownId() {
+        new TzdbZoneRulesProvider(Arrays.asList("Europe/London", "Europe/Lon"));
+    }
+
+    @Test(expectedExceptions=NullPointerException.class)
+    public void test_regions_null() {
+        new TzdbZoneRulesProvider((Set<String>) null);
+    }
+
+    @Test
+    public void test_regions_unmatchedPrefix() {
+        TzdbZoneRulesProvider test = new TzdbZoneRulesProvider(Collections.singleton("Mars/*"));
+        assertEquals(test.provideZoneIds().size(), 0);
+    }
+
+    @Test
+    public void test_regions_mapped() {
+        MappedTzdbZoneRulesProvider test = new MappedTzdbZoneRulesProvider(TZDB, Arrays.asList("Asia/*"));
+        for (String zoneId : test.provideZoneIds()) {
+            assertTrue(zoneId.startsWith("Asia/"), zoneId);
+        }
+        assertEquals(test.provideRules("Asia/Tokyo", false), ZoneRulesProvider.getRules("Asia/Tokyo", false));
+    }
+
+    //-----------------------------------------------------------------------
+    @Test
+    public void test_regionFilter_systemProperty() {
+        String old = System.getProperty(TzdbZoneRulesProvider.REGIONS_PROPERTY);
+        try {
+            System.setProperty(TzdbZoneRulesProvider.REGIONS_PROPERTY, " Europe/London , Pacific/* ,");
+            TzdbZoneRulesProvider test = new TzdbZoneRulesProvider();
+            Set<String> zoneIds = new HashSet<String>(test.provideZoneIds());
+            assertTrue(zoneIds.remove("Europe/London"));
+            assertTrue(zoneIds.contains("Pacific/Auckland"));
+            for (String zoneId : zoneIds) {
+                assertTrue(zoneId.startsWith("Pacific/"), zoneId);
+            }
+        } finally {
+            if (old == null) {
+                System.clearProperty(TzdbZoneRulesProvider.REGIONS_PROPERTY);
+            } else {
+                System.setProperty(TzdbZoneRulesProvider.REGIONS_PROPERTY, old);
+            }
+        }
+    }
+
+    @Test
+    public void test_regionFilter_all() {
+        TzdbZoneRulesProvider.RegionFilter test = TzdbZoneRulesProvider.RegionFilter.ALL;
+        assertEquals(test.includes("Anything"), true);
+    }
+
+}
@@ -0,0 +1,123 @@
+/*
+ * Copyright (c) 2007-present, Stephen Colebourne & Michael Nascimento Santos
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *  * Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *
+ *  * Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ *  * Neither the name of JSR-310 nor the names of its contributors
+ *    may be used to endorse or promote products derived from this software
+ *    without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.threeten.bp.zone;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotSame;
+import static org.testng.Assert.assertSame;
+
+import java.lang.reflect.Field;
+import java.nio.ByteBuffer;
+
+import org.testng.annotations.Test;
+import org.threeten.bp.LocalDateTime;
+import org.threeten.bp.ZoneOffset;
+
+/**
+ * Test ZoneRulesInterner.
+ */
+@Test
+public class TestZoneRulesInterner {
+
+    @Test
+    public void test_intern_longArray() {
+        long[] array1 = new long[] {1L, 2L, 3L, 4056L};
+        long[] array2 = new long[] {1L, 2L, 3L, 4056L};
+        assertSame(ZoneRulesInterner.intern(array1), array1);
+        assertSame(ZoneRulesInterner.intern(array2), array1);
+        long[] array3 = new long[] {1L, 2L, 3L, 4057L};
+        assertSame(ZoneRulesInterner.intern(array3), array3);
+    }
+
+    @Test
+    public void test_intern_objectArray() {
+        ZoneOffset[] array1 = new ZoneOffset[] {ZoneOffset.ofHoursMinutes(3, 17), ZoneOffset.UTC};
+        ZoneOffset[] array2 = new ZoneOffset[] {ZoneOffset.ofHoursMinutes(3, 17), ZoneOffset.UTC};
+        assertSame(ZoneRulesInterner.intern(array1), array1);
+        assertSame(ZoneRulesInterner.intern(array2), array1);
+    }
+
+    @Test
+    public void test_intern_emptyArraysOfDifferentType() {
+        ZoneOffset[] offsets = ZoneRulesInterner.intern(new ZoneOffset[0]);
+        LocalDateTime[] dateTimes = ZoneRulesInterner.intern(new LocalDateTime[0]);
+        assertEquals(offsets.getClass(), ZoneOffset[].class);
+        assertEquals(dateTimes.getClass(), LocalDateTime[].class);
+    }
+
+    @Test
+    public void test_intern_rules() {
+        ZoneRules rules1 = ZoneOffset.ofHoursMinutes(5, 17).getRules();
+        ZoneRules rules2 = ZoneOffset.ofHoursMinutes(5, 17).getRules();
+        ZoneRules interned = ZoneRulesInterner.intern(rules1);
+        assertSame(ZoneRulesInterner.intern(rules2), interned);
+    }
+
+    @Test
+    public void test_collected() {
+        int size = ZoneRulesInterner.size();
+        for (int i = 0; i < 1000; i++) {
+            ZoneRulesInterner.intern(new long[] {i, -8263L});
+        }
+        for (int i = 0; i < 10 && ZoneRulesInterner.size() > size + 500; i++) {
+            System.gc();
+        }
+        // the arrays are only weakly held
+        assertEquals(ZoneRulesInterner.size() < size + 1000, true);
+    }
+
+    //-----------------------------------------------------------------------
+    @Test
+    public void test_decodedRules_sharedBetweenFiles() throws Exception {
+        byte[] bytes = TestTzdbFile.readTzdb();
+        TzdbFile file1 = TzdbFile.load(ByteBuffer.wrap(bytes));
+        TzdbFile file2 = TzdbFile.load(ByteBuffer.wrap(TestTzdbFile.convert(file1, TzdbFile.FORMAT_1)));
+        int latest1 = file1.getVersionIds().length - 1;
+        int latest2 = file2.getVersionIds().length - 1;
+        assertSame(file2.getRules(latest2, "Europe/London"), file1.getRules(latest1, "Europe/London"));
+        assertSame(file2.getRules(latest2, "Etc/GMT+5"), file1.getRules(latest1, "Etc/GMT+5"));
+    }
+
+    @Test
+    public void test_decodedRules_shareArrays() throws Exception {
+        TzdbFile file = TzdbFile.load(ByteBuffer.wrap(TestTzdbFile.readTzdb()));
+        int latest = file.getVersionIds().length - 1;
+        ZoneRules paris = file.getRules(latest, "Europe/Paris");
+        ZoneRules berlin = file.getRules(latest, "Europe/Berlin");
+        assertNotSame(paris, berlin);
+        assertEquals(paris.getTransitionRules(), berlin.getTransitionRules());
+        Field field = StandardZoneRules.class.getDeclaredField("lastRules");
+        field.setAccessible(true);
+        assertSame(field.get(paris), field.get(berlin));
+    }
+
+}
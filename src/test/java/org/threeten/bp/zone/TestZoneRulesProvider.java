@@ -40,6 +40,7 @@ import java.util.HashSet;
 import java.util.NavigableMap;
 import java.util.Set;
 import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.testng.annotations.Test;
 import org.threeten.bp.ZoneOffset;
@@ -119,6 +120,67 @@ public class TestZoneRulesProvider {
         assertEquals(ZoneRulesProvider.refresh(), false);
     }
 
+    @Test
+    public void test_getRules_immutableRulesCachedUntilRefresh() {
+        MockCountingProvider provider = new MockCountingProvider("Counting/Immutable", true);
+        ZoneRulesProvider.registerProvider(provider);
+        assertEquals(ZoneRulesProvider.getRules("Counting/Immutable", false), provider.rules);
+        assertEquals(ZoneRulesProvider.getRules("Counting/Immutable", true), provider.rules);
+        assertEquals(provider.lookups.get(), 1);
+
+        provider.refreshed = true;
+        assertEquals(ZoneRulesProvider.refresh(), true);
+        assertEquals(ZoneRulesProvider.getRules("Counting/Immutable", false), provider.rules);
+        assertEquals(ZoneRulesProvider.getRules("Counting/Immutable", false), provider.rules);
+        assertEquals(provider.lookups.get(), 2);
+    }
+
+    @Test
+    public void test_getRules_mutableRulesNotCached() {
+        MockCountingProvider provider = new MockCountingProvider("Counting/Mutable", false);
+        ZoneRulesProvider.registerProvider(provider);
+        assertEquals(ZoneRulesProvider.getRules("Counting/Mutable", false), provider.rules);
+        assertEquals(ZoneRulesProvider.getRules("Counting/Mutable", false), provider.rules);
+        assertEquals(provider.lookups.get(), 2);
+    }
+
+    static class MockCountingProvider extends ZoneRulesProvider {
+        final ZoneRules rules = ZoneOffset.of("+02:15").getRules();
+        final AtomicInteger lookups = new AtomicInteger();
+        final String zoneId;
+        final boolean immutable;
+        volatile boolean refreshed;
+        MockCountingProvider(String zoneId, boolean immutable) {
+            this.zoneId = zoneId;
+            this.immutable = immutable;
+        }
+        @Override
+        protected Set<String> provideZoneIds() {
+            return Collections.singleton(zoneId);
+        }
+        @Override
+        protected NavigableMap<String, ZoneRules> provideVersions(String zoneId) {
+            NavigableMap<String, ZoneRules> result = new TreeMap<String, ZoneRules>();
+            result.put("Version", rules);
+            return result;
+        }
+        @Override
+        protected ZoneRules provideRules(String zoneId, boolean forCaching) {
+            lookups.incrementAndGet();
+            return rules;
+        }
+        @Override
+        protected boolean provideRefresh() {
+            boolean result = refreshed;
+            refreshed = false;
+            return result;
+        }
+        @Override
+        protected boolean provideImmutableRules() {
+            return immutable;
+        }
+    }
+
     //-----------------------------------------------------------------------
     // registerProvider()
     //-----------------------------------------------------------------------